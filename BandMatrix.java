@@ -0,0 +1,217 @@
+//A band matrix: the elements more than lowerBandwidth below or upperBandwidth above the diagonal are zero, e.g. a tridiagonal matrix has bandwidths 1 and 1.
+//Only the band is stored, row by row: row i keeps the lowerBandwidth + upperBandwidth + 1 elements from column i - lowerBandwidth on,
+//where the positions outside of the matrix stay 0. A rows x columns band matrix takes rows * (lowerBandwidth + upperBandwidth + 1) elements,
+//and its products visit only the band, so they take O(rows * bandwidth) per vector instead of O(rows * columns).
+public class BandMatrix {
+
+    private final double[] elements;
+    private final int rowCount;
+    private final int columnCount;
+    private final int lowerBandwidth;
+    private final int upperBandwidth;
+    private final int width; //Stored elements per row.
+
+    //Creates a band matrix of the given dimension and bandwidths with zeros in the band.
+    public BandMatrix(int rows, int columns, int lowerBandwidth, int upperBandwidth) {
+        if (rows < 1 || columns < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1x1");
+        if (lowerBandwidth < 0 || upperBandwidth < 0)
+            throw new IllegalArgumentException("Bandwidths cannot be negative.");
+
+        rowCount = rows;
+        columnCount = columns;
+        this.lowerBandwidth = Math.min(lowerBandwidth, rows - 1);
+        this.upperBandwidth = Math.min(upperBandwidth, columns - 1);
+        width = this.lowerBandwidth + this.upperBandwidth + 1;
+        if ((long) rows * width > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Band of " + rows + " rows and width " + width + " does not fit in an array.");
+        elements = new double[rows * width];
+    }
+
+    //Creates a band matrix from the band of a dense matrix. The elements outside the band are ignored.
+    public static BandMatrix fromMatrix(Matrix matrix, int lowerBandwidth, int upperBandwidth) {
+        BandMatrix result = new BandMatrix(matrix.getRowCount(), matrix.getColumnCount(), lowerBandwidth, upperBandwidth);
+        double[] data = matrix.getData();
+        int columnStride = matrix.getColumnStride();
+        for (int i = 0; i < result.rowCount; i++) {
+            int first = result.firstColumn(i);
+            int index = matrix.index(i, first);
+            int start = result.index(i, first);
+            for (int j = 0; j < result.rowLength(i); j++) {
+                result.elements[start + j] = data[index + j * columnStride];
+            }
+        }
+        return result;
+    }
+
+    //Creates and returns a dense matrix with the same elements.
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(rowCount, columnCount);
+        double[] data = matrix.getData();
+        for (int i = 0; i < rowCount; i++) {
+            int first = firstColumn(i);
+            System.arraycopy(elements, index(i, first), data, matrix.index(i, first), rowLength(i));
+        }
+        return matrix;
+    }
+
+    //Returns the count of rows of the matrix.
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    //Returns the count of columns of the matrix.
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Returns the number of diagonals below the diagonal which are stored.
+    public int getLowerBandwidth() {
+        return lowerBandwidth;
+    }
+
+    //Returns the number of diagonals above the diagonal which are stored.
+    public int getUpperBandwidth() {
+        return upperBandwidth;
+    }
+
+    //Returns the element at given coordinates. Elements outside the band are 0.
+    public double getElement(int row, int column) {
+        checkLocation(row, column);
+        return inBand(row, column) ? elements[index(row, column)] : 0;
+    }
+
+    //Sets the element at given coordinates. Throws an IllegalArgumentException if a non-zero value is set outside the band.
+    public void setElement(int row, int column, double value) {
+        checkLocation(row, column);
+        if (inBand(row, column))
+            elements[index(row, column)] = value;
+        else if (value != 0)
+            throw new IllegalArgumentException("Elements outside the band of a band matrix must be 0.");
+    }
+
+    //Creates and returns the transpose, whose lower and upper bandwidths are interchanged.
+    public BandMatrix getTranspose() {
+        BandMatrix transpose = new BandMatrix(columnCount, rowCount, upperBandwidth, lowerBandwidth);
+        for (int i = 0; i < rowCount; i++) {
+            int first = firstColumn(i), start = index(i, first);
+            for (int j = 0; j < rowLength(i); j++) {
+                transpose.elements[transpose.index(first + j, i)] = elements[start + j];
+            }
+        }
+        return transpose;
+    }
+
+    //Multiplies the band matrix by the vector and returns the resultant vector. Each component is the dot product of the band of a row
+    //and the corresponding part of the vector.
+    public static Vector multiplication(BandMatrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.rowCount);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the band matrix by the vector into the given vector instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the vector.
+    public static void multiplyInto(BandMatrix matrix, Vector vector, Vector destination) {
+        if (vector.getDimension() != matrix.columnCount)
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.rowCount)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents())
+            throw new IllegalArgumentException("The destination vector cannot share its components with the vector.");
+        destination.modified();
+
+        double[] x = vector.getComponents(), y = destination.getComponents();
+        int xOffset = vector.getOffset(), xStride = vector.getStride();
+        int yOffset = destination.getOffset(), yStride = destination.getStride();
+        for (int i = 0; i < matrix.rowCount; i++) {
+            int first = matrix.firstColumn(i), start = matrix.index(i, first), length = matrix.rowLength(i);
+            double sum;
+            if (xStride == 1) {
+                sum = VectorKernels.INSTANCE.dot(matrix.elements, start, x, xOffset + first, length);
+            }
+            else {
+                sum = 0;
+                for (int j = 0; j < length; j++) {
+                    sum += matrix.elements[start + j] * x[xOffset + (first + j) * xStride];
+                }
+            }
+            y[yOffset + i * yStride] = sum;
+        }
+    }
+
+    //Multiplies the band matrix by a dense matrix and returns the resultant matrix. Row i of the result adds the rows of the dense matrix
+    //multiplied by the elements of the band of row i.
+    public static Matrix multiplication(BandMatrix m1, Matrix m2) {
+        if (m1.columnCount != m2.getRowCount())
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int columns = m2.getColumnCount();
+        Matrix dense = m2.getColumnStride() == 1 ? m2 : new Matrix(m2); //Rows of the dense matrix must be contiguous for the kernel.
+        Matrix result = new Matrix(m1.rowCount, columns);
+        double[] resultData = result.getData();
+        for (int i = 0; i < m1.rowCount; i++) {
+            int resultRow = result.index(i, 0);
+            int first = m1.firstColumn(i), start = m1.index(i, first);
+            for (int j = 0; j < m1.rowLength(i); j++) {
+                double factor = m1.elements[start + j];
+                if (factor != 0)
+                    VectorKernels.INSTANCE.addScaled(resultData, resultRow, dense.getData(), dense.index(first + j, 0), columns, factor);
+            }
+        }
+        return result;
+    }
+
+    //Multiplies a dense matrix by the band matrix and returns the resultant matrix. Each element (i, k) of the dense matrix adds a multiple of
+    //the band of row k to the columns of row i of the result which it covers.
+    public static Matrix multiplication(Matrix m1, BandMatrix m2) {
+        if (m1.getColumnCount() != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int rows = m1.getRowCount();
+        Matrix result = new Matrix(rows, m2.columnCount);
+        double[] resultData = result.getData();
+        double[] data = m1.getData();
+        for (int i = 0; i < rows; i++) {
+            int resultRow = result.index(i, 0);
+            for (int k = 0; k < m2.rowCount; k++) {
+                double factor = data[m1.index(i, k)];
+                if (factor == 0)
+                    continue;
+                int first = m2.firstColumn(k);
+                VectorKernels.INSTANCE.addScaled(resultData, resultRow + first, m2.elements, m2.index(k, first), m2.rowLength(k), factor);
+            }
+        }
+        return result;
+    }
+
+    //Returns the position of the element at given coordinates, which must be in the band, in the array.
+    private int index(int row, int column) {
+        return row * width + column - row + lowerBandwidth;
+    }
+
+    //Returns the first column of the band of the row which is in the matrix. For rows whose band is entirely right of the matrix (see rowLength)
+    //it is the last column, so that the positions of the empty range stay in the arrays.
+    private int firstColumn(int row) {
+        return Math.max(0, Math.min(row - lowerBandwidth, columnCount - 1));
+    }
+
+    //Returns the number of elements of the band of the row which are in the matrix. Rows further below the last column than the lower bandwidth have none.
+    private int rowLength(int row) {
+        return Math.max(0, Math.min(columnCount - 1, row + upperBandwidth) - Math.max(0, row - lowerBandwidth) + 1);
+    }
+
+    private boolean inBand(int row, int column) {
+        return column >= row - lowerBandwidth && column <= row + upperBandwidth;
+    }
+
+    private void checkLocation(int row, int column) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+    }
+
+    //Overrides the toString function. Returns the dense text representation (see Matrix.toString).
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+//The element-wise bulk operations of Matrix and Vector: map, zipWith, reduce, sum, max and the maximum absolute value.
+//They run over the backing array directly, without the range checks of getElement and setElement. The elements are numbered in row-major order
+//and processed in ranges of that numbering. Each range is walked row by row, and rows with a column stride of 1 are plain loops over the array,
+//which the JIT compiler can vectorise once the operator is inlined. Sums and maximums use the SIMD kernels (see VectorKernels).
+//The parallel forms split the numbering in halves until the ranges have at most PARALLEL_THRESHOLD elements and run them as fork-join tasks
+//on the executor of Matrix (see Matrix.setExecutor) if it is a ForkJoinPool, otherwise on the common ForkJoinPool.
+final class BulkOperations {
+
+    //Ranges with at most this many elements are not split further.
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private BulkOperations() {
+    }
+
+    //The elements of a matrix or a vector: rows x columns elements of the array, (row, column) at offset + row * rowStride + column * columnStride.
+    //A vector is a single row.
+    static final class Elements {
+        final double[] data;
+        final int offset;
+        final int rows;
+        final int columns;
+        final int rowStride;
+        final int columnStride;
+
+        Elements(double[] data, int offset, int rows, int columns, int rowStride, int columnStride) {
+            this.data = data;
+            this.offset = offset;
+            this.rows = rows;
+            this.columns = columns;
+            this.rowStride = rowStride;
+            this.columnStride = columnStride;
+        }
+
+        int size() {
+            return rows * columns;
+        }
+
+        //Returns the position of the element with the given number in the array.
+        int index(int element) {
+            return offset + element / columns * rowStride + element % columns * columnStride;
+        }
+    }
+
+    //An operation on the elements from start (inclusive) to end (exclusive).
+    interface RangeAction {
+        void run(int start, int end);
+    }
+
+    interface RangeReduction {
+        double apply(int start, int end);
+    }
+
+    //Replaces the elements from start to end with the results of the operator.
+    static void map(Elements elements, int start, int end, DoubleUnaryOperator operator) {
+        double[] data = elements.data;
+        int stride = elements.columnStride;
+        while (start < end) {
+            int length = Math.min(elements.columns - start % elements.columns, end - start);
+            int index = elements.index(start);
+            if (stride == 1) {
+                for (int i = index; i < index + length; i++) {
+                    data[i] = operator.applyAsDouble(data[i]);
+                }
+            }
+            else {
+                for (int j = 0; j < length; j++) {
+                    data[index + j * stride] = operator.applyAsDouble(data[index + j * stride]);
+                }
+            }
+            start += length;
+        }
+    }
+
+    //Replaces the elements from start to end with the results of the operator applied to them and the elements of other with the same numbers.
+    static void zipWith(Elements elements, Elements other, int start, int end, DoubleBinaryOperator operator) {
+        double[] data = elements.data, otherData = other.data;
+        int stride = elements.columnStride, otherStride = other.columnStride;
+        while (start < end) {
+            int length = Math.min(elements.columns - start % elements.columns, end - start);
+            int index = elements.index(start), otherIndex = other.index(start);
+            if (stride == 1 && otherStride == 1) {
+                for (int j = 0; j < length; j++) {
+                    data[index + j] = operator.applyAsDouble(data[index + j], otherData[otherIndex + j]);
+                }
+            }
+            else {
+                for (int j = 0; j < length; j++) {
+                    data[index + j * stride] = operator.applyAsDouble(data[index + j * stride], otherData[otherIndex + j * otherStride]);
+                }
+            }
+            start += length;
+        }
+    }
+
+    //Combines identity and the elements from start to end with the operator, in increasing order of their numbers.
+    static double reduce(Elements elements, int start, int end, double identity, DoubleBinaryOperator operator) {
+        double[] data = elements.data;
+        int stride = elements.columnStride;
+        double result = identity;
+        while (start < end) {
+            int length = Math.min(elements.columns - start % elements.columns, end - start);
+            int index = elements.index(start);
+            for (int j = 0; j < length; j++) {
+                result = operator.applyAsDouble(result, data[index + j * stride]);
+            }
+            start += length;
+        }
+        return result;
+    }
+
+    //Returns the sum of the elements from start to end.
+    static double sum(Elements elements, int start, int end) {
+        double[] data = elements.data;
+        int stride = elements.columnStride;
+        double result = 0;
+        while (start < end) {
+            int length = Math.min(elements.columns - start % elements.columns, end - start);
+            int index = elements.index(start);
+            if (stride == 1) {
+                result += VectorKernels.INSTANCE.sum(data, index, length);
+            }
+            else {
+                for (int j = 0; j < length; j++) {
+                    result += data[index + j * stride];
+                }
+            }
+            start += length;
+        }
+        return result;
+    }
+
+    //Returns the biggest of the elements from start to end (or of their absolute values), negative infinity (or 0) for an empty range.
+    static double max(Elements elements, int start, int end, boolean absolute) {
+        double[] data = elements.data;
+        int stride = elements.columnStride;
+        double result = absolute ? 0 : Double.NEGATIVE_INFINITY;
+        while (start < end) {
+            int length = Math.min(elements.columns - start % elements.columns, end - start);
+            int index = elements.index(start);
+            if (stride == 1) {
+                result = Math.max(result, absolute ? VectorKernels.INSTANCE.maxOfAbsolutes(data, index, length) : VectorKernels.INSTANCE.max(data, index, length));
+            }
+            else {
+                for (int j = 0; j < length; j++) {
+                    double element = data[index + j * stride];
+                    result = Math.max(result, absolute ? Math.abs(element) : element);
+                }
+            }
+            start += length;
+        }
+        return result;
+    }
+
+    //Returns the biggest sum of the absolute values of a row, among the rows from start to end.
+    static double maxRowSum(Elements elements, int start, int end) {
+        double result = 0;
+        for (int row = start; row < end; row++) {
+            int index = elements.offset + row * elements.rowStride;
+            double sum;
+            if (elements.columnStride == 1) {
+                sum = VectorKernels.INSTANCE.sumOfAbsolutes(elements.data, index, elements.columns);
+            }
+            else {
+                sum = 0;
+                for (int j = 0; j < elements.columns; j++) {
+                    sum += Math.abs(elements.data[index + j * elements.columnStride]);
+                }
+            }
+            result = Math.max(result, sum);
+        }
+        return result;
+    }
+
+    //Runs the action for ranges of 0 to size in parallel. Ranges with at most grain units are not split.
+    static void parallel(int size, int grain, RangeAction action) {
+        pool().invoke(new ActionTask(0, size, Math.max(1, grain), action));
+    }
+
+    //Applies the reduction to ranges of 0 to size in parallel and combines the results of adjacent ranges with the combiner, the left one first.
+    static double parallel(int size, int grain, RangeReduction reduction, DoubleBinaryOperator combiner) {
+        return pool().invoke(new ReductionTask(0, size, Math.max(1, grain), reduction, combiner));
+    }
+
+    private static ForkJoinPool pool() {
+        Executor executor = Matrix.getExecutor();
+        return executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+    }
+
+    private static final class ActionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int grain;
+        private final RangeAction action;
+
+        ActionTask(int start, int end, int grain, RangeAction action) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                action.run(start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ActionTask(start, middle, grain, action), new ActionTask(middle, end, grain, action));
+        }
+    }
+
+    private static final class ReductionTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int grain;
+        private final RangeReduction reduction;
+        private final DoubleBinaryOperator combiner;
+
+        ReductionTask(int start, int end, int grain, RangeReduction reduction, DoubleBinaryOperator combiner) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.reduction = reduction;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected Double compute() {
+            if (end - start <= grain)
+                return reduction.apply(start, end);
+
+            int middle = (start + end) >>> 1;
+            ReductionTask left = new ReductionTask(start, middle, grain, reduction, combiner);
+            left.fork();
+            double right = new ReductionTask(middle, end, grain, reduction, combiner).compute();
+            return combiner.applyAsDouble(left.join(), right);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+//Cholesky decomposition of a symmetric positive-definite matrix. A = LL^T, where L is a lower triangular matrix with a positive diagonal.
+//It needs half the work of the LU decomposition (n^3 / 3 multiply-adds) and no pivoting, since the decomposition of such matrices is always stable.
+//Systems are then solved with a forward and a back substitution in O(n^2). Matrices which are not positive-definite are detected while decomposing.
+public class CholeskyDecomposition {
+
+    //Relative tolerance of the symmetry check. Elements (i, j) and (j, i) may differ by this times the bigger of their absolute values.
+    static final double SYMMETRY_TOLERANCE = 1e-10;
+
+    private final double[][] lower; //Row i holds the elements 0 to i of row i of L.
+    private final boolean positiveDefinite;
+
+    //Computes the decomposition of the given matrix. Only its lower triangle is used.
+    //Throws an IllegalArgumentException if the matrix is not square or not symmetric.
+    public CholeskyDecomposition(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Cholesky decomposition of non-square matrices cannot be computed.");
+
+        int n = matrix.getRowCount();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                double a = matrix.getElement(i, j);
+                double b = matrix.getElement(j, i);
+                if (Math.abs(a - b) > SYMMETRY_TOLERANCE * Math.max(Math.abs(a), Math.abs(b)))
+                    throw new IllegalArgumentException("Matrix is not symmetric.");
+            }
+        }
+
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.CHOLESKY_DECOMPOSITION);
+        lower = new double[n][];
+        boolean isPositiveDefinite = true;
+
+        //Row by row: L[i][j] = (A[i][j] - sum of L[i][k] * L[j][k] for k < j) / L[j][j], and the diagonal is the square root of what remains of A[i][i].
+        for (int i = 0; i < n && isPositiveDefinite; i++) {
+            double[] row = new double[i + 1];
+            for (int j = 0; j <= i; j++) {
+                double[] otherRow = j == i ? row : lower[j];
+                double sum = matrix.getElement(i, j);
+                for (int k = 0; k < j; k++) {
+                    sum -= row[k] * otherRow[k];
+                }
+                if (j < i) {
+                    row[j] = sum / otherRow[j];
+                }
+                else if (sum > 0) {
+                    row[i] = Math.sqrt(sum);
+                }
+                else {
+                    isPositiveDefinite = false;
+                }
+            }
+            lower[i] = row;
+        }
+
+        positiveDefinite = isPositiveDefinite;
+
+        if (event != null)
+            Metrics.end(event, n, n, (long) n * n * n / 3);
+    }
+
+    //Returns the dimension of the decomposed matrix.
+    public int getDimension() {
+        return lower.length;
+    }
+
+    //Checks whether the decomposed matrix is positive-definite. If not, the decomposition could not be completed and the other methods throw a RuntimeException.
+    public boolean isPositiveDefinite() {
+        return positiveDefinite;
+    }
+
+    //Returns the lower triangular factor L.
+    public Matrix getLower() {
+        checkPositiveDefinite();
+
+        int n = lower.length;
+        Matrix result = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                result.setElement(i, j, lower[i][j]);
+            }
+        }
+        return result;
+    }
+
+    //Returns the determinant of the decomposed matrix, the square of the product of the diagonal of L.
+    public double determinant() {
+        checkPositiveDefinite();
+
+        double product = 1;
+        for (int i = 0; i < lower.length; i++) {
+            product *= lower[i][i];
+        }
+        return product * product;
+    }
+
+    //Solves Ax = b for x and returns it.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != lower.length)
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the matrix.");
+        checkPositiveDefinite();
+
+        double[] x = new double[lower.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = b.getComponent(i);
+        }
+        solveInPlace(x);
+        return new Vector(x);
+    }
+
+    //Solves AX = B for X and returns it. Each column of X is the solution for the corresponding column of B.
+    public Matrix solve(Matrix b) {
+        if (b.getRowCount() != lower.length)
+            throw new IllegalArgumentException("Row count of the matrix does not match the dimension of the decomposed matrix.");
+        checkPositiveDefinite();
+
+        Matrix result = new Matrix(lower.length, b.getColumnCount());
+        double[] x = new double[lower.length];
+        for (int j = 0; j < b.getColumnCount(); j++) {
+            for (int i = 0; i < x.length; i++) {
+                x[i] = b.getElement(i, j);
+            }
+            solveInPlace(x);
+            for (int i = 0; i < x.length; i++) {
+                result.setElement(i, j, x[i]);
+            }
+        }
+        return result;
+    }
+
+    //Returns the inverse of the decomposed matrix by solving AX = I.
+    public Matrix getInverse() {
+        return solve(Matrix.createIdentityMatrix(lower.length));
+    }
+
+    private void checkPositiveDefinite() {
+        if (!positiveDefinite)
+            throw new RuntimeException("Matrix is not positive-definite.");
+    }
+
+    //Solves LL^T x = b in place: Ly = b by forward substitution, then L^T x = y by back substitution.
+    private void solveInPlace(double[] x) {
+        int n = lower.length;
+        for (int i = 0; i < n; i++) {
+            double[] row = lower[i];
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= row[k] * x[k];
+            }
+            x[i] = sum / row[i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            x[i] /= lower[i][i];
+            double xi = x[i];
+            double[] row = lower[i];
+            for (int k = 0; k < i; k++) { //Column i of L^T is row i of L.
+                x[k] -= row[k] * xi;
+            }
+        }
+    }
+}
\ No newline at end of file
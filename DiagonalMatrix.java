@@ -0,0 +1,179 @@
+import java.util.Arrays;
+
+//A square matrix whose elements outside the diagonal are zero. Only the n diagonal elements are stored, so the identity matrix of
+//dimension n takes n doubles instead of the n x n of Matrix.createIdentityMatrix. Products scale the rows or the columns of the other operand in O(n) per row,
+//and the determinant, the inverse and the solutions of linear systems take O(n).
+public class DiagonalMatrix {
+
+    private final double[] diagonal;
+
+    //Creates a diagonal matrix of the given dimension with zeros on the diagonal.
+    public DiagonalMatrix(int dimension) {
+        if (dimension < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1.");
+        diagonal = new double[dimension];
+    }
+
+    //Creates a diagonal matrix with the given diagonal elements. The array is copied.
+    public DiagonalMatrix(double[] diagonal) {
+        if (diagonal.length < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1.");
+        this.diagonal = diagonal.clone();
+    }
+
+    //Creates and returns the identity matrix for the given dimension.
+    public static DiagonalMatrix createIdentityMatrix(int dimension) {
+        DiagonalMatrix identity = new DiagonalMatrix(dimension);
+        Arrays.fill(identity.diagonal, 1);
+        return identity;
+    }
+
+    //Creates a diagonal matrix from the diagonal of a square dense matrix. The elements outside the diagonal are ignored.
+    public static DiagonalMatrix fromMatrix(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Diagonal matrices must be square.");
+
+        DiagonalMatrix result = new DiagonalMatrix(matrix.getRowCount());
+        for (int i = 0; i < result.diagonal.length; i++) {
+            result.diagonal[i] = matrix.getElement(i, i);
+        }
+        return result;
+    }
+
+    //Creates and returns a dense matrix with the same elements.
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(diagonal.length, diagonal.length);
+        for (int i = 0; i < diagonal.length; i++) {
+            matrix.setElement(i, i, diagonal[i]);
+        }
+        return matrix;
+    }
+
+    public int getDimension() {
+        return diagonal.length;
+    }
+
+    //Returns the element at given coordinates. Elements outside the diagonal are 0.
+    public double getElement(int row, int column) {
+        checkLocation(row, column);
+        return row == column ? diagonal[row] : 0;
+    }
+
+    //Sets the element at given coordinates. Throws an IllegalArgumentException if a non-zero value is set outside the diagonal.
+    public void setElement(int row, int column, double value) {
+        checkLocation(row, column);
+        if (row == column)
+            diagonal[row] = value;
+        else if (value != 0)
+            throw new IllegalArgumentException("Elements outside the diagonal of a diagonal matrix must be 0.");
+    }
+
+    //Returns the product of the diagonal elements.
+    public double determinant() {
+        double determinant = 1;
+        for (double element : diagonal) {
+            determinant *= element;
+        }
+        return determinant;
+    }
+
+    //Returns the inverse, the diagonal matrix of the reciprocals. Throws a RuntimeException if a diagonal element is 0.
+    public DiagonalMatrix getInverse() {
+        DiagonalMatrix inverse = new DiagonalMatrix(diagonal.length);
+        for (int i = 0; i < diagonal.length; i++) {
+            if (diagonal[i] == 0)
+                throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+            inverse.diagonal[i] = 1 / diagonal[i];
+        }
+        return inverse;
+    }
+
+    //Solves Dx = b for x and returns it. Throws a RuntimeException if a diagonal element is 0.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != diagonal.length)
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the matrix.");
+
+        Vector x = new Vector(diagonal.length);
+        for (int i = 0; i < diagonal.length; i++) {
+            if (diagonal[i] == 0)
+                throw new RuntimeException("The system of a singular matrix cannot be solved.");
+            x.setComponent(i, b.getComponent(i) / diagonal[i]);
+        }
+        return x;
+    }
+
+    //Multiplies two diagonal matrices, element by element of their diagonals.
+    public static DiagonalMatrix multiplication(DiagonalMatrix m1, DiagonalMatrix m2) {
+        if (m1.diagonal.length != m2.diagonal.length)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        DiagonalMatrix result = new DiagonalMatrix(m1.diagonal);
+        for (int i = 0; i < result.diagonal.length; i++) {
+            result.diagonal[i] *= m2.diagonal[i];
+        }
+        return result;
+    }
+
+    //Multiplies the diagonal matrix by the vector and returns the resultant vector. Each component is scaled by a diagonal element. O(n).
+    public static Vector multiplication(DiagonalMatrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.diagonal.length);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the diagonal matrix by the vector into the given vector instead of creating a new one. The destination may be the vector itself.
+    public static void multiplyInto(DiagonalMatrix matrix, Vector vector, Vector destination) {
+        if (vector.getDimension() != matrix.diagonal.length)
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.diagonal.length)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        destination.modified();
+
+        double[] x = vector.getComponents(), y = destination.getComponents();
+        int xOffset = vector.getOffset(), xStride = vector.getStride();
+        int yOffset = destination.getOffset(), yStride = destination.getStride();
+        for (int i = 0; i < matrix.diagonal.length; i++) {
+            y[yOffset + i * yStride] = matrix.diagonal[i] * x[xOffset + i * xStride];
+        }
+    }
+
+    //Multiplies the diagonal matrix by a dense matrix and returns the resultant matrix: row i of the dense matrix scaled by the i-th diagonal element.
+    public static Matrix multiplication(DiagonalMatrix m1, Matrix m2) {
+        if (m1.diagonal.length != m2.getRowCount())
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        Matrix result = new Matrix(m2);
+        double[] data = result.getData();
+        int columns = result.getColumnCount();
+        for (int i = 0; i < m1.diagonal.length; i++) {
+            VectorKernels.INSTANCE.scale(data, result.index(i, 0), columns, m1.diagonal[i]);
+        }
+        return result;
+    }
+
+    //Multiplies a dense matrix by the diagonal matrix and returns the resultant matrix: column j of the dense matrix scaled by the j-th diagonal element.
+    public static Matrix multiplication(Matrix m1, DiagonalMatrix m2) {
+        if (m1.getColumnCount() != m2.diagonal.length)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        Matrix result = new Matrix(m1);
+        double[] data = result.getData();
+        for (int i = 0; i < result.getRowCount(); i++) {
+            int index = result.index(i, 0);
+            for (int j = 0; j < m2.diagonal.length; j++) {
+                data[index + j] *= m2.diagonal[j];
+            }
+        }
+        return result;
+    }
+
+    private void checkLocation(int row, int column) {
+        if (row < 0 || column < 0 || row >= diagonal.length || column >= diagonal.length)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+    }
+
+    //Returns a string containing the diagonal elements.
+    public String toString() {
+        return "diag" + Arrays.toString(diagonal);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,421 @@
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+//A matrix of single-precision elements. It has the basic operations of Matrix, but stores its elements in a float array, which halves the memory
+//and the memory bandwidth they need. Convert with new FloatMatrix(Matrix) and toMatrix. The multiplications sum in float (multiplication, gemm)
+//or, for the accuracy of double at the memory cost of float, in double (mixedMultiplication, mixedGemm). They use the default parallelism
+//and executor of Matrix (see Matrix.setParallelism and Matrix.setExecutor).
+public class FloatMatrix {
+
+    //The elements are stored in a single array in row-major order. The element at (row, column) is at offset + row * rowStride + column * columnStride.
+    //Views (see getTransposeView) share the array of another matrix and only have different metadata.
+    private float[] data;
+    private int offset;
+    private int rowCount;
+    private int columnCount;
+    private int rowStride;
+    private int columnStride;
+    private boolean view; //Whether the array belongs to another matrix.
+
+    //A constructor method with two arguments of its dimension. Creates a new array with the specified dimension. (First row, second column)
+    public FloatMatrix(int rows, int columns) {
+        if (rows < 1 || columns < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1x1");
+        data = new float[rows * columns];
+        rowCount = rows;
+        columnCount = columns;
+        rowStride = columns;
+        columnStride = 1;
+    }
+
+    //A constructor method with an argument of a 2D float array. Assigns a copy of the given array to the elements array.
+    public FloatMatrix(float[][] elements) {
+        for (int i = 1; i < elements.length; i++) {
+            if (elements[0].length != elements[i].length)
+                throw new IllegalArgumentException("All rows must have the same number of elements.");
+        }
+
+        rowCount = elements.length;
+        columnCount = elements[0].length;
+        rowStride = columnCount;
+        columnStride = 1;
+        data = new float[rowCount * columnCount];
+
+        for (int i = 0; i < elements.length; i++) {
+            System.arraycopy(elements[i], 0, data, i * rowStride, columnCount);
+        }
+    }
+
+    //A constructor method which copies the elements of the given matrix.
+    public FloatMatrix(FloatMatrix matrix) {
+        this(matrix.rowCount, matrix.columnCount);
+        matrix.copyInto(this);
+    }
+
+    //Creates a matrix with the elements of the given double matrix rounded to the nearest floats.
+    public FloatMatrix(Matrix matrix) {
+        this(matrix.getRowCount(), matrix.getColumnCount());
+        double[] source = matrix.getData();
+        for (int i = 0; i < rowCount; i++) {
+            int sourceIndex = matrix.index(i, 0);
+            for (int j = 0; j < columnCount; j++) {
+                data[i * rowStride + j] = (float) source[sourceIndex + j * matrix.getColumnStride()];
+            }
+        }
+    }
+
+    //Creates a view which shares the given array.
+    FloatMatrix(float[] data, int offset, int rowCount, int columnCount, int rowStride, int columnStride) {
+        this.data = data;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+        this.view = true;
+    }
+
+    public FloatMatrix clone() {
+        return new FloatMatrix(this);
+    }
+
+    //Returns a double matrix with the same elements. The conversion is exact.
+    public Matrix toMatrix() {
+        Matrix result = new Matrix(rowCount, columnCount);
+        double[] destination = result.getData();
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            for (int j = 0; j < columnCount; j++) {
+                destination[i * columnCount + j] = data[index + j * columnStride];
+            }
+        }
+        return result;
+    }
+
+    //Returns the count of rows of the matrix.
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    //Returns the count of columns of the matrix.
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Checks whether the matrix is a view which shares the elements of another matrix.
+    public boolean isView() {
+        return view;
+    }
+
+    //The backing array and its layout. Used by the kernels to read and write the elements without range checks.
+    float[] getData() {
+        return data;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getRowStride() {
+        return rowStride;
+    }
+
+    int getColumnStride() {
+        return columnStride;
+    }
+
+    //Returns the position of the element at given coordinates in the backing array.
+    int index(int row, int column) {
+        return offset + row * rowStride + column * columnStride;
+    }
+
+    //Returns the element at given coordinates.
+    public float getElement(int row, int column) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+        return data[index(row, column)];
+    }
+
+    //Sets the element at given coordinates.
+    public void setElement(int row, int column, float value) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+        data[index(row, column)] = value;
+    }
+
+    //Checks whether given matrices are of the same dimension.
+    public static boolean checkDimensions(FloatMatrix m1, FloatMatrix m2) {
+        return m1.rowCount == m2.rowCount && m1.columnCount == m2.columnCount;
+    }
+
+    //Takes a matrix as the argument and adds its elements to the elements of this matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void add(FloatMatrix m1) {
+        if (!FloatMatrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.add(data, index, m1.data, otherIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] += m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
+            }
+        }
+    }
+
+    //Takes a matrix as the argument and subtracts its elements from the elements of this matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void subtract(FloatMatrix m1) {
+        if (!FloatMatrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.subtract(data, index, m1.data, otherIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] -= m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
+            }
+        }
+    }
+
+    //Adds the given matrix multiplied by a scalar to this matrix (this += scalar * m1) in a single pass, without creating the scaled matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void scaleAndAdd(float scalar, FloatMatrix m1) {
+        if (!FloatMatrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.addScaled(data, index, m1.data, otherIndex, columnCount, scalar);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] += scalar * m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
+            }
+        }
+    }
+
+    //Performs the multiplication by a scalar. Multiplies each element by the scalar number.
+    public void multiplyByAScalar(float scalar) {
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            if (columnStride == 1) {
+                VectorKernels.INSTANCE.scale(data, index, columnCount, scalar);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] *= scalar;
+                index += columnStride;
+            }
+        }
+    }
+
+    //Returns the specified row of the matrix as a vector which shares the elements of the matrix. Nothing is copied.
+    //Changes to the vector change the matrix and vice versa.
+    public FloatVector getRowVectorView(int row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+
+        return new FloatVector(data, index(row, 0), columnStride, columnCount);
+    }
+
+    //Returns the specified column of the matrix as a vector which shares the elements of the matrix. Nothing is copied.
+    //Changes to the vector change the matrix and vice versa.
+    public FloatVector getColumnVectorView(int column) {
+        if (column < 0 || column >= columnCount)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+
+        return new FloatVector(data, index(0, column), rowStride, rowCount);
+    }
+
+    //Returns the transpose of the matrix as a view which shares the elements of the matrix. Nothing is copied, only the strides are interchanged.
+    //Changes to the view change the matrix and vice versa.
+    public FloatMatrix getTransposeView() {
+        return new FloatMatrix(data, offset, columnCount, rowCount, columnStride, rowStride);
+    }
+
+    //Creates and returns the transpose of the matrix.
+    //If a copy is not needed, getTransposeView returns the transpose without copying the elements.
+    public FloatMatrix getTranspose() {
+        return new FloatMatrix(getTransposeView());
+    }
+
+    //Copies the elements of the matrix into the given matrix of the same dimension. Works with any layout, e.g. from or into views.
+    public void copyInto(FloatMatrix destination) {
+        if (!FloatMatrix.checkDimensions(this, destination))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int destinationIndex = destination.index(i, 0);
+            if (columnStride == 1 && destination.columnStride == 1) {
+                System.arraycopy(data, index, destination.data, destinationIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                destination.data[destinationIndex] = data[index];
+                index += columnStride;
+                destinationIndex += destination.columnStride;
+            }
+        }
+    }
+
+    //Sets all elements to the given value.
+    void fill(float value) {
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            if (columnStride == 1) {
+                Arrays.fill(data, index, index + columnCount, value);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] = value;
+                index += columnStride;
+            }
+        }
+    }
+
+    //Performs the multiplication of given matrices and returns the resultant matrix, summing the products in float.
+    //Like Matrix.multiplication, if one's column count does not match with the other's row count, changes their order for the operation.
+    //If the dimensions are not appropriate, throws an IllegalArgumentException.
+    public static FloatMatrix multiplication(FloatMatrix m1, FloatMatrix m2) {
+        return multiplication(m1, m2, false, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Performs the multiplication of given matrices like multiplication, but sums the products in double and rounds each element of the result once.
+    //It is as accurate as the multiplication of the corresponding double matrices followed by the conversion to float, while it reads half as much memory.
+    public static FloatMatrix mixedMultiplication(FloatMatrix m1, FloatMatrix m2) {
+        return multiplication(m1, m2, true, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Performs the multiplication of given matrices in the given precision using up to the given number of threads of the given executor.
+    public static FloatMatrix multiplication(FloatMatrix m1, FloatMatrix m2, boolean mixed, Executor executor, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        if (m1.columnCount != m2.rowCount) {
+            if (m1.rowCount == m2.columnCount) { //If needed, swaps them for the next operations
+                FloatMatrix temp = m1;
+                m1 = m2;
+                m2 = temp;
+            }
+            else {
+                throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+            }
+        }
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.FLOAT_MULTIPLICATION);
+
+        FloatMatrix result = new FloatMatrix(m1.rowCount, m2.columnCount);
+        FloatMultiplicationKernel.multiplyParallel(1, m1, m2, 0, result, mixed, executor, parallelism);
+
+        if (event != null)
+            Metrics.end(event, m1.rowCount, m2.columnCount, 2L * m1.rowCount * m1.columnCount * m2.columnCount);
+        return result;
+    }
+
+    //Computes c = alpha * a * b + beta * c in place, summing the products in float. See Matrix.gemm. The operands are never swapped.
+    //Throws an IllegalArgumentException if the dimensions do not match or c shares its elements with a or b.
+    public static void gemm(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c) {
+        gemm(alpha, a, b, beta, c, false, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Computes c = alpha * a * b + beta * c in place like gemm, but sums beta * c and the products in double and rounds each element of c once.
+    public static void mixedGemm(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c) {
+        gemm(alpha, a, b, beta, c, true, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Computes c = alpha * a * b + beta * c in place in the given precision using up to the given number of threads of the given executor.
+    public static void gemm(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, boolean mixed, Executor executor, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        if (a.columnCount != b.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+        if (c.rowCount != a.rowCount || c.columnCount != b.columnCount)
+            throw new IllegalArgumentException("Dimension of the result matrix does not match the dimension of the product.");
+        if (c.data == a.data || c.data == b.data)
+            throw new IllegalArgumentException("The result matrix cannot share its elements with the multiplied matrices.");
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.FLOAT_GEMM);
+
+        //The kernel loads beta * c into its accumulators, so c is scaled in the precision of the sum and only read and written once.
+        if (alpha != 0)
+            FloatMultiplicationKernel.multiplyParallel(alpha, a, b, beta, c, mixed, executor, parallelism);
+        else if (beta == 0)
+            c.fill(0);
+        else if (beta != 1)
+            c.multiplyByAScalar(beta);
+
+        if (event != null)
+            Metrics.end(event, c.rowCount, c.columnCount, (alpha != 0 ? 2L * a.rowCount * a.columnCount * b.columnCount : 0) + (beta != 0 && beta != 1 ? (long) c.rowCount * c.columnCount : 0));
+    }
+
+    //Multiplies the matrix by the vector, which is treated as a column vector, and returns the resultant vector.
+    public static FloatVector multiplication(FloatMatrix matrix, FloatVector vector) {
+        FloatVector result = new FloatVector(matrix.rowCount);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the matrix by the vector into the given vector instead of creating a new one. Each component is the dot product of a row and the vector.
+    //The product is bound by the memory bandwidth, so the dot products are always summed in double (see FloatVector.mixedDotProduct): it costs nothing extra.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the matrix or the vector.
+    public static void multiplyInto(FloatMatrix matrix, FloatVector vector, FloatVector destination) {
+        if (matrix.columnCount != vector.getDimension())
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.rowCount)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents() || destination.getComponents() == matrix.data)
+            throw new IllegalArgumentException("The destination vector cannot share its components with the matrix or the vector.");
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.FLOAT_MATRIX_VECTOR_MULTIPLICATION);
+
+        float[] x = vector.getComponents();
+        int xOffset = vector.getOffset();
+        int xStride = vector.getStride();
+        float[] y = destination.getComponents();
+        for (int i = 0; i < matrix.rowCount; i++) {
+            int index = matrix.index(i, 0);
+            double sum;
+            if (matrix.columnStride == 1 && xStride == 1) {
+                sum = VectorKernels.INSTANCE.mixedDot(matrix.data, index, x, xOffset, matrix.columnCount);
+            }
+            else {
+                sum = 0;
+                for (int j = 0; j < matrix.columnCount; j++) {
+                    sum += (double) matrix.data[index + j * matrix.columnStride] * x[xOffset + j * xStride];
+                }
+            }
+            y[destination.getOffset() + i * destination.getStride()] = (float) sum;
+        }
+
+        if (event != null)
+            Metrics.end(event, matrix.rowCount, matrix.columnCount, 2L * matrix.rowCount * matrix.columnCount);
+    }
+
+    //Overrides the toString function.
+    //Returns a string containing a text-based representation of the matrix.
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rowCount; i++) {
+            text.append('|');
+            for (int j = 0; j < columnCount - 1; j++) {
+                text.append(data[index(i, j)]).append(", ");
+            }
+            text.append(data[index(i, columnCount - 1)]).append("|\n");
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
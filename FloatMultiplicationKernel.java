@@ -0,0 +1,318 @@
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+//Matrix multiplication kernels used by FloatMatrix. The loop is the cache-blocked loop of MultiplicationKernel on float arrays, in two precisions:
+//single, which sums the products in float, and mixed, which converts the elements to double when they are loaded and sums in double.
+//In both, a block of up to BLOCK_ROWS rows of the result is kept in the accumulator buffers while the whole inner dimension passes over it,
+//so every element of the result is rounded to float only once, when the block is stored. Nothing is allocated apart from the per-thread buffers.
+final class FloatMultiplicationKernel {
+
+    //Rows of the result which are accumulated together. 64 rows of 256 doubles (128 KB) stay in the cache next to the panel.
+    static final int BLOCK_ROWS = 64;
+
+    private FloatMultiplicationKernel() {
+    }
+
+    //Computes alpha * a * b + beta * c into c, splitting the rows of c into at most parallelism chunks which run on the executor.
+    //a is n x k, b is k x m and c is n x m. c must not share its array with a or b. If mixed is true, beta * c and the products are summed in double.
+    //If beta is 0, c is not read. Small products use the naive loop on the calling thread, the thresholds are those of MultiplicationKernel.
+    static void multiplyParallel(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, boolean mixed, Executor executor, int parallelism) {
+        int rows = a.getRowCount();
+        long work = (long) rows * b.getRowCount() * b.getColumnCount();
+
+        if (work <= MultiplicationKernel.NAIVE_THRESHOLD) {
+            multiplyNaive(alpha, a, b, beta, c, mixed, 0, rows);
+            return;
+        }
+        if (work < MultiplicationKernel.PARALLEL_THRESHOLD || Math.min(parallelism, (rows + 3) / 4) < 2) {
+            multiplyRows(alpha, a, b, beta, c, mixed, 0, rows);
+            return;
+        }
+        MultiplicationKernel.runInChunks(rows, executor, parallelism, (rowStart, rowEnd) -> multiplyRows(alpha, a, b, beta, c, mixed, rowStart, rowEnd));
+    }
+
+    //Computes the rows from rowStart (inclusive) to rowEnd (exclusive) of c with the cache-blocked loop.
+    static void multiplyRows(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, boolean mixed, int rowStart, int rowEnd) {
+        if (mixed)
+            multiplyMixed(alpha, a, b, beta, c, rowStart, rowEnd, MIXED_BUFFERS.get());
+        else
+            multiplySingle(alpha, a, b, beta, c, rowStart, rowEnd, SINGLE_BUFFERS.get());
+    }
+
+    //The plain triple loop. Each element is the dot product of a row of a and a column of b. Works with any layout.
+    static void multiplyNaive(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, boolean mixed, int rowStart, int rowEnd) {
+        float[] aData = a.getData(), bData = b.getData(), cData = c.getData();
+        int aColumnStride = a.getColumnStride();
+        int bRowStride = b.getRowStride();
+        int inner = b.getRowCount();
+        int columns = b.getColumnCount();
+
+        for (int i = rowStart; i < rowEnd; i++) {
+            int aRow = a.index(i, 0);
+            for (int j = 0; j < columns; j++) {
+                int cIndex = c.index(i, j);
+                int bColumn = b.index(0, j);
+                if (mixed) {
+                    double sum = beta == 0 ? 0 : (double) beta * cData[cIndex];
+                    for (int p = 0; p < inner; p++) {
+                        sum += (double) alpha * aData[aRow + p * aColumnStride] * bData[bColumn + p * bRowStride];
+                    }
+                    cData[cIndex] = (float) sum;
+                }
+                else {
+                    float sum = beta == 0 ? 0 : beta * cData[cIndex];
+                    for (int p = 0; p < inner; p++) {
+                        sum += alpha * aData[aRow + p * aColumnStride] * bData[bColumn + p * bRowStride];
+                    }
+                    cData[cIndex] = sum;
+                }
+            }
+        }
+    }
+
+    //The blocked loop with float accumulators. Blocks of b are packed into the panel and four rows of the result are updated together,
+    //as in MultiplicationKernel.multiplyBlocked. Every element sums its products in increasing order of the inner index, like the naive loop.
+    static void multiplySingle(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, int rowStart, int rowEnd, SingleBuffers buffers) {
+        int inner = b.getRowCount();
+        int columns = b.getColumnCount();
+        float[][] panel = buffers.panel;
+        float[][] accumulators = buffers.accumulators;
+
+        for (int blockStart = rowStart; blockStart < rowEnd; blockStart += BLOCK_ROWS) {
+            int blockEnd = Math.min(blockStart + BLOCK_ROWS, rowEnd);
+            for (int columnStart = 0; columnStart < columns; columnStart += MultiplicationKernel.BLOCK_COLUMNS) {
+                int width = Math.min(columnStart + MultiplicationKernel.BLOCK_COLUMNS, columns) - columnStart;
+
+                for (int i = blockStart; i < blockEnd; i++) {
+                    loadRow(c, i, columnStart, width, beta, accumulators[i - blockStart]);
+                }
+
+                for (int innerStart = 0; innerStart < inner; innerStart += MultiplicationKernel.BLOCK_INNER) {
+                    int innerEnd = Math.min(innerStart + MultiplicationKernel.BLOCK_INNER, inner);
+                    for (int p = innerStart; p < innerEnd; p++) {
+                        copyRow(b, p, columnStart, width, panel[p - innerStart]);
+                    }
+
+                    int i = blockStart;
+                    for (; i + 3 < blockEnd; i += 4) {
+                        multiplyFourRows(alpha, a, i, innerStart, innerEnd, width, panel, accumulators, i - blockStart);
+                    }
+                    for (; i < blockEnd; i++) {
+                        multiplyOneRow(alpha, a, i, innerStart, innerEnd, width, panel, accumulators[i - blockStart]);
+                    }
+                }
+
+                for (int i = blockStart; i < blockEnd; i++) {
+                    storeRow(accumulators[i - blockStart], c, i, columnStart, width);
+                }
+            }
+        }
+    }
+
+    //The blocked loop with double accumulators. The panel holds the block of b converted to double, so the inner loop is the one of the double kernel.
+    //The elements are still read from memory as floats, and the only rounding to float is the final one of each element of the result.
+    static void multiplyMixed(float alpha, FloatMatrix a, FloatMatrix b, float beta, FloatMatrix c, int rowStart, int rowEnd, MixedBuffers buffers) {
+        int inner = b.getRowCount();
+        int columns = b.getColumnCount();
+        double[][] panel = buffers.panel;
+        double[][] accumulators = buffers.accumulators;
+
+        for (int blockStart = rowStart; blockStart < rowEnd; blockStart += BLOCK_ROWS) {
+            int blockEnd = Math.min(blockStart + BLOCK_ROWS, rowEnd);
+            for (int columnStart = 0; columnStart < columns; columnStart += MultiplicationKernel.BLOCK_COLUMNS) {
+                int width = Math.min(columnStart + MultiplicationKernel.BLOCK_COLUMNS, columns) - columnStart;
+
+                for (int i = blockStart; i < blockEnd; i++) {
+                    loadRow(c, i, columnStart, width, beta, accumulators[i - blockStart]);
+                }
+
+                for (int innerStart = 0; innerStart < inner; innerStart += MultiplicationKernel.BLOCK_INNER) {
+                    int innerEnd = Math.min(innerStart + MultiplicationKernel.BLOCK_INNER, inner);
+                    for (int p = innerStart; p < innerEnd; p++) {
+                        copyRow(b, p, columnStart, width, panel[p - innerStart]);
+                    }
+
+                    int i = blockStart;
+                    for (; i + 3 < blockEnd; i += 4) {
+                        multiplyFourRows(alpha, a, i, innerStart, innerEnd, width, panel, accumulators, i - blockStart);
+                    }
+                    for (; i < blockEnd; i++) {
+                        multiplyOneRow(alpha, a, i, innerStart, innerEnd, width, panel, accumulators[i - blockStart]);
+                    }
+                }
+
+                for (int i = blockStart; i < blockEnd; i++) {
+                    storeRow(accumulators[i - blockStart], c, i, columnStart, width);
+                }
+            }
+        }
+    }
+
+    //Adds one block of the product to the float accumulators of rows i, i + 1, i + 2 and i + 3, which are at the given index of the accumulator buffers.
+    private static void multiplyFourRows(float alpha, FloatMatrix a, int i, int innerStart, int innerEnd, int width, float[][] panel, float[][] accumulators, int accumulator) {
+        float[] aData = a.getData();
+        int aRowStride = a.getRowStride(), aColumnStride = a.getColumnStride();
+        float[] c0 = accumulators[accumulator], c1 = accumulators[accumulator + 1], c2 = accumulators[accumulator + 2], c3 = accumulators[accumulator + 3];
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            int aIndex = aRow + p * aColumnStride;
+            float a0p = alpha * aData[aIndex];
+            float a1p = alpha * aData[aIndex + aRowStride];
+            float a2p = alpha * aData[aIndex + 2 * aRowStride];
+            float a3p = alpha * aData[aIndex + 3 * aRowStride];
+            float[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                float bpj = bRow[j];
+                c0[j] += a0p * bpj;
+                c1[j] += a1p * bpj;
+                c2[j] += a2p * bpj;
+                c3[j] += a3p * bpj;
+            }
+        }
+    }
+
+    //Adds one block of the product to the double accumulators of rows i, i + 1, i + 2 and i + 3.
+    private static void multiplyFourRows(float alpha, FloatMatrix a, int i, int innerStart, int innerEnd, int width, double[][] panel, double[][] accumulators, int accumulator) {
+        float[] aData = a.getData();
+        int aRowStride = a.getRowStride(), aColumnStride = a.getColumnStride();
+        double[] c0 = accumulators[accumulator], c1 = accumulators[accumulator + 1], c2 = accumulators[accumulator + 2], c3 = accumulators[accumulator + 3];
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            int aIndex = aRow + p * aColumnStride;
+            double a0p = (double) alpha * aData[aIndex];
+            double a1p = (double) alpha * aData[aIndex + aRowStride];
+            double a2p = (double) alpha * aData[aIndex + 2 * aRowStride];
+            double a3p = (double) alpha * aData[aIndex + 3 * aRowStride];
+            double[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                double bpj = bRow[j];
+                c0[j] += a0p * bpj;
+                c1[j] += a1p * bpj;
+                c2[j] += a2p * bpj;
+                c3[j] += a3p * bpj;
+            }
+        }
+    }
+
+    //Adds one block of the product to the float accumulator of a single row. Used for the rows left over after the groups of four.
+    private static void multiplyOneRow(float alpha, FloatMatrix a, int i, int innerStart, int innerEnd, int width, float[][] panel, float[] cRow) {
+        float[] aData = a.getData();
+        int aColumnStride = a.getColumnStride();
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            float ap = alpha * aData[aRow + p * aColumnStride];
+            float[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                cRow[j] += ap * bRow[j];
+            }
+        }
+    }
+
+    //Adds one block of the product to the double accumulator of a single row.
+    private static void multiplyOneRow(float alpha, FloatMatrix a, int i, int innerStart, int innerEnd, int width, double[][] panel, double[] cRow) {
+        float[] aData = a.getData();
+        int aColumnStride = a.getColumnStride();
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            double ap = (double) alpha * aData[aRow + p * aColumnStride];
+            double[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                cRow[j] += ap * bRow[j];
+            }
+        }
+    }
+
+    //Copies width elements of the given row, starting at the given column, to the destination array.
+    private static void copyRow(FloatMatrix matrix, int row, int column, int width, float[] destination) {
+        float[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        if (columnStride == 1) {
+            System.arraycopy(data, index, destination, 0, width);
+        }
+        else {
+            for (int j = 0; j < width; j++) {
+                destination[j] = data[index + j * columnStride];
+            }
+        }
+    }
+
+    //Copies width elements of the given row, starting at the given column, to the destination array and converts them to double.
+    private static void copyRow(FloatMatrix matrix, int row, int column, int width, double[] destination) {
+        float[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        for (int j = 0; j < width; j++) {
+            destination[j] = data[index + j * columnStride];
+        }
+    }
+
+    //Stores beta times width elements of the given row of c, starting at the given column, in the accumulator. If beta is 0, c is not read.
+    private static void loadRow(FloatMatrix c, int row, int column, int width, float beta, float[] accumulator) {
+        if (beta == 0) {
+            Arrays.fill(accumulator, 0, width, 0);
+            return;
+        }
+        copyRow(c, row, column, width, accumulator);
+        if (beta != 1)
+            VectorKernels.INSTANCE.scale(accumulator, 0, width, beta);
+    }
+
+    //Stores beta times width elements of the given row of c, starting at the given column, in the accumulator. The product is taken in double,
+    //so that c is rounded to float only when the result is stored. If beta is 0, c is not read.
+    private static void loadRow(FloatMatrix c, int row, int column, int width, float beta, double[] accumulator) {
+        if (beta == 0) {
+            Arrays.fill(accumulator, 0, width, 0);
+            return;
+        }
+        float[] data = c.getData();
+        int index = c.index(row, column);
+        int columnStride = c.getColumnStride();
+        for (int j = 0; j < width; j++) {
+            accumulator[j] = (double) beta * data[index + j * columnStride];
+        }
+    }
+
+    //Copies width elements of the source array back to the given row, starting at the given column.
+    private static void storeRow(float[] source, FloatMatrix matrix, int row, int column, int width) {
+        float[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        if (columnStride == 1) {
+            System.arraycopy(source, 0, data, index, width);
+        }
+        else {
+            for (int j = 0; j < width; j++) {
+                data[index + j * columnStride] = source[j];
+            }
+        }
+    }
+
+    //Rounds width elements of the source array to float and stores them in the given row, starting at the given column.
+    private static void storeRow(double[] source, FloatMatrix matrix, int row, int column, int width) {
+        float[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        for (int j = 0; j < width; j++) {
+            data[index + j * columnStride] = (float) source[j];
+        }
+    }
+
+    //Scratch arrays of the blocked loops. Each thread keeps its own, so the multiplications of a thread reuse them instead of allocating.
+    static final class SingleBuffers {
+        final float[][] panel = new float[MultiplicationKernel.BLOCK_INNER][MultiplicationKernel.BLOCK_COLUMNS];
+        final float[][] accumulators = new float[BLOCK_ROWS][MultiplicationKernel.BLOCK_COLUMNS];
+    }
+
+    static final class MixedBuffers {
+        final double[][] panel = new double[MultiplicationKernel.BLOCK_INNER][MultiplicationKernel.BLOCK_COLUMNS];
+        final double[][] accumulators = new double[BLOCK_ROWS][MultiplicationKernel.BLOCK_COLUMNS];
+    }
+
+    private static final ThreadLocal<SingleBuffers> SINGLE_BUFFERS = ThreadLocal.withInitial(SingleBuffers::new);
+    private static final ThreadLocal<MixedBuffers> MIXED_BUFFERS = ThreadLocal.withInitial(MixedBuffers::new);
+}
\ No newline at end of file
@@ -0,0 +1,230 @@
+//A vector of single-precision components. It has the operations of Vector, but stores its components in a float array, which halves the memory
+//and the memory bandwidth they need. Where float precision is enough, e.g. for the weights and activations of neural networks, bandwidth-bound operations
+//(dot products, additions, matrix-vector products) run up to twice as fast. Dot products and lengths can be accumulated in double (see mixedDotProduct).
+//Convert with new FloatVector(Vector) and toVector.
+public class FloatVector {
+
+    //A 1D float array to store the components of the vector. The component at index i is at offset + i * stride.
+    //Views (see FloatMatrix.getRowVectorView, FloatMatrix.getColumnVectorView) share the array of a matrix.
+    private float[] components;
+    private int offset;
+    private int stride;
+    private int dimension;
+
+    //A constructor method with a parameter of dimension. Creates a new array with the specified dimension.
+    public FloatVector(int dimension) {
+        if (dimension < 0)
+            throw new IllegalArgumentException("Dimension cannot be less than 0.");
+        components = new float[dimension];
+        stride = 1;
+        this.dimension = dimension;
+    }
+
+    //A constructor method with an argument of a 1D float array. Assigns a copy of the given array to the components array.
+    public FloatVector(float[] components) {
+        this.components = components.clone();
+        stride = 1;
+        dimension = components.length;
+    }
+
+    //A constructor method which copies the components of the given vector.
+    public FloatVector(FloatVector vector) {
+        this(vector.dimension);
+        for (int i = 0; i < dimension; i++) {
+            components[i] = vector.components[vector.offset + i * vector.stride];
+        }
+    }
+
+    //Creates a vector with the components of the given double vector rounded to the nearest floats.
+    public FloatVector(Vector vector) {
+        this(vector.getDimension());
+        double[] source = vector.getComponents();
+        int sourceOffset = vector.getOffset();
+        int sourceStride = vector.getStride();
+        for (int i = 0; i < dimension; i++) {
+            components[i] = (float) source[sourceOffset + i * sourceStride];
+        }
+    }
+
+    //Creates a view which shares the given array.
+    FloatVector(float[] components, int offset, int stride, int dimension) {
+        this.components = components;
+        this.offset = offset;
+        this.stride = stride;
+        this.dimension = dimension;
+    }
+
+    public FloatVector clone() {
+        return new FloatVector(this);
+    }
+
+    //Returns a double vector with the same components. The conversion is exact.
+    public Vector toVector() {
+        double[] result = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            result[i] = components[offset + i * stride];
+        }
+        return new Vector(result);
+    }
+
+    //Copies the components of the vector into the given vector of the same dimension. Works with views too.
+    public void copyInto(FloatVector destination) {
+        if (dimension != destination.dimension)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the dimension of the vector.");
+
+        if (stride == 1 && destination.stride == 1) {
+            System.arraycopy(components, offset, destination.components, destination.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            destination.components[destination.offset + i * destination.stride] = components[offset + i * stride];
+        }
+    }
+
+    //Returns the dimension of the vector.
+    public int getDimension() {
+        return dimension;
+    }
+
+    //The backing array and its layout. Used by the kernels to read and write the components without range checks.
+    float[] getComponents() {
+        return components;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    //Returns the nth component of the vector.
+    public float getComponent(int index) {
+        if (index < 0 || index > dimension - 1)
+            throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
+        return components[offset + index * stride];
+    }
+
+    //Sets the nth component of the vector.
+    public void setComponent(int index, float value) {
+        if (index < 0 || index > dimension - 1)
+            throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
+        components[offset + index * stride] = value;
+    }
+
+    //Calculates and returns the length of the vector. The squares are summed in double, so the result is the length rounded once to a float.
+    public float getLength() {
+        double length;
+
+        if (stride == 1) {
+            length = VectorKernels.INSTANCE.sumOfSquares(components, offset, dimension);
+        }
+        else {
+            length = 0;
+            for (int i = 0; i < dimension; i++) {
+                double component = components[offset + i * stride];
+                length += component * component;
+            }
+        }
+
+        return (float) Math.sqrt(length);
+    }
+
+    //Multiplies the vector by a scalar number.
+    public void multiplyByAScalar(float scalar) {
+        if (stride == 1) {
+            VectorKernels.INSTANCE.scale(components, offset, dimension, scalar);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] *= scalar;
+        }
+    }
+
+    //Adds each component of the other vector to its corresponding components.
+    public void add(FloatVector v) {
+        if (dimension != v.dimension)
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be added.");
+
+        if (stride == 1 && v.stride == 1) {
+            VectorKernels.INSTANCE.add(components, offset, v.components, v.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] += v.components[v.offset + i * v.stride];
+        }
+    }
+
+    //Subtracts each component of the other vector from its corresponding components.
+    public void subtract(FloatVector v) {
+        if (dimension != v.dimension)
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be subtracted.");
+
+        if (stride == 1 && v.stride == 1) {
+            VectorKernels.INSTANCE.subtract(components, offset, v.components, v.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] -= v.components[v.offset + i * v.stride];
+        }
+    }
+
+    //Adds alpha times x to y (y += alpha * x) in a single pass.
+    public static void axpy(float alpha, FloatVector x, FloatVector y) {
+        if (x.dimension != y.dimension)
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be added.");
+
+        if (x.stride == 1 && y.stride == 1) {
+            VectorKernels.INSTANCE.addScaled(y.components, y.offset, x.components, x.offset, x.dimension, alpha);
+            return;
+        }
+        for (int i = 0; i < x.dimension; i++) {
+            y.components[y.offset + i * y.stride] += alpha * x.components[x.offset + i * x.stride];
+        }
+    }
+
+    //Calculates and returns the dot product of the vectors. The products are summed in float, which is the fastest, but the rounding error grows with the dimension.
+    public static float dotProduct(FloatVector v1, FloatVector v2) {
+        if (v1.dimension != v2.dimension)
+            throw new IllegalArgumentException("Dot product of vectors of different dimensions cannot be calculated.");
+
+        if (v1.stride == 1 && v2.stride == 1)
+            return VectorKernels.INSTANCE.dot(v1.components, v1.offset, v2.components, v2.offset, v1.dimension);
+
+        float result = 0;
+        for (int i = 0; i < v1.dimension; i++) {
+            result += v1.components[v1.offset + i * v1.stride] * v2.components[v2.offset + i * v2.stride];
+        }
+        return result;
+    }
+
+    //Calculates and returns the dot product of the vectors with the products summed in double (mixed precision). The components are still read as floats,
+    //so it needs the same memory bandwidth as dotProduct, but its result is as accurate as the dot product of the corresponding double vectors.
+    public static double mixedDotProduct(FloatVector v1, FloatVector v2) {
+        if (v1.dimension != v2.dimension)
+            throw new IllegalArgumentException("Dot product of vectors of different dimensions cannot be calculated.");
+
+        if (v1.stride == 1 && v2.stride == 1)
+            return VectorKernels.INSTANCE.mixedDot(v1.components, v1.offset, v2.components, v2.offset, v1.dimension);
+
+        double result = 0;
+        for (int i = 0; i < v1.dimension; i++) {
+            result += (double) v1.components[v1.offset + i * v1.stride] * v2.components[v2.offset + i * v2.stride];
+        }
+        return result;
+    }
+
+    //Overrides the toString function.
+    //Returns a string containing a text-based representation of the vector.
+    public String toString() {
+        if (dimension == 0)
+            return "[]";
+
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < dimension - 1; i++) {
+            text.append(components[offset + i * stride]).append(", ");
+        }
+        return text.append(components[offset + (dimension - 1) * stride]).append(']').toString();
+    }
+}
\ No newline at end of file
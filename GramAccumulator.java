@@ -0,0 +1,243 @@
+import java.util.Arrays;
+import java.util.Iterator;
+
+//Accumulates the Gram matrix A^T A, the column means and the covariance matrix of a matrix A whose rows arrive one at a time or in blocks,
+//e.g. from an iterator, a stream or a channel (see MatrixIO.readRows). Only k x k elements are kept, never the rows, so A can have any number of rows.
+//The rows are collected into blocks. Each block is centered around its own mean and added to the scatter matrix (the sum of the outer products
+//of the centered rows) with a symmetric rank-k update, which computes only the upper triangle. Blocks, and accumulators of different chunks of the rows
+//(see merge), are combined with the pairwise formula of Chan, Golub and LeVeque:
+//    M = M_a + M_b + (n_a n_b / n) (mean_b - mean_a)(mean_b - mean_a)^T
+//Unlike the covariance computed as (A^T A - n mean mean^T) / (n - 1), it does not lose its digits to cancellation when the means are big.
+//Chunks can be accumulated in parallel, e.g. rows.parallel().collect(() -> new GramAccumulator(k), GramAccumulator::addRow, GramAccumulator::merge).
+//An accumulator is not thread-safe.
+public class GramAccumulator {
+
+    //A block holds about this many elements (256 KB), so it stays in the cache while the panels of the rank-k update read it.
+    static final int BLOCK_ELEMENTS = 32768;
+    static final int MIN_BLOCK_ROWS = 32;
+    //Width of the panels of the rank-k update. Panels below the diagonal are skipped, the elements below the diagonal in the diagonal panels are computed too.
+    static final int PANEL_COLUMNS = 64;
+
+    private final int columnCount;
+    private long rowCount; //Rows accumulated in the mean and the scatter matrix. Those still in the block are not included.
+    private final double[] mean;
+    private final double[] scatter; //Row-major. Only the upper triangle (column >= row) is used, the lower one is filled in when a matrix is returned.
+
+    private final double[] block; //Rows which are not accumulated yet, row-major.
+    private final int blockCapacity;
+    private int blockRows;
+    private final double[] blockMean;
+    private final double[] delta;
+
+    //Creates an empty accumulator for rows of the given dimension.
+    public GramAccumulator(int columns) {
+        if (columns < 1)
+            throw new IllegalArgumentException("Column count must be at least 1.");
+
+        columnCount = columns;
+        mean = new double[columns];
+        scatter = new double[columns * columns];
+        blockCapacity = Math.max(MIN_BLOCK_ROWS, BLOCK_ELEMENTS / columns);
+        block = new double[blockCapacity * columns];
+        blockMean = new double[columns];
+        delta = new double[columns];
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Returns the number of rows added so far.
+    public long getRowCount() {
+        return rowCount + blockRows;
+    }
+
+    //Adds a row. Throws an IllegalArgumentException if its dimension does not match the column count.
+    public void addRow(Vector row) {
+        if (row.getDimension() != columnCount)
+            throw new IllegalArgumentException("Dimension of the row does not match the column count of the accumulator.");
+
+        double[] components = row.getComponents();
+        int offset = row.getOffset(), stride = row.getStride();
+        int index = blockRows * columnCount;
+        if (stride == 1) {
+            System.arraycopy(components, offset, block, index, columnCount);
+        }
+        else {
+            for (int j = 0; j < columnCount; j++) {
+                block[index + j] = components[offset + j * stride];
+            }
+        }
+        rowAdded();
+    }
+
+    //Adds a row given as an array. Throws an IllegalArgumentException if its length does not match the column count.
+    public void addRow(double[] row) {
+        if (row.length != columnCount)
+            throw new IllegalArgumentException("Dimension of the row does not match the column count of the accumulator.");
+
+        System.arraycopy(row, 0, block, blockRows * columnCount, columnCount);
+        rowAdded();
+    }
+
+    //Adds all rows of the matrix, which can have any layout, e.g. a view of a block of a bigger matrix.
+    //Throws an IllegalArgumentException if its column count does not match.
+    public void addRows(Matrix rows) {
+        if (rows.getColumnCount() != columnCount)
+            throw new IllegalArgumentException("Column count of the matrix does not match the column count of the accumulator.");
+
+        double[] data = rows.getData();
+        int columnStride = rows.getColumnStride();
+        for (int i = 0; i < rows.getRowCount(); i++) {
+            int index = rows.index(i, 0);
+            int blockIndex = blockRows * columnCount;
+            if (columnStride == 1) {
+                System.arraycopy(data, index, block, blockIndex, columnCount);
+            }
+            else {
+                for (int j = 0; j < columnCount; j++) {
+                    block[blockIndex + j] = data[index + j * columnStride];
+                }
+            }
+            rowAdded();
+        }
+    }
+
+    //Adds all remaining rows of the iterator.
+    public void addRows(Iterator<Vector> rows) {
+        while (rows.hasNext()) {
+            addRow(rows.next());
+        }
+    }
+
+    //Adds the rows of the other accumulator, e.g. one which accumulated another chunk of the rows on another thread. The other accumulator is not changed.
+    //Throws an IllegalArgumentException if the column counts do not match.
+    public void merge(GramAccumulator other) {
+        if (other == this)
+            throw new IllegalArgumentException("An accumulator cannot be merged with itself.");
+        if (other.columnCount != columnCount)
+            throw new IllegalArgumentException("Column counts of the accumulators are not equal.");
+
+        flush();
+        other.flush();
+        if (other.rowCount == 0)
+            return;
+
+        for (int i = 0; i < columnCount; i++) {
+            int index = i * columnCount + i;
+            VectorKernels.INSTANCE.add(scatter, index, other.scatter, index, columnCount - i);
+        }
+        combine(other.rowCount, other.mean);
+    }
+
+    //Returns the means of the columns. Throws a RuntimeException if no rows were added.
+    public Vector getMean() {
+        flush();
+        if (rowCount == 0)
+            throw new RuntimeException("The accumulator does not have any rows.");
+        return new Vector(mean);
+    }
+
+    //Returns the Gram matrix A^T A, which is symmetric. It is the scatter matrix plus n mean mean^T.
+    public Matrix getGramMatrix() {
+        flush();
+        Matrix gram = new Matrix(columnCount, columnCount);
+        double[] data = gram.getData();
+        for (int i = 0; i < columnCount; i++) {
+            int index = i * columnCount + i;
+            System.arraycopy(scatter, index, data, index, columnCount - i);
+            VectorKernels.INSTANCE.addScaled(data, index, mean, i, columnCount - i, rowCount * mean[i]);
+        }
+        return symmetric(gram);
+    }
+
+    //Returns the sample covariance matrix, the scatter matrix divided by n - 1. Throws a RuntimeException if fewer than 2 rows were added.
+    public Matrix getCovarianceMatrix() {
+        flush();
+        if (rowCount < 2)
+            throw new RuntimeException("The covariance needs at least 2 rows.");
+
+        Matrix covariance = new Matrix(columnCount, columnCount);
+        double[] data = covariance.getData();
+        for (int i = 0; i < columnCount; i++) {
+            int index = i * columnCount + i;
+            System.arraycopy(scatter, index, data, index, columnCount - i);
+            VectorKernels.INSTANCE.scale(data, index, columnCount - i, 1.0 / (rowCount - 1));
+        }
+        return symmetric(covariance);
+    }
+
+    //Removes all rows.
+    public void reset() {
+        rowCount = 0;
+        blockRows = 0;
+        Arrays.fill(mean, 0);
+        Arrays.fill(scatter, 0);
+    }
+
+    private void rowAdded() {
+        if (++blockRows == blockCapacity)
+            flush();
+    }
+
+    //Accumulates the rows of the block: centers them around their mean, adds their outer products to the upper triangle of the scatter matrix
+    //and combines the means. The columns are split into panels of PANEL_COLUMNS, and only the panels on and above the diagonal of the scatter matrix
+    //are computed, each with the multiplication kernel. For many columns that is about half of the multiply-adds of the product of the transpose and the block.
+    private void flush() {
+        if (blockRows == 0)
+            return;
+
+        Arrays.fill(blockMean, 0);
+        for (int r = 0; r < blockRows; r++) {
+            VectorKernels.INSTANCE.add(blockMean, 0, block, r * columnCount, columnCount);
+        }
+        VectorKernels.INSTANCE.scale(blockMean, 0, columnCount, 1.0 / blockRows);
+        for (int r = 0; r < blockRows; r++) {
+            VectorKernels.INSTANCE.subtract(block, r * columnCount, blockMean, 0, columnCount);
+        }
+
+        for (int i = 0; i < columnCount; i += PANEL_COLUMNS) {
+            int height = Math.min(PANEL_COLUMNS, columnCount - i);
+            Matrix left = new Matrix(block, i, height, blockRows, 1, columnCount); //Columns i to i + height of the block, transposed.
+            for (int j = i; j < columnCount; j += PANEL_COLUMNS) {
+                int width = Math.min(PANEL_COLUMNS, columnCount - j);
+                Matrix right = new Matrix(block, j, blockRows, width, columnCount, 1);
+                MultiplicationKernel.multiply(1, left, right, new Matrix(scatter, i * columnCount + j, height, width, columnCount, 1));
+            }
+        }
+
+        int count = blockRows;
+        blockRows = 0;
+        combine(count, blockMean);
+    }
+
+    //Combines the mean with that of count other rows whose scatter matrix has already been added, and adds the correction term of the formula.
+    private void combine(long count, double[] otherMean) {
+        long total = rowCount + count;
+        for (int j = 0; j < columnCount; j++) {
+            delta[j] = otherMean[j] - mean[j];
+        }
+
+        if (rowCount > 0) {
+            double factor = (double) rowCount * count / total;
+            for (int i = 0; i < columnCount; i++) {
+                if (delta[i] != 0)
+                    VectorKernels.INSTANCE.addScaled(scatter, i * columnCount + i, delta, i, columnCount - i, factor * delta[i]);
+            }
+        }
+        VectorKernels.INSTANCE.addScaled(mean, 0, delta, 0, columnCount, (double) count / total);
+        rowCount = total;
+    }
+
+    //Copies the upper triangle of the matrix to the lower one and returns it.
+    private static Matrix symmetric(Matrix matrix) {
+        double[] data = matrix.getData();
+        int dimension = matrix.getRowCount();
+        for (int i = 1; i < dimension; i++) {
+            for (int j = 0; j < i; j++) {
+                data[i * dimension + j] = data[j * dimension + i];
+            }
+        }
+        return matrix;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+
+//Iterative solvers for Ax = b which only use products of A with vectors (see LinearOperator), so A is never decomposed or even stored.
+//For large sparse systems they need far less memory and time than Matrix.solve or the decompositions, whose fill-in makes them dense.
+//Iterations stop when the relative residual, the length of b - Ax divided by the length of b, reaches the tolerance or the iteration limit is hit.
+//Not converging is not an error: the result reports it together with the iteration count and the residual history.
+public class IterativeSolver {
+
+    private final double tolerance;
+    private final int maxIterations;
+    private LinearOperator preconditioner; //Applies an approximation of the inverse of A. null if no preconditioner is used.
+
+    //Creates a solver with the given relative tolerance and iteration limit.
+    public IterativeSolver(double tolerance, int maxIterations) {
+        if (!(tolerance > 0))
+            throw new IllegalArgumentException("Tolerance must be greater than 0.");
+        if (maxIterations < 0)
+            throw new IllegalArgumentException("Iteration limit cannot be less than 0.");
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public LinearOperator getPreconditioner() {
+        return preconditioner;
+    }
+
+    //Sets the preconditioner, an operator which applies an approximation of the inverse of A (e.g. LinearOperator.jacobi). null removes it.
+    //For the conjugate gradient method it must be symmetric positive-definite too.
+    public void setPreconditioner(LinearOperator preconditioner) {
+        this.preconditioner = preconditioner;
+    }
+
+    //Solves Ax = b with the (preconditioned) conjugate gradient method, starting from the zero vector. A must be symmetric positive-definite.
+    public Result conjugateGradient(LinearOperator a, Vector b) {
+        return conjugateGradient(a, b, new Vector(b.getDimension()));
+    }
+
+    //Solves Ax = b with the (preconditioned) conjugate gradient method, starting from the given guess. A must be symmetric positive-definite.
+    //Each iteration costs one product with A, one application of the preconditioner and a few vector operations, all on preallocated arrays.
+    public Result conjugateGradient(LinearOperator a, Vector b, Vector initialGuess) {
+        int n = checkDimensions(a, b, initialGuess);
+        VectorKernels kernels = VectorKernels.INSTANCE;
+
+        double[] x = toArray(initialGuess);
+        double[] r = new double[n];
+        double[] z = preconditioner == null ? r : new double[n];
+        double[] p = new double[n];
+        double[] ap = new double[n];
+        Vector xVector = new Vector(x, 0, 1, n);
+        Vector rVector = new Vector(r, 0, 1, n);
+        Vector zVector = new Vector(z, 0, 1, n);
+        Vector pVector = new Vector(p, 0, 1, n);
+        Vector apVector = new Vector(ap, 0, 1, n);
+
+        double bNorm = b.getLength();
+        if (bNorm == 0)
+            return new Result(new Vector(n), 0, 0, true, new double[]{0});
+
+        //r = b - Ax, z = M^-1 r, p = z
+        residual(a, b, xVector, rVector, ap);
+        if (preconditioner != null)
+            preconditioner.apply(rVector, zVector);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = kernels.dot(r, 0, z, 0, n);
+
+        History history = new History();
+        double relativeResidual = Math.sqrt(kernels.sumOfSquares(r, 0, n)) / bNorm;
+        history.add(relativeResidual);
+        int iterations = 0;
+
+        while (relativeResidual > tolerance && iterations < maxIterations) {
+            a.apply(pVector, apVector);
+            double pAp = kernels.dot(p, 0, ap, 0, n);
+            if (!(pAp > 0)) //A is not positive-definite (or the iteration broke down), so the method cannot continue.
+                break;
+
+            double alpha = rz / pAp;
+            kernels.addScaled(x, 0, p, 0, n, alpha);
+            kernels.addScaled(r, 0, ap, 0, n, -alpha);
+            iterations++;
+            relativeResidual = Math.sqrt(kernels.sumOfSquares(r, 0, n)) / bNorm;
+            history.add(relativeResidual);
+            if (relativeResidual <= tolerance)
+                break;
+
+            if (preconditioner != null)
+                preconditioner.apply(rVector, zVector);
+            double rzNext = kernels.dot(r, 0, z, 0, n);
+            double beta = rzNext / rz;
+            rz = rzNext;
+
+            //p = z + beta * p
+            kernels.scale(p, 0, n, beta);
+            kernels.addScaled(p, 0, z, 0, n, 1);
+        }
+
+        return new Result(new Vector(x), iterations, relativeResidual, relativeResidual <= tolerance, history.toArray());
+    }
+
+    //Solves Ax = b with the restarted GMRES method, starting from the zero vector. A can be any square non-singular operator.
+    public Result gmres(LinearOperator a, Vector b, int restart) {
+        return gmres(a, b, new Vector(b.getDimension()), restart);
+    }
+
+    //Solves Ax = b with the restarted GMRES method, starting from the given guess. After every restart iterations the Krylov basis is discarded,
+    //which bounds the memory to restart + 1 vectors. The preconditioner is applied from the right, so the residuals it reports are those of the original system.
+    //The basis is orthogonalised with the modified Gram-Schmidt process and the least-squares problem is updated with Givens rotations,
+    //which gives the residual of every iteration without computing it.
+    public Result gmres(LinearOperator a, Vector b, Vector initialGuess, int restart) {
+        int n = checkDimensions(a, b, initialGuess);
+        if (restart < 1)
+            throw new IllegalArgumentException("Restart length must be at least 1.");
+        int m = Math.min(restart, Math.max(n, 1));
+        VectorKernels kernels = VectorKernels.INSTANCE;
+
+        double[] x = toArray(initialGuess);
+        double[] r = new double[n];
+        double[] w = new double[n];
+        double[][] basis = new double[m + 1][n];
+        double[][] preconditioned = preconditioner == null ? basis : new double[m][n];
+        double[][] hessenberg = new double[m + 1][m]; //Upper Hessenberg matrix of the Arnoldi process, turned upper triangular by the rotations.
+        double[] cosines = new double[m];
+        double[] sines = new double[m];
+        double[] g = new double[m + 1]; //Right-hand side of the least-squares problem, rotated along with the Hessenberg matrix.
+        double[] y = new double[m];
+        Vector xVector = new Vector(x, 0, 1, n);
+        Vector rVector = new Vector(r, 0, 1, n);
+        Vector wVector = new Vector(w, 0, 1, n);
+
+        double bNorm = b.getLength();
+        if (bNorm == 0)
+            return new Result(new Vector(n), 0, 0, true, new double[]{0});
+
+        History history = new History();
+        int iterations = 0;
+        double relativeResidual;
+
+        while (true) {
+            //The residual is computed from scratch at every restart, so the reported residual never drifts from the true one.
+            residual(a, b, xVector, rVector, w);
+            double beta = Math.sqrt(kernels.sumOfSquares(r, 0, n));
+            relativeResidual = beta / bNorm;
+            if (iterations == 0)
+                history.add(relativeResidual);
+            if (relativeResidual <= tolerance || iterations >= maxIterations)
+                break;
+
+            System.arraycopy(r, 0, basis[0], 0, n);
+            kernels.scale(basis[0], 0, n, 1 / beta);
+            Arrays.fill(g, 0);
+            g[0] = beta;
+
+            int k = 0;
+            while (k < m && iterations < maxIterations) {
+                int j = k;
+
+                //w = A M^-1 v_j
+                Vector vVector = new Vector(basis[j], 0, 1, n);
+                if (preconditioner != null) {
+                    Vector zVector = new Vector(preconditioned[j], 0, 1, n);
+                    preconditioner.apply(vVector, zVector);
+                    a.apply(zVector, wVector);
+                }
+                else {
+                    a.apply(vVector, wVector);
+                }
+
+                for (int i = 0; i <= j; i++) {
+                    double h = kernels.dot(w, 0, basis[i], 0, n);
+                    hessenberg[i][j] = h;
+                    kernels.addScaled(w, 0, basis[i], 0, n, -h);
+                }
+                double next = Math.sqrt(kernels.sumOfSquares(w, 0, n));
+
+                for (int i = 0; i < j; i++) {
+                    double h = cosines[i] * hessenberg[i][j] + sines[i] * hessenberg[i + 1][j];
+                    hessenberg[i + 1][j] = -sines[i] * hessenberg[i][j] + cosines[i] * hessenberg[i + 1][j];
+                    hessenberg[i][j] = h;
+                }
+                double diagonal = Math.hypot(hessenberg[j][j], next);
+                cosines[j] = diagonal == 0 ? 1 : hessenberg[j][j] / diagonal;
+                sines[j] = diagonal == 0 ? 0 : next / diagonal;
+                hessenberg[j][j] = diagonal;
+                hessenberg[j + 1][j] = 0;
+                g[j + 1] = -sines[j] * g[j];
+                g[j] = cosines[j] * g[j];
+
+                k++;
+                iterations++;
+                relativeResidual = Math.abs(g[j + 1]) / bNorm;
+                history.add(relativeResidual);
+
+                //A zero subdiagonal element means the Krylov space is invariant under A and the solution in it is exact.
+                if (relativeResidual <= tolerance || next == 0)
+                    break;
+                System.arraycopy(w, 0, basis[j + 1], 0, n);
+                kernels.scale(basis[j + 1], 0, n, 1 / next);
+            }
+
+            //Solves the k x k upper triangular system Hy = g by back substitution, then x = x + M^-1 V y.
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int l = i + 1; l < k; l++) {
+                    sum -= hessenberg[i][l] * y[l];
+                }
+                y[i] = hessenberg[i][i] == 0 ? 0 : sum / hessenberg[i][i];
+            }
+            for (int i = 0; i < k; i++) {
+                kernels.addScaled(x, 0, preconditioned[i], 0, n, y[i]);
+            }
+        }
+
+        return new Result(new Vector(x), iterations, relativeResidual, relativeResidual <= tolerance, history.toArray());
+    }
+
+    //Checks that the operator is square and matches b and the initial guess, and returns the dimension.
+    private static int checkDimensions(LinearOperator a, Vector b, Vector initialGuess) {
+        if (a.getRowCount() != a.getColumnCount())
+            throw new IllegalArgumentException("Operator must be square.");
+        if (b.getDimension() != a.getRowCount())
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the operator.");
+        if (initialGuess.getDimension() != a.getColumnCount())
+            throw new IllegalArgumentException("Dimension of the initial guess does not match the dimension of the operator.");
+        return a.getRowCount();
+    }
+
+    private static double[] toArray(Vector vector) {
+        double[] array = new double[vector.getDimension()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = vector.getComponent(i);
+        }
+        return array;
+    }
+
+    //Computes r = b - Ax. The scratch array receives Ax.
+    private static void residual(LinearOperator a, Vector b, Vector x, Vector r, double[] scratch) {
+        a.apply(x, new Vector(scratch, 0, 1, scratch.length));
+        double[] components = r.getComponents();
+        for (int i = 0; i < components.length; i++) {
+            components[i] = b.getComponent(i) - scratch[i];
+        }
+    }
+
+    //A growable array of the relative residuals, since the iteration count is not known in advance.
+    private static class History {
+        private double[] values = new double[16];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    //The outcome of an iterative solve: the last iterate and the convergence statistics.
+    public static class Result {
+        private final Vector solution;
+        private final int iterations;
+        private final double residualNorm;
+        private final boolean converged;
+        private final double[] residualHistory;
+
+        Result(Vector solution, int iterations, double residualNorm, boolean converged, double[] residualHistory) {
+            this.solution = solution;
+            this.iterations = iterations;
+            this.residualNorm = residualNorm;
+            this.converged = converged;
+            this.residualHistory = residualHistory;
+        }
+
+        //Returns the last iterate, the solution if the solve converged.
+        public Vector getSolution() {
+            return solution;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        //Returns the final relative residual, the length of b - Ax divided by the length of b.
+        public double getResidualNorm() {
+            return residualNorm;
+        }
+
+        //Checks whether the relative residual reached the tolerance within the iteration limit.
+        public boolean isConverged() {
+            return converged;
+        }
+
+        //Returns the relative residual before the first iteration and after each iteration.
+        public double[] getResidualHistory() {
+            return residualHistory.clone();
+        }
+
+        @Override
+        public String toString() {
+            return (converged ? "Converged" : "Did not converge") + " after " + iterations + " iterations, relative residual " + residualNorm + ".";
+        }
+    }
+}
\ No newline at end of file
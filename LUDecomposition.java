@@ -0,0 +1,313 @@
+import java.util.Arrays;
+
+//LU decomposition of a square matrix with partial pivoting. PA = LU, where P is a permutation matrix, L is a unit lower triangular matrix and U is an upper triangular matrix.
+//The decomposition is computed once in O(n^3). The determinant (O(n)), solutions of linear systems (O(n^2) per right-hand side) and the inverse (O(n^3)) are then computed from it.
+public class LUDecomposition {
+
+    private final double[][] lu; //L below the diagonal (its diagonal of ones is not stored) and U on and above the diagonal.
+    private final int[] pivot; //Row i of PA is row pivot[i] of the original matrix.
+    private final int pivotSign; //Determinant of P, 1 or -1.
+    private final double norm; //1-norm (maximum absolute column sum) of the original matrix. Used by the condition estimate.
+    private final boolean singular;
+
+    //Computes the decomposition of the given matrix. Throws an IllegalArgumentException if the matrix is not square.
+    public LUDecomposition(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("LU decomposition of non-square matrices cannot be computed.");
+
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.LU_DECOMPOSITION);
+        int n = matrix.getRowCount();
+        lu = new double[n][n];
+        pivot = new int[n];
+        double[] columnSums = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+            for (int j = 0; j < n; j++) {
+                lu[i][j] = matrix.getElement(i, j);
+                columnSums[j] += Math.abs(lu[i][j]);
+            }
+        }
+
+        double maxColumnSum = 0;
+        for (int j = 0; j < n; j++) {
+            maxColumnSum = Math.max(maxColumnSum, columnSums[j]);
+        }
+        norm = maxColumnSum;
+
+        int sign = 1;
+        boolean isSingular = false;
+
+        for (int k = 0; k < n; k++) {
+            //Partial pivoting: the row with the largest absolute value in column k is moved to row k. Rows are swapped by swapping the references.
+            int pivotRow = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(lu[i][k]) > Math.abs(lu[pivotRow][k]))
+                    pivotRow = i;
+            }
+            if (pivotRow != k) {
+                double[] tempRow = lu[pivotRow];
+                lu[pivotRow] = lu[k];
+                lu[k] = tempRow;
+
+                int tempIndex = pivot[pivotRow];
+                pivot[pivotRow] = pivot[k];
+                pivot[k] = tempIndex;
+
+                sign = -sign;
+            }
+
+            double[] pivotRowElements = lu[k];
+            double pivotValue = pivotRowElements[k];
+            if (pivotValue == 0) { //The whole column is zero below the diagonal. Nothing to eliminate, but the matrix is singular.
+                isSingular = true;
+                continue;
+            }
+
+            for (int i = k + 1; i < n; i++) {
+                double[] row = lu[i];
+                double factor = row[k] / pivotValue;
+                row[k] = factor;
+                if (factor == 0)
+                    continue;
+                for (int j = k + 1; j < n; j++) {
+                    row[j] -= factor * pivotRowElements[j];
+                }
+            }
+        }
+
+        pivotSign = sign;
+        singular = isSingular;
+
+        if (event != null)
+            Metrics.end(event, n, n, 2L * n * n * n / 3);
+    }
+
+    //Returns the dimension of the decomposed matrix.
+    public int getDimension() {
+        return lu.length;
+    }
+
+    //Checks whether the decomposed matrix is singular, i.e. one of the pivots is exactly 0.
+    public boolean isSingular() {
+        return singular;
+    }
+
+    //Returns the determinant of the decomposed matrix. It is the product of the diagonal of U, with the sign of the row permutation. Singular matrices return exactly 0.
+    public double determinant() {
+        if (singular)
+            return 0;
+
+        double determinant = pivotSign;
+        for (int i = 0; i < lu.length; i++) {
+            determinant *= lu[i][i];
+        }
+        return determinant;
+    }
+
+    //Returns the unit lower triangular factor L.
+    public Matrix getLower() {
+        int n = lu.length;
+        Matrix lower = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                lower.setElement(i, j, lu[i][j]);
+            }
+            lower.setElement(i, i, 1);
+        }
+        return lower;
+    }
+
+    //Returns the upper triangular factor U.
+    public Matrix getUpper() {
+        int n = lu.length;
+        Matrix upper = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                upper.setElement(i, j, lu[i][j]);
+            }
+        }
+        return upper;
+    }
+
+    //Returns the row permutation. Row i of PA is row getPivot()[i] of the original matrix.
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    //Solves Ax = b for x and returns it. Throws a RuntimeException if the matrix is singular.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != lu.length)
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the matrix.");
+        checkNonSingular();
+
+        double[] x = new double[lu.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = b.getComponent(pivot[i]);
+        }
+        solveInPlace(x);
+        return new Vector(x);
+    }
+
+    //Solves AX = B for X and returns it. Each column of X is the solution for the corresponding column of B.
+    //Throws a RuntimeException if the matrix is singular.
+    public Matrix solve(Matrix b) {
+        if (b.getRowCount() != lu.length)
+            throw new IllegalArgumentException("Row count of the matrix does not match the dimension of the decomposed matrix.");
+        checkNonSingular();
+
+        int n = lu.length;
+        int columns = b.getColumnCount();
+
+        //Works on the rows of the right-hand side so that the inner loops run along contiguous arrays.
+        double[][] x = new double[n][];
+        for (int i = 0; i < n; i++) {
+            x[i] = new double[columns];
+            for (int j = 0; j < columns; j++) {
+                x[i][j] = b.getElement(pivot[i], j);
+            }
+        }
+
+        //Forward substitution with L.
+        for (int k = 0; k < n; k++) {
+            for (int i = k + 1; i < n; i++) {
+                double factor = lu[i][k];
+                if (factor == 0)
+                    continue;
+                for (int j = 0; j < columns; j++) {
+                    x[i][j] -= factor * x[k][j];
+                }
+            }
+        }
+
+        //Back substitution with U.
+        for (int k = n - 1; k >= 0; k--) {
+            double diagonal = lu[k][k];
+            for (int j = 0; j < columns; j++) {
+                x[k][j] /= diagonal;
+            }
+            for (int i = 0; i < k; i++) {
+                double factor = lu[i][k];
+                if (factor == 0)
+                    continue;
+                for (int j = 0; j < columns; j++) {
+                    x[i][j] -= factor * x[k][j];
+                }
+            }
+        }
+
+        return new Matrix(x);
+    }
+
+    //Returns the inverse of the decomposed matrix by solving AX = I. Throws a RuntimeException if the matrix is singular.
+    public Matrix getInverse() {
+        return solve(Matrix.createIdentityMatrix(lu.length));
+    }
+
+    //Returns an estimate of the condition number of the matrix in the 1-norm, ||A|| * ||A^-1||. Returns infinity for singular matrices.
+    //||A^-1|| is estimated with Hager's method, which needs a few O(n^2) solves instead of the inverse.
+    //Big values mean that results computed with the matrix (solutions, the inverse) may be inaccurate. A value near 1 / 1e-16 means the matrix is numerically singular.
+    public double getConditionEstimate() {
+        if (singular)
+            return Double.POSITIVE_INFINITY;
+
+        int n = lu.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, 1.0 / n);
+
+        double estimate = 0;
+        for (int iteration = 0; iteration < 5; iteration++) {
+            System.arraycopy(x, 0, y, 0, n);
+            solvePermutedInPlace(y); //y = A^-1 x
+
+            double newEstimate = 0;
+            for (int i = 0; i < n; i++) {
+                newEstimate += Math.abs(y[i]);
+            }
+            if (iteration > 0 && newEstimate <= estimate)
+                break;
+            estimate = newEstimate;
+
+            for (int i = 0; i < n; i++) {
+                y[i] = y[i] >= 0 ? 1 : -1;
+            }
+            solveTransposeInPlace(y); //y = A^-T sign(A^-1 x)
+
+            int maxIndex = 0;
+            double dot = 0;
+            for (int i = 0; i < n; i++) {
+                if (Math.abs(y[i]) > Math.abs(y[maxIndex]))
+                    maxIndex = i;
+                dot += y[i] * x[i];
+            }
+            if (Math.abs(y[maxIndex]) <= dot)
+                break;
+
+            Arrays.fill(x, 0);
+            x[maxIndex] = 1;
+        }
+
+        return norm * estimate;
+    }
+
+    private void checkNonSingular() {
+        if (singular)
+            throw new RuntimeException("Matrix is singular.");
+    }
+
+    //Solves LUx = b in place. b must already be permuted with the pivot.
+    private void solveInPlace(double[] x) {
+        int n = lu.length;
+        for (int i = 0; i < n; i++) {
+            double[] row = lu[i];
+            double sum = x[i];
+            for (int j = 0; j < i; j++) {
+                sum -= row[j] * x[j];
+            }
+            x[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double[] row = lu[i];
+            double sum = x[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= row[j] * x[j];
+            }
+            x[i] = sum / row[i];
+        }
+    }
+
+    //Solves Ax = b in place, applying the pivot first.
+    private void solvePermutedInPlace(double[] x) {
+        double[] permuted = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            permuted[i] = x[pivot[i]];
+        }
+        solveInPlace(permuted);
+        System.arraycopy(permuted, 0, x, 0, x.length);
+    }
+
+    //Solves A^T x = b in place. Since A^T = U^T L^T P, solves U^T w = b, then L^T v = w and finally un-permutes v.
+    private void solveTransposeInPlace(double[] x) {
+        int n = lu.length;
+        for (int i = 0; i < n; i++) {
+            double sum = x[i];
+            for (int j = 0; j < i; j++) {
+                sum -= lu[j][i] * x[j];
+            }
+            x[i] = sum / lu[i][i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[j][i] * x[j];
+            }
+            x[i] = sum;
+        }
+        double[] permuted = new double[n];
+        for (int i = 0; i < n; i++) {
+            permuted[pivot[i]] = x[i];
+        }
+        System.arraycopy(permuted, 0, x, 0, n);
+    }
+}
\ No newline at end of file
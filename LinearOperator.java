@@ -0,0 +1,169 @@
+//A linear map given only by its product with vectors. The iterative solvers (see IterativeSolver) need nothing else,
+//so they work with dense and sparse matrices as well as operators which are never stored, e.g. a stencil computed on the fly.
+//Preconditioners are linear operators too: they apply an approximation of the inverse of the system matrix.
+public interface LinearOperator {
+
+    //Returns the dimension of the results.
+    int getRowCount();
+
+    //Returns the dimension of the vectors the operator is applied to.
+    int getColumnCount();
+
+    //Computes the product of the operator and the vector into the destination. The destination is never the vector itself.
+    void apply(Vector vector, Vector destination);
+
+    //Returns the operator of a dense matrix. The matrix is not copied.
+    static LinearOperator of(Matrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getRowCount();
+            }
+
+            public int getColumnCount() {
+                return matrix.getColumnCount();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                Matrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the operator of a sparse matrix.
+    static LinearOperator of(SparseMatrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getRowCount();
+            }
+
+            public int getColumnCount() {
+                return matrix.getColumnCount();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                SparseMatrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the operator of a diagonal matrix.
+    static LinearOperator of(DiagonalMatrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getDimension();
+            }
+
+            public int getColumnCount() {
+                return matrix.getDimension();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                DiagonalMatrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the operator of a triangular matrix.
+    static LinearOperator of(TriangularMatrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getDimension();
+            }
+
+            public int getColumnCount() {
+                return matrix.getDimension();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                TriangularMatrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the operator of a band matrix.
+    static LinearOperator of(BandMatrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getRowCount();
+            }
+
+            public int getColumnCount() {
+                return matrix.getColumnCount();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                BandMatrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the operator of a symmetric matrix in packed storage.
+    static LinearOperator of(SymmetricMatrix matrix) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return matrix.getDimension();
+            }
+
+            public int getColumnCount() {
+                return matrix.getDimension();
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                SymmetricMatrix.multiplyInto(matrix, vector, destination);
+            }
+        };
+    }
+
+    //Returns the Jacobi preconditioner of a square matrix, which divides each component by the corresponding diagonal element.
+    //Throws an IllegalArgumentException if a diagonal element is 0.
+    static LinearOperator jacobi(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Jacobi preconditioner of non-square matrices cannot be computed.");
+
+        double[] inverseDiagonal = new double[matrix.getRowCount()];
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            inverseDiagonal[i] = inverseOf(matrix.getElement(i, i));
+        }
+        return diagonal(inverseDiagonal);
+    }
+
+    //Returns the Jacobi preconditioner of a square sparse matrix.
+    static LinearOperator jacobi(SparseMatrix matrix) {
+        if (matrix.getRowCount() != matrix.getColumnCount())
+            throw new IllegalArgumentException("Jacobi preconditioner of non-square matrices cannot be computed.");
+
+        double[] inverseDiagonal = new double[matrix.getRowCount()];
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            inverseDiagonal[i] = inverseOf(matrix.getElement(i, i));
+        }
+        return diagonal(inverseDiagonal);
+    }
+
+    private static double inverseOf(double diagonalElement) {
+        if (diagonalElement == 0)
+            throw new IllegalArgumentException("Jacobi preconditioner cannot be used with a 0 on the diagonal.");
+        return 1 / diagonalElement;
+    }
+
+    private static LinearOperator diagonal(double[] diagonal) {
+        return new LinearOperator() {
+            public int getRowCount() {
+                return diagonal.length;
+            }
+
+            public int getColumnCount() {
+                return diagonal.length;
+            }
+
+            public void apply(Vector vector, Vector destination) {
+                destination.modified();
+                double[] x = vector.getComponents(), y = destination.getComponents();
+                int xOffset = vector.getOffset(), xStride = vector.getStride();
+                int yOffset = destination.getOffset(), yStride = destination.getStride();
+                for (int i = 0; i < diagonal.length; i++) {
+                    y[yOffset + i * yStride] = diagonal[i] * x[xOffset + i * xStride];
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -1,12 +1,36 @@
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
 public class Matrix {
 
-    private double[][] elements;
+    private static volatile int parallelism = 1; //Default number of threads for the multiplication.
+    private static volatile Executor executor; //Default executor for parallel multiplications. null means the common ForkJoinPool.
+    private static volatile int strassenCrossover = 256; //Dimension at or below which strassenMultiplication uses the classical multiplication.
+
+    //The elements are stored in a single array in row-major order. The element at (row, column) is at offset + row * rowStride + column * columnStride.
+    //Views (see getTransposeView, getSubMatrixView) share the array of another matrix and only have different metadata.
+    private double[] data;
+    private int offset;
+    private int rowCount;
+    private int columnCount;
+    private int rowStride;
+    private int columnStride;
+    private boolean view; //Whether the array belongs to another matrix.
+    private ModificationCounter counter; //Shared with the views. null until a view is created or the cache is enabled.
+    private Cache cache; //Derived results (see setCacheEnabled). null if the cache is disabled.
 
     //A constructor method with two arguments of its dimension. Creates a new array with the specified dimension. (First row, second column)
     public Matrix(int rows, int columns) {
         if (rows < 1 || columns < 1)
             throw new IllegalArgumentException("Dimension must be at least 1x1");
-        elements = new double[rows][columns];
+        data = new double[rows * columns];
+        rowCount = rows;
+        columnCount = columns;
+        rowStride = columns;
+        columnStride = 1;
     }
 
     //A constructor method with an argument of a 2D double array. Assigns a copy of the given array to the elements array.
@@ -19,52 +43,171 @@ public class Matrix {
             column = elements[i].length;
         }
 
-        this.elements = new double[elements.length][elements[0].length];
+        rowCount = elements.length;
+        columnCount = elements[0].length;
+        rowStride = columnCount;
+        columnStride = 1;
+        data = new double[rowCount * columnCount];
 
         for (int i = 0; i < elements.length; i++) {
-            for (int j = 0; j < elements[0].length; j++) {
-                this.elements[i][j] = elements[i][j];
-            }
+            System.arraycopy(elements[i], 0, data, i * rowStride, columnCount);
         }
     }
 
     //A constructor method which copies the elements of the given matrix.
     public Matrix(Matrix matrix) {
-        elements = new double[matrix.getRowCount()][matrix.getColumnCount()];
-        for (int i = 0; i < elements.length; i++) {
-            for (int j = 0; j < elements[0].length; j++) {
-                elements[i][j] = matrix.getElement(i, j);
+        this(matrix.rowCount, matrix.columnCount);
+        for (int i = 0; i < rowCount; i++) {
+            if (matrix.columnStride == 1) {
+                System.arraycopy(matrix.data, matrix.offset + i * matrix.rowStride, data, i * rowStride, columnCount);
+            }
+            else {
+                for (int j = 0; j < columnCount; j++) {
+                    data[i * rowStride + j] = matrix.data[matrix.index(i, j)];
+                }
             }
         }
     }
 
-    //Returns a copy of the matrix.
+    //Creates a view which shares the given array.
+    Matrix(double[] data, int offset, int rowCount, int columnCount, int rowStride, int columnStride) {
+        this(data, offset, rowCount, columnCount, rowStride, columnStride, null);
+    }
+
+    //Creates a view which shares the given array and the modification counter of the matrix it belongs to. Views of frozen matrices are frozen too.
+    private Matrix(double[] data, int offset, int rowCount, int columnCount, int rowStride, int columnStride, ModificationCounter counter) {
+        this.data = data;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+        this.view = true;
+        this.counter = counter;
+        if (counter != null && counter.frozen)
+            cache = new Cache(0);
+    }
+
+    //Returns a copy of the matrix. The copy of a frozen matrix can be changed.
     public Matrix clone() {
         return new Matrix(this);
     }
 
     //Returns the count of rows of the matrix.
     public int getRowCount() { //Returns the row count of the matrix.
-        return elements.length;
+        return rowCount;
     }
 
     //Returns the count of columns of the matrix.
     public int getColumnCount() { //Returns the column count of the matrix.
-        return elements[0].length;
+        return columnCount;
+    }
+
+    //Checks whether the matrix is a view which shares the elements of another matrix.
+    public boolean isView() {
+        return view;
+    }
+
+    //Enables or disables the cache of derived results: the transpose, the determinant, the inverse and the decompositions. It is disabled by default.
+    //While it is enabled, each of them is computed once and returned again until the elements change. Every mutator counts the changes,
+    //also those made through views, and a cached result is discarded as soon as the count differs from the one it was computed at.
+    //The cached transpose and inverse are frozen (see freeze) since the same matrix is returned to every caller. clone returns a copy which can be changed.
+    //Frozen matrices always use the cache, so disabling it has no effect on them.
+    public void setCacheEnabled(boolean enabled) {
+        if (enabled) {
+            if (cache == null)
+                cache = new Cache(counter().count);
+        }
+        else if (!isFrozen()) {
+            cache = null;
+        }
+    }
+
+    //Checks whether the derived results are cached (see setCacheEnabled).
+    public boolean isCacheEnabled() {
+        return cache != null;
+    }
+
+    //Returns a frozen copy of the matrix: an immutable matrix which throws an UnsupportedOperationException from every mutator, also from those of its views.
+    //Since its elements never change, the threads which share it need no locks once they have it, and its derived results are always cached,
+    //so e.g. the inverse is computed once for all threads. Its fields are not final, so it must be handed to other threads through a safe publication,
+    //e.g. a final or volatile field, a concurrent collection or an executor, not through a data race. Returns the matrix itself if it is already frozen.
+    public Matrix freeze() {
+        if (isFrozen())
+            return this;
+        return frozen(new Matrix(this));
+    }
+
+    //Checks whether the matrix is frozen (see freeze).
+    public boolean isFrozen() {
+        return counter != null && counter.frozen;
+    }
+
+    //Makes the given matrix, which must not be shared yet, frozen.
+    private static Matrix frozen(Matrix matrix) {
+        matrix.counter = new ModificationCounter(true);
+        matrix.cache = new Cache(0);
+        return matrix;
+    }
+
+    //Returns the modification counter shared with the views, creating it when it is first needed.
+    private ModificationCounter counter() {
+        if (counter == null)
+            counter = new ModificationCounter(false);
+        return counter;
+    }
+
+    //Records a change of the elements. It is called before every write, so frozen matrices throw an UnsupportedOperationException before anything is changed.
+    void modified() {
+        if (counter != null)
+            counter.increment();
+    }
+
+    //Returns the cache if it is enabled, after discarding the results computed before the last change of the elements.
+    private Cache getCache() {
+        Cache cache = this.cache;
+        if (cache != null && cache.modificationCount != counter.count) {
+            cache = new Cache(counter.count);
+            this.cache = cache;
+        }
+        return cache;
+    }
+
+    //The backing array and its layout. Used by the kernels to read and write the elements without range checks.
+    double[] getData() {
+        return data;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getRowStride() {
+        return rowStride;
+    }
+
+    int getColumnStride() {
+        return columnStride;
+    }
+
+    //Returns the position of the element at given coordinates in the backing array.
+    int index(int row, int column) {
+        return offset + row * rowStride + column * columnStride;
     }
 
     //Returns the element at given coordinates.
     public double getElement(int row, int column) {
-        if (row < 0 || column < 0 || row > elements.length || column > elements[0].length)
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
             throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
-        return elements[row][column];
+        return data[index(row, column)];
     }
 
     //Sets the element at given coordinates.
     public void setElement(int row, int column, double value) {
-        if (row < 0 || column < 0 || row > elements.length || column > elements[0].length)
-            throw new IndexOutOfBoundsException("Location" + row + ", " + column + " does not exist in the matrix.");
-        elements[row][column] = value;
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+        modified();
+        data[index(row, column)] = value;
     }
 
     //Checks whether given matrices are of the same dimension.
@@ -77,10 +220,19 @@ public class Matrix {
     public void add(Matrix m1) {
         if (!Matrix.checkDimensions(this, m1))
             throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        modified();
 
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                setElement(i, j, getElement(i, j) + m1.getElement(i, j));
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.add(data, index, m1.data, otherIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] += m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
             }
         }
     }
@@ -90,49 +242,250 @@ public class Matrix {
     public void subtract(Matrix m1) {
         if (!Matrix.checkDimensions(this, m1))
             throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        modified();
 
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                setElement(i, j, getElement(i, j) - m1.getElement(i, j));
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.subtract(data, index, m1.data, otherIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] -= m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
+            }
+        }
+    }
+
+    //Adds the given matrix multiplied by a scalar to this matrix (this += scalar * m1) in a single pass, without creating the scaled matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void scaleAndAdd(double scalar, Matrix m1) {
+        if (!Matrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        modified();
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int otherIndex = m1.index(i, 0);
+            if (columnStride == 1 && m1.columnStride == 1) {
+                VectorKernels.INSTANCE.addScaled(data, index, m1.data, otherIndex, columnCount, scalar);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] += scalar * m1.data[otherIndex];
+                index += columnStride;
+                otherIndex += m1.columnStride;
             }
         }
     }
 
     //Performs the multiplication by a scalar. Multiplies each element by the scalar number.
     public void multiplyByAScalar(double scalar) {
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                setElement(i, j, getElement(i, j) * scalar);
+        modified();
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            if (columnStride == 1) {
+                VectorKernels.INSTANCE.scale(data, index, columnCount, scalar);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] *= scalar;
+                index += columnStride;
             }
         }
     }
 
+    //Replaces each element with the result of the operator applied to it, e.g. matrix.map(Math::sqrt).
+    //Like the other bulk operations (see BulkOperations), it runs over the backing array without range checks.
+    public void map(DoubleUnaryOperator operator) {
+        modified();
+        BulkOperations.Elements elements = elements();
+        BulkOperations.map(elements, 0, elements.size(), operator);
+    }
+
+    //Performs map in parallel on fork-join tasks. The operator must be safe to call from several threads at once.
+    public void parallelMap(DoubleUnaryOperator operator) {
+        modified();
+        BulkOperations.Elements elements = elements();
+        BulkOperations.parallel(elements.size(), BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.map(elements, start, end, operator));
+    }
+
+    //Replaces each element with the result of the operator applied to it and the element of the given matrix at the same position,
+    //e.g. matrix.zipWith(m1, Math::max). Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void zipWith(Matrix m1, DoubleBinaryOperator operator) {
+        if (!Matrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        modified();
+        BulkOperations.Elements elements = elements();
+        BulkOperations.zipWith(elements, m1.elements(), 0, elements.size(), operator);
+    }
+
+    //Performs zipWith in parallel on fork-join tasks. The operator must be safe to call from several threads at once.
+    public void parallelZipWith(Matrix m1, DoubleBinaryOperator operator) {
+        if (!Matrix.checkDimensions(this, m1))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        modified();
+        BulkOperations.Elements elements = elements(), other = m1.elements();
+        BulkOperations.parallel(elements.size(), BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.zipWith(elements, other, start, end, operator));
+    }
+
+    //Combines the identity and the elements, in row-major order, with the operator and returns the result, e.g. matrix.reduce(1, (a, b) -> a * b) for their product.
+    public double reduce(double identity, DoubleBinaryOperator operator) {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.reduce(elements, 0, elements.size(), identity, operator);
+    }
+
+    //Performs reduce in parallel: ranges of the elements are reduced separately, starting from the identity, and their results are combined with the operator.
+    //The result is that of reduce only if the operator is associative and identity is its identity element, e.g. 0 for addition.
+    public double parallelReduce(double identity, DoubleBinaryOperator operator) {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(elements.size(), BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.reduce(elements, start, end, identity, operator), operator);
+    }
+
+    //Returns the sum of the elements.
+    public double sum() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.sum(elements, 0, elements.size());
+    }
+
+    //Returns the sum of the elements, computed in parallel. It may differ from sum in the last digits since the elements are summed in a different order.
+    public double parallelSum() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(elements.size(), BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.sum(elements, start, end), Double::sum);
+    }
+
+    //Returns the biggest element. Returns NaN if any element is NaN.
+    public double max() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.max(elements, 0, elements.size(), false);
+    }
+
+    //Returns the biggest element, computed in parallel.
+    public double parallelMax() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(elements.size(), BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.max(elements, start, end, false), Math::max);
+    }
+
+    //Returns the infinity norm of the matrix, the biggest sum of the absolute values of the elements of a row.
+    public double normInf() {
+        return BulkOperations.maxRowSum(elements(), 0, rowCount);
+    }
+
+    //Returns the infinity norm of the matrix, computed in parallel over blocks of rows.
+    public double parallelNormInf() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(rowCount, BulkOperations.PARALLEL_THRESHOLD / columnCount, (start, end) -> BulkOperations.maxRowSum(elements, start, end), Math::max);
+    }
+
+    //Returns the layout of the elements for the bulk operations.
+    private BulkOperations.Elements elements() {
+        return new BulkOperations.Elements(data, offset, rowCount, columnCount, rowStride, columnStride);
+    }
+
     //Returns the specified row of the matrix as a vector.
     public Vector getRowVector(int row) {
-        if (row >= getRowCount())
-            throw new IndexOutOfBoundsException("Row " + row + " does not exist in this vector.");
-
-        return new Vector(elements[row]);
+        return new Vector(getRowVectorView(row));
     }
 
     //Returns the specified column of the matrix as a vector.
     public Vector getColumnVector(int column) {
-        if (column >= getColumnCount())
-            throw new IndexOutOfBoundsException("Column" + column + " does not exist in this vector.");
+        return new Vector(getColumnVectorView(column));
+    }
 
-        double[] components = new double[elements.length];
+    //Copies the specified row of the matrix into the given vector instead of creating a new one.
+    public void rowVectorInto(int row, Vector destination) {
+        if (destination.getDimension() != columnCount)
+            throw new IllegalArgumentException("Dimension of the vector does not match the column count of the matrix.");
+        getRowVectorView(row).copyInto(destination);
+    }
 
-        for (int i = 0; i < components.length; i++) {
-            components[i] = getElement(i, column);
-        }
+    //Copies the specified column of the matrix into the given vector instead of creating a new one.
+    public void columnVectorInto(int column, Vector destination) {
+        if (destination.getDimension() != rowCount)
+            throw new IllegalArgumentException("Dimension of the vector does not match the row count of the matrix.");
+        getColumnVectorView(column).copyInto(destination);
+    }
+
+    //Returns the specified row of the matrix as a vector which shares the elements of the matrix. Nothing is copied.
+    //Changes to the vector change the matrix and vice versa.
+    public Vector getRowVectorView(int row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+
+        return new Vector(data, index(row, 0), columnStride, columnCount, counter());
+    }
+
+    //Returns the specified column of the matrix as a vector which shares the elements of the matrix. Nothing is copied.
+    //Changes to the vector change the matrix and vice versa.
+    public Vector getColumnVectorView(int column) {
+        if (column < 0 || column >= columnCount)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+
+        return new Vector(data, index(0, column), rowStride, rowCount, counter());
+    }
+
+    //Returns the transpose of the matrix as a view which shares the elements of the matrix. Nothing is copied, only the strides are interchanged.
+    //Changes to the view change the matrix and vice versa.
+    public Matrix getTransposeView() {
+        return new Matrix(data, offset, columnCount, rowCount, columnStride, rowStride, counter());
+    }
+
+    //Returns the part of the matrix which starts at the given row and column and has the given dimension as a view which shares the elements of the matrix.
+    //Nothing is copied. Changes to the view change the matrix and vice versa.
+    public Matrix getSubMatrixView(int row, int column, int rows, int columns) {
+        if (rows < 1 || columns < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1x1");
+        if (row < 0 || column < 0 || row + rows > rowCount || column + columns > columnCount)
+            throw new IndexOutOfBoundsException("Submatrix at " + row + ", " + column + " with dimension " + rows + "x" + columns + " does not fit in the matrix.");
 
-        return new Vector(components);
+        return new Matrix(data, index(row, column), rows, columns, rowStride, columnStride, counter());
+    }
+
+    //Sets the number of threads used by the multiplication method by default. 1 (the default) means the multiplication runs on the calling thread.
+    public static void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        Matrix.parallelism = parallelism;
+    }
+
+    //Returns the number of threads used by the multiplication method by default.
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    //Sets the executor which runs the parallel multiplications by default. null means the common ForkJoinPool.
+    public static void setExecutor(Executor executor) {
+        Matrix.executor = executor;
+    }
+
+    //Returns the executor which runs the parallel multiplications by default. Returns the common ForkJoinPool if no executor was set.
+    public static Executor getExecutor() {
+        Executor executor = Matrix.executor;
+        return executor != null ? executor : ForkJoinPool.commonPool();
     }
 
     //Performs the multiplication of given matrices and returns the resultant matrix. The resultant matrix is new and the others are preserved.
     //For the multiplication, one's column count must match with the other's column count. Checks for it, if needed, changes their order for the operations.
     //If the dimensions are not equal, throws an IllegalArgumentException.
+    //Uses the default parallelism and executor (see setParallelism and setExecutor).
     public static Matrix multiplication(Matrix m1, Matrix m2) {
+        return multiplication(m1, m2, getExecutor(), parallelism);
+    }
+
+    //Performs the multiplication of given matrices using up to the given number of threads of the default executor.
+    public static Matrix multiplication(Matrix m1, Matrix m2, int parallelism) {
+        return multiplication(m1, m2, getExecutor(), parallelism);
+    }
+
+    //Performs the multiplication of given matrices using up to the given number of threads of the given executor.
+    //The rows of the resultant matrix are split into blocks which are computed in parallel. Small matrices are always multiplied on the calling thread.
+    public static Matrix multiplication(Matrix m1, Matrix m2, Executor executor, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.MULTIPLICATION);
+
         int m1RowCount = m1.getRowCount();
         int m1ColumnCount = m1.getColumnCount();
 
@@ -158,28 +511,231 @@ public class Matrix {
 
         Matrix result = new Matrix(m1RowCount, m2ColumnCount); //Resultant matrix has a dimension of first one's column count times the other's row count.
 
-        //Calculates the dot product of row vectors of the first matrix and column vectors of the second matrix and place them accordingly.
-        //Not an optimized way, has a complexity of O(n^3).
-        for (int i = 0; i < m1RowCount; i++) {
-            Vector rowVector = m1.getRowVector(i);
-            for (int j = 0; j < m2ColumnCount; j++) {
-                Vector columnVector = m2.getColumnVector(j);
-                result.setElement(i, j, Vector.dotProduct(rowVector, columnVector));
+        //Each element is the dot product of a row vector of the first matrix and a column vector of the second matrix.
+        //The kernel reads the arrays directly, uses a cache-blocked loop for big matrices and the naive loop for small ones. It still has a complexity of O(n^3).
+        MultiplicationKernel.multiplyParallel(1, m1, m2, result, executor, parallelism);
+
+        if (event != null)
+            Metrics.end(event, m1RowCount, m2ColumnCount, 2L * m1RowCount * m1ColumnCount * m2ColumnCount);
+        return result;
+    }
+
+    //Sets the dimension at or below which strassenMultiplication switches to the classical multiplication. A product is split only while all of its
+    //dimensions are greater than the crossover. Smaller crossovers save more multiplications but add more additions and rounding errors. The default is 256.
+    public static void setStrassenCrossover(int crossover) {
+        if (crossover < 1)
+            throw new IllegalArgumentException("Strassen crossover must be at least 1.");
+        strassenCrossover = crossover;
+    }
+
+    //Returns the dimension at or below which strassenMultiplication switches to the classical multiplication.
+    public static int getStrassenCrossover() {
+        return strassenCrossover;
+    }
+
+    //Performs the multiplication of given matrices with the Strassen-Winograd algorithm (see StrassenKernel) and returns the resultant matrix.
+    //It needs 7 instead of 8 multiplications of half-size blocks per level, which makes it faster than multiplication for big matrices,
+    //e.g. by about a quarter with two levels. Its rounding errors are bounded in norm but bigger than those of multiplication, and they grow with each level.
+    //Unlike multiplication, the operands are never swapped. Throws an IllegalArgumentException if the dimensions are not appropriate.
+    //Uses the default parallelism, executor and crossover (see setParallelism, setExecutor and setStrassenCrossover).
+    public static Matrix strassenMultiplication(Matrix m1, Matrix m2) {
+        if (m1.columnCount != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        Matrix result = new Matrix(m1.rowCount, m2.columnCount);
+        strassenMultiplyInto(m1, m2, result, new Workspace());
+        return result;
+    }
+
+    //Multiplies the given matrices with the Strassen-Winograd algorithm into the destination (destination = m1 * m2). Its previous elements are overwritten.
+    //The temporaries are taken from the workspace and returned to it afterwards, so repeated products of the same dimension allocate nothing.
+    //They take about as many elements as the destination on the calling thread, and about 3 times as many for each level split across threads.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its elements with m1 or m2.
+    public static void strassenMultiplyInto(Matrix m1, Matrix m2, Matrix destination, Workspace workspace) {
+        strassenMultiplyInto(m1, m2, destination, workspace, getExecutor(), parallelism);
+    }
+
+    //Multiplies the given matrices with the Strassen-Winograd algorithm into the destination using up to the given number of threads of the given executor.
+    //The 7 products of the first level (49 products of the first two levels for more than 7 threads) are computed in parallel.
+    public static void strassenMultiplyInto(Matrix m1, Matrix m2, Matrix destination, Workspace workspace, Executor executor, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        if (m1.columnCount != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+        if (destination.rowCount != m1.rowCount || destination.columnCount != m2.columnCount)
+            throw new IllegalArgumentException("Dimension of the result matrix does not match the dimension of the product.");
+        if (destination.data == m1.data || destination.data == m2.data)
+            throw new IllegalArgumentException("The result matrix cannot share its elements with the multiplied matrices.");
+        destination.modified();
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.STRASSEN_MULTIPLICATION);
+
+        //The kernel adds and subtracts whole rows, so operands with other layouts (e.g. transpose views) are copied to row-major matrices first.
+        Matrix a = m1.columnStride == 1 ? m1 : new Matrix(m1);
+        Matrix b = m2.columnStride == 1 ? m2 : new Matrix(m2);
+        if (destination.columnStride == 1) {
+            StrassenKernel.multiply(a, b, destination, strassenCrossover, workspace, executor, parallelism);
+        }
+        else {
+            Matrix result = workspace.getMatrix(destination.rowCount, destination.columnCount);
+            try {
+                StrassenKernel.multiply(a, b, result, strassenCrossover, workspace, executor, parallelism);
+                result.copyInto(destination);
+            } finally {
+                workspace.release(result);
             }
         }
 
+        if (event != null)
+            Metrics.end(event, m1.rowCount, m2.columnCount, 2L * m1.rowCount * m1.columnCount * m2.columnCount);
+    }
+
+    //Multiplies the matrix by the vector, which is treated as a column vector, and returns the resultant vector.
+    public static Vector multiplication(Matrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.rowCount);
+        multiplyInto(matrix, vector, result);
         return result;
     }
 
+    //Multiplies the matrix by the vector into the given vector instead of creating a new one. Each component is the dot product of a row and the vector.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the matrix or the vector.
+    public static void multiplyInto(Matrix matrix, Vector vector, Vector destination) {
+        if (matrix.columnCount != vector.getDimension())
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.rowCount)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents() || destination.getComponents() == matrix.data)
+            throw new IllegalArgumentException("The destination vector cannot share its components with the matrix or the vector.");
+        destination.modified();
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.MATRIX_VECTOR_MULTIPLICATION);
+
+        double[] x = vector.getComponents();
+        int xOffset = vector.getOffset();
+        int xStride = vector.getStride();
+        double[] y = destination.getComponents();
+        for (int i = 0; i < matrix.rowCount; i++) {
+            int index = matrix.index(i, 0);
+            double sum;
+            if (matrix.columnStride == 1 && xStride == 1) {
+                sum = VectorKernels.INSTANCE.dot(matrix.data, index, x, xOffset, matrix.columnCount);
+            }
+            else {
+                sum = 0;
+                for (int j = 0; j < matrix.columnCount; j++) {
+                    sum += matrix.data[index + j * matrix.columnStride] * x[xOffset + j * xStride];
+                }
+            }
+            y[destination.getOffset() + i * destination.getStride()] = sum;
+        }
+
+        if (event != null)
+            Metrics.end(event, matrix.rowCount, matrix.columnCount, 2L * matrix.rowCount * matrix.columnCount);
+    }
+
+    //Multiplies the given matrices into the destination instead of creating a new matrix (destination = m1 * m2). Its previous elements are overwritten.
+    //Unlike multiplication, the operands are never swapped. Throws an IllegalArgumentException if the dimensions do not match or
+    //the destination shares its elements with m1 or m2. Uses the default parallelism and executor (see setParallelism and setExecutor).
+    public static void multiplyInto(Matrix m1, Matrix m2, Matrix destination) {
+        gemm(1, m1, m2, 0, destination);
+    }
+
+    //Computes c = alpha * a * b + beta * c in place, the GEMM operation of BLAS. Unlike multiplication(a, b) followed by multiplyByAScalar and add,
+    //no temporary matrix is created: c is scaled by beta and the product is accumulated into it by the multiplication kernel, which applies alpha while it reads a.
+    //If beta is 0, c is overwritten and its previous elements are ignored. Transposed operands can be passed as views (getTransposeView) without copying them.
+    //Unlike multiplication, the operands are never swapped. Throws an IllegalArgumentException if the dimensions do not match or c shares its elements with a or b.
+    //Uses the default parallelism and executor (see setParallelism and setExecutor).
+    public static void gemm(double alpha, Matrix a, Matrix b, double beta, Matrix c) {
+        gemm(alpha, a, b, beta, c, getExecutor(), parallelism);
+    }
+
+    //Computes c = alpha * a * b + beta * c in place using up to the given number of threads of the given executor. See gemm(alpha, a, b, beta, c).
+    public static void gemm(double alpha, Matrix a, Matrix b, double beta, Matrix c, Executor executor, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        if (a.columnCount != b.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+        if (c.rowCount != a.rowCount || c.columnCount != b.columnCount)
+            throw new IllegalArgumentException("Dimension of the result matrix does not match the dimension of the product.");
+        if (c.data == a.data || c.data == b.data)
+            throw new IllegalArgumentException("The result matrix cannot share its elements with the multiplied matrices.");
+        c.modified();
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.GEMM);
+
+        if (beta == 0)
+            c.fill(0);
+        else if (beta != 1)
+            c.multiplyByAScalar(beta);
+
+        if (alpha != 0)
+            MultiplicationKernel.multiplyParallel(alpha, a, b, c, executor, parallelism);
+
+        if (event != null)
+            Metrics.end(event, c.rowCount, c.columnCount, (alpha != 0 ? 2L * a.rowCount * a.columnCount * b.columnCount : 0) + (beta != 0 && beta != 1 ? (long) c.rowCount * c.columnCount : 0));
+    }
+
+    //Sets all elements to the given value.
+    void fill(double value) {
+        modified();
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            if (columnStride == 1) {
+                Arrays.fill(data, index, index + columnCount, value);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                data[index] = value;
+                index += columnStride;
+            }
+        }
+    }
+
     //Creates and returns the transpose of the matrix.
+    //If a copy is not needed, getTransposeView returns the transpose without copying the elements.
+    //If the cache is enabled (see setCacheEnabled), the same frozen transpose is returned until the elements change.
     public Matrix getTranspose() {
-        Matrix transposedMatrix = new Matrix(getColumnCount(), getRowCount());
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                transposedMatrix.setElement(j, i, getElement(i, j)); //Row and column indexes are interchanged to make it transpose.
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.TRANSPOSE);
+        Cache cache = getCache();
+        Matrix transpose = cache != null ? cache.transpose : null;
+        if (transpose == null) {
+            transpose = new Matrix(getTransposeView());
+            if (cache != null)
+                cache.transpose = transpose = frozen(transpose);
+        }
+
+        if (event != null)
+            Metrics.end(event, columnCount, rowCount, 0);
+        return transpose;
+    }
+
+    //Copies the transpose of the matrix into the given matrix instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimension does not match or the destination shares its elements with the matrix.
+    public void transposeInto(Matrix destination) {
+        if (destination.rowCount != columnCount || destination.columnCount != rowCount)
+            throw new IllegalArgumentException("Dimension of the destination matrix does not match the dimension of the transpose.");
+        if (destination.data == data)
+            throw new IllegalArgumentException("The destination matrix cannot share its elements with the matrix.");
+
+        getTransposeView().copyInto(destination);
+    }
+
+    //Copies the elements of the matrix into the given matrix of the same dimension. Works with any layout, e.g. from or into views.
+    public void copyInto(Matrix destination) {
+        if (!Matrix.checkDimensions(this, destination))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        destination.modified();
+
+        for (int i = 0; i < rowCount; i++) {
+            int index = index(i, 0);
+            int destinationIndex = destination.index(i, 0);
+            if (columnStride == 1 && destination.columnStride == 1) {
+                System.arraycopy(data, index, destination.data, destinationIndex, columnCount);
+                continue;
+            }
+            for (int j = 0; j < columnCount; j++) {
+                destination.data[destinationIndex] = data[index];
+                index += columnStride;
+                destinationIndex += destination.columnStride;
             }
         }
-        return transposedMatrix;
     }
 
     //Creates and returns an identity matrix for the given dimension.
@@ -198,79 +754,185 @@ public class Matrix {
     }
 
     //Removes the specified row from the matrix.
+    //The rows after it are moved up in the same array, nothing is allocated. Views created from the matrix before should not be used afterwards.
+    //A view first gets its own copy of the elements, so removing a row from a view does not change the matrix it was created from.
     public void removeRow(int rowToRemove) {
-        if (rowToRemove < 0 || rowToRemove >= elements.length)
+        if (rowToRemove < 0 || rowToRemove >= rowCount)
             throw new IndexOutOfBoundsException("Row " + rowToRemove +  " does not exist in the matrix.");
+        modified();
 
-        double[][] temp = elements;
-        elements = new double[elements.length - 1][elements[0].length];
+        if (view)
+            detach();
 
-        for (int i = 0; i < elements.length; i++) {
-            for (int j = 0; j < elements[0].length; j++) {
-                if (i < rowToRemove)
-                    elements[i][j] = temp[i][j];
-                else
-                    elements[i][j] = temp[i + 1][j];
-            }
-        }
+        System.arraycopy(data, (rowToRemove + 1) * rowStride, data, rowToRemove * rowStride, (rowCount - rowToRemove - 1) * rowStride);
+        rowCount--;
     }
 
     //Removes the specified column from the matrix.
+    //The remaining elements are moved in the same array, nothing is allocated. Views created from the matrix before should not be used afterwards.
+    //A view first gets its own copy of the elements, so removing a column from a view does not change the matrix it was created from.
     public void removeColumn(int columnToRemove) {
-        if (columnToRemove < 0 || columnToRemove >= elements[0].length)
+        if (columnToRemove < 0 || columnToRemove >= columnCount)
             throw new IndexOutOfBoundsException("Column " + columnToRemove + " does not exist in the matrix.");
+        modified();
 
-        double[][] temp = elements;
-        elements = new double[elements.length][elements[0].length - 1];
+        if (view)
+            detach();
 
-        for (int i = 0; i < elements.length; i++) {
-            for (int j = 0; j < elements[0].length; j++) {
-                if (j < columnToRemove)
-                    elements[i][j] = temp[i][j];
-                else
-                    elements[i][j] = temp[i][j + 1];
-            }
+        int newColumnCount = columnCount - 1;
+        for (int i = 0; i < rowCount; i++) { //Each row is moved to its new position. The new position is never after the old one, so no unread element is overwritten.
+            int source = i * columnCount;
+            int destination = i * newColumnCount;
+            System.arraycopy(data, source, data, destination, columnToRemove);
+            System.arraycopy(data, source + columnToRemove + 1, data, destination + columnToRemove, newColumnCount - columnToRemove);
         }
+        columnCount = newColumnCount;
+        rowStride = newColumnCount;
     }
 
-    //Finds and returns the minor matrix of the matrix.
+    //Replaces the shared elements of a view with a row-major copy which belongs to this matrix. It stops sharing the modification counter too.
+    private void detach() {
+        Matrix copy = new Matrix(this);
+        data = copy.data;
+        offset = 0;
+        rowStride = copy.rowStride;
+        columnStride = 1;
+        view = false;
+        counter = null;
+        if (cache != null)
+            cache = new Cache(counter().count);
+    }
+
+    //Finds and returns the minor matrix of the matrix. The elements are copied once, without the given row and column.
     public Matrix getMinorMatrix(int row, int column) {
-        Matrix minorMatrix = clone();
-        minorMatrix.removeRow(row);
-        minorMatrix.removeColumn(column);
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+        if (column < 0 || column >= columnCount)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+
+        Matrix minorMatrix = new Matrix(rowCount - 1, columnCount - 1);
+        int index = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (i == row)
+                continue;
+            for (int j = 0; j < columnCount; j++) {
+                if (j != column)
+                    minorMatrix.data[index++] = data[index(i, j)];
+            }
+        }
         return minorMatrix;
     }
 
-    //Computes the determinant of the matrix using the Cofactor Expansion method.
-    //Since the Cofactor Expansion method is recursive, this method does recursive calls and not an efficient way (O(n!)). Main focus is on simplicity.
-    //However, if the matrix contains a row or column with all zeroes, it directly returns 0.
+    //Copies the minor matrix of the matrix into the given matrix instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimension does not match or the destination shares its elements with the matrix.
+    public void minorMatrixInto(int row, int column, Matrix destination) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+        if (column < 0 || column >= columnCount)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+        if (destination.rowCount != rowCount - 1 || destination.columnCount != columnCount - 1)
+            throw new IllegalArgumentException("Dimension of the destination matrix does not match the dimension of the minor matrix.");
+        if (destination.data == data)
+            throw new IllegalArgumentException("The destination matrix cannot share its elements with the matrix.");
+        destination.modified();
+
+        int destinationRow = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (i == row)
+                continue;
+            int destinationIndex = destination.index(destinationRow++, 0);
+            for (int j = 0; j < columnCount; j++) {
+                if (j != column) {
+                    destination.data[destinationIndex] = data[index(i, j)];
+                    destinationIndex += destination.columnStride;
+                }
+            }
+        }
+    }
+
+    //Computes the determinant of the matrix using the LU decomposition (see LUDecomposition). It has a complexity of O(n^3).
+    //If the cache is enabled (see setCacheEnabled), it is computed once until the elements change.
     public double determinant() {
         if (!isSquare())
             throw new RuntimeException("Determinant of non-square matrices cannot be computed.");
 
-        if (getRowCount() == 1) //Base condition (To end recursive calls at some point)
-            return elements[0][0]; //Determinant of a 1x1 matrix is equal to the only element in it.
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.DETERMINANT);
+        Cache cache = getCache();
+        Double determinant = cache != null ? cache.determinant : null;
+        boolean computed = determinant == null;
+        if (computed) {
+            determinant = getLUDecomposition().determinant();
+            if (cache != null)
+                cache.determinant = determinant;
+        }
+
+        if (event != null)
+            Metrics.end(event, rowCount, columnCount, computed ? rowCount : 0); //The product of the diagonal of U. The decomposition is recorded by itself.
+        return determinant;
+    }
 
-        for (int i = 0; i < getRowCount(); i++) {
-            if (getRowVector(i).isZeroVector()) //Checks if there is a row with all zeroes.
-                return 0;
+    //Computes the LU decomposition of the matrix with partial pivoting. It can be reused for the determinant, the inverse and solving linear systems.
+    //The decompositions are immutable, so if the cache is enabled, the same decomposition is returned until the elements change.
+    public LUDecomposition getLUDecomposition() {
+        Cache cache = getCache();
+        if (cache == null)
+            return new LUDecomposition(this);
+
+        LUDecomposition decomposition = cache.luDecomposition;
+        if (decomposition == null) {
+            decomposition = new LUDecomposition(this);
+            cache.luDecomposition = decomposition;
         }
-        for (int i = 0; i < getColumnCount(); i++) {
-            if (getColumnVector(i).isZeroVector()) //Checks if there is a column with all zeroes.
-                return 0;
+        return decomposition;
+    }
+
+    //Computes the Cholesky decomposition of the matrix, which has to be symmetric and positive-definite. Solves such systems about twice as fast as the LU decomposition.
+    public CholeskyDecomposition getCholeskyDecomposition() {
+        Cache cache = getCache();
+        if (cache == null)
+            return new CholeskyDecomposition(this);
+
+        CholeskyDecomposition decomposition = cache.choleskyDecomposition;
+        if (decomposition == null) {
+            decomposition = new CholeskyDecomposition(this);
+            cache.choleskyDecomposition = decomposition;
         }
+        return decomposition;
+    }
 
-        double determinant = 0;
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < 1; j++) {
-                double result = getElement(i, j) * getMinorMatrix(i, j).determinant();
-                if ((i + j) % 2 == 1)
-                    result *= -1;
-                determinant += result;
-            }
+    //Computes the QR decomposition of the matrix with Householder reflections. Solves least-squares problems for matrices with more rows than columns.
+    public QRDecomposition getQRDecomposition() {
+        Cache cache = getCache();
+        if (cache == null)
+            return new QRDecomposition(this);
+
+        QRDecomposition decomposition = cache.qrDecomposition;
+        if (decomposition == null) {
+            decomposition = new QRDecomposition(this);
+            cache.qrDecomposition = decomposition;
         }
+        return decomposition;
+    }
 
-        return determinant;
+    //Computes the reduced row echelon form of the matrix with the Gauss-Jordan elimination (see RowEchelonForm). The rank and bases of the column space
+    //and the null space are taken from it. If the cache is enabled, the same form is returned until the elements change.
+    //Use the constructors of RowEchelonForm for another tolerance or to record the row operations.
+    public RowEchelonForm getRowEchelonForm() {
+        Cache cache = getCache();
+        if (cache == null)
+            return new RowEchelonForm(this);
+
+        RowEchelonForm form = cache.rowEchelonForm;
+        if (form == null) {
+            form = new RowEchelonForm(this);
+            cache.rowEchelonForm = form;
+        }
+        return form;
+    }
+
+    //Returns the rank of the matrix, the number of pivots of its reduced row echelon form. It has a complexity of O(mn min(m, n)).
+    public int rank() {
+        return getRowEchelonForm().getRank();
     }
 
     //Interchanges given two rows.
@@ -279,13 +941,8 @@ public class Matrix {
             throw new IndexOutOfBoundsException("Row " + row1 + " does not exist in the matrix.");
         if (row2 < 0 || row2 >= getRowCount())
             throw new IndexOutOfBoundsException("Row " + row2 + " does not exist in the matrix.");
-
-        Vector rowVector = getRowVector(row2);
-        for (int i = 0; i < getColumnCount(); i++) {
-            setElement(row2, i, getElement(row1, i));
-            setElement(row1, i, rowVector.getComponent(i));
-        }
-
+        modified();
+        swapRows(row1, row2);
     }
 
     //Multiplies all elements in the given rows with the given non-zero number.
@@ -294,10 +951,8 @@ public class Matrix {
             throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
         if (number == 0)
             throw new IllegalArgumentException("Number cannot be 0.");
-
-        for (int i = 0; i < getColumnCount(); i++) {
-            setElement(row, i, getElement(row, i) * number);
-        }
+        modified();
+        scaleRow(row, number);
     }
 
     //Adds a multiple of a row with a number to another row. (Number * Row1 + Row2 -> Row2)
@@ -306,47 +961,153 @@ public class Matrix {
             throw new IndexOutOfBoundsException("Row " + row1 + " does not exist in the matrix.");
         if (row2 < 0 || row2 >= getRowCount())
             throw new IndexOutOfBoundsException("Row " + row2 + " does not exist in the matrix.");
-
-        for (int i = 0; i < getColumnCount(); i++) {
-            setElement(row2, i, getElement(row2, i) + getElement(row1, i) * number);
-        }
+        modified();
+        addScaledRow(row1, row2, number);
     }
 
-    //Finds and returns the inverse of the matrix using determinants.
-    //Not an optimized way. The determinant method is innefficient (O(n!) and makes recursive calls) and this method uses it several times.
+    //Finds and returns the inverse of the matrix using the LU decomposition. It has a complexity of O(n^3).
+    //If the cache is enabled (see setCacheEnabled), the same frozen inverse is returned until the elements change.
     public Matrix getInverse() {
         if (!isSquare())
             throw new RuntimeException("Non square matrices do not have inverses.");
 
-        double determinant = determinant();
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.INVERSE);
+        Cache cache = getCache();
+        Matrix inverse = cache != null ? cache.inverse : null;
+        boolean computed = inverse == null;
+        if (computed) {
+            LUDecomposition decomposition = getLUDecomposition();
+
+            if (decomposition.isSingular())
+                throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+
+            inverse = decomposition.getInverse();
+            if (cache != null)
+                cache.inverse = inverse = frozen(inverse);
+        }
+
+        if (event != null)
+            Metrics.end(event, rowCount, columnCount, computed ? 2L * rowCount * rowCount * rowCount : 0); //Two triangular solves per column. The decomposition is recorded by itself.
+        return inverse;
+    }
 
-        if (determinant == 0)
-            throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+    //Computes the inverse of the matrix into the given matrix with the Gauss-Jordan elimination (partial pivoting) instead of creating a new one.
+    //The elimination runs on a scratch copy of the matrix taken from the workspace, so repeated calls with the same workspace allocate nothing.
+    //The destination is turned from the identity matrix into the inverse by the same row operations which turn the copy into the identity matrix.
+    //The result may differ from getInverse in the last digits. Throws a RuntimeException if the matrix is singular.
+    public void inverseInto(Matrix destination, Workspace workspace) {
+        if (!isSquare())
+            throw new RuntimeException("Non square matrices do not have inverses.");
+        if (!Matrix.checkDimensions(this, destination))
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+        if (destination.data == data)
+            throw new IllegalArgumentException("The destination matrix cannot share its elements with the matrix.");
 
-        Matrix matrix = new Matrix(getRowCount(), getColumnCount());
+        int n = rowCount;
+        Matrix copy = workspace.getMatrix(n, n);
+        try {
+            copyInto(copy);
+            destination.fill(0);
+            for (int i = 0; i < n; i++) {
+                destination.data[destination.index(i, i)] = 1;
+            }
+
+            double[] a = copy.data;
+            for (int k = 0; k < n; k++) {
+                int pivotRow = k;
+                for (int i = k + 1; i < n; i++) {
+                    if (Math.abs(a[i * n + k]) > Math.abs(a[pivotRow * n + k]))
+                        pivotRow = i;
+                }
+                double pivot = a[pivotRow * n + k];
+                if (pivot == 0)
+                    throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+                if (pivotRow != k) {
+                    copy.interchangeRows(pivotRow, k);
+                    destination.interchangeRows(pivotRow, k);
+                }
 
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                double value = 1 / determinant * getMinorMatrix(j, i).determinant();
-                if ((i + j) % 2 == 1)
-                    value *= -1;
-                matrix.setElement(i, j, value);
+                copy.scaleRow(k, 1 / pivot);
+                destination.scaleRow(k, 1 / pivot);
+                for (int i = 0; i < n; i++) {
+                    double factor = a[i * n + k];
+                    if (i == k || factor == 0)
+                        continue;
+                    copy.addScaledRow(k, i, -factor);
+                    destination.addScaledRow(k, i, -factor);
+                }
             }
+        } finally {
+            workspace.release(copy);
+        }
+    }
+
+    //Interchanges the rows without the checks of interchangeRows. Like scaleRow and addScaledRow, it does not call modified.
+    void swapRows(int row1, int row2) {
+        int index1 = index(row1, 0);
+        int index2 = index(row2, 0);
+        for (int i = 0; i < columnCount; i++) {
+            double temp = data[index1];
+            data[index1] = data[index2];
+            data[index2] = temp;
+            index1 += columnStride;
+            index2 += columnStride;
+        }
+    }
+
+    //Multiplies the row by the number without the checks of multiplyARowBy.
+    void scaleRow(int row, double number) {
+        int index = index(row, 0);
+        if (columnStride == 1) {
+            VectorKernels.INSTANCE.scale(data, index, columnCount, number);
+            return;
+        }
+        for (int j = 0; j < columnCount; j++) {
+            data[index + j * columnStride] *= number;
+        }
+    }
+
+    //Adds number times row1 to row2 without the checks of addAScalarTimesARowToTheRow.
+    void addScaledRow(int row1, int row2, double number) {
+        int index1 = index(row1, 0);
+        int index2 = index(row2, 0);
+        if (columnStride == 1) {
+            VectorKernels.INSTANCE.addScaled(data, index2, data, index1, columnCount, number);
+            return;
+        }
+        for (int j = 0; j < columnCount; j++) {
+            data[index2 + j * columnStride] += number * data[index1 + j * columnStride];
         }
-        return matrix;
     }
 
     //Overrides the toString function.
     //Returns a string containing a text-based representation of the matrix.
+    //The text is built in a StringBuilder, so it takes linear time in the number of elements.
     public String toString() {
-        String text = "";
-        for (int i = 0; i < getRowCount(); i++) {
-            text += "|";
-            for (int j = 0; j < getColumnCount() - 1; j++) {
-                text += getElement(i, j) + ", ";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rowCount; i++) {
+            text.append('|');
+            for (int j = 0; j < columnCount - 1; j++) {
+                text.append(data[index(i, j)]).append(", ");
             }
-            text += getElement(i, getColumnCount() - 1) + "|\n";
+            text.append(data[index(i, columnCount - 1)]).append("|\n");
+        }
+        return text.toString();
+    }
+    //Derived results of the matrix computed while its modification count was modificationCount.
+    //The fields are volatile so that the results of frozen matrices are safely shared between threads. Two threads may compute the same result, but both get a valid one.
+    private static final class Cache {
+        final long modificationCount;
+        volatile Matrix transpose;
+        volatile Matrix inverse;
+        volatile Double determinant;
+        volatile LUDecomposition luDecomposition;
+        volatile CholeskyDecomposition choleskyDecomposition;
+        volatile QRDecomposition qrDecomposition;
+        volatile RowEchelonForm rowEchelonForm;
+
+        Cache(long modificationCount) {
+            this.modificationCount = modificationCount;
         }
-        return text;
     }
 }
\ No newline at end of file
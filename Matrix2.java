@@ -0,0 +1,134 @@
+//An immutable 2x2 matrix which keeps its elements in fields instead of an array.
+//It is a fast path for small matrices: the multiplication, the determinant and the inverse are written out without loops, so they need no LU decomposition and allocate only the result.
+//Operations return new matrices. Use toMatrix and the Matrix2(Matrix) constructor to convert to and from Matrix.
+public final class Matrix2 {
+
+    public static final Matrix2 IDENTITY = new Matrix2(1, 0, 0, 1);
+
+    private final double m00, m01;
+    private final double m10, m11;
+
+    //Creates a matrix from its elements, given row by row.
+    public Matrix2(double m00, double m01, double m10, double m11) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m10 = m10;
+        this.m11 = m11;
+    }
+
+    //Copies the elements of a 2x2 matrix.
+    public Matrix2(Matrix matrix) {
+        if (matrix.getRowCount() != 2 || matrix.getColumnCount() != 2)
+            throw new IllegalArgumentException("Matrix must be 2x2.");
+
+        m00 = matrix.getElement(0, 0);
+        m01 = matrix.getElement(0, 1);
+        m10 = matrix.getElement(1, 0);
+        m11 = matrix.getElement(1, 1);
+    }
+
+    //Creates and returns a Matrix with the same elements.
+    public Matrix toMatrix() {
+        return new Matrix(new double[][]{{m00, m01}, {m10, m11}});
+    }
+
+    //Returns the element at the given row and column.
+    public double getElement(int row, int column) {
+        if (row < 0 || row >= 2 || column < 0 || column >= 2)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+
+        switch (row * 2 + column) {
+            case 0:
+                return m00;
+            case 1:
+                return m01;
+            case 2:
+                return m10;
+            default: //3, the location was checked above.
+                return m11;
+        }
+    }
+
+    //Returns the given row as a vector.
+    public Vector2 getRow(int row) {
+        switch (row) {
+            case 0:
+                return new Vector2(m00, m01);
+            case 1:
+                return new Vector2(m10, m11);
+            default:
+                throw new IndexOutOfBoundsException("Row " + row + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the given column as a vector.
+    public Vector2 getColumn(int column) {
+        switch (column) {
+            case 0:
+                return new Vector2(m00, m10);
+            case 1:
+                return new Vector2(m01, m11);
+            default:
+                throw new IndexOutOfBoundsException("Column " + column + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the transpose of the matrix.
+    public Matrix2 getTranspose() {
+        return new Matrix2(m00, m10, m01, m11);
+    }
+
+    //Returns the determinant of the matrix.
+    public double determinant() {
+        return m00 * m11 - m01 * m10;
+    }
+
+    //Returns the inverse of the matrix: the adjugate divided by the determinant. Throws a RuntimeException if the determinant is 0.
+    public Matrix2 getInverse() {
+        double determinant = determinant();
+        if (determinant == 0)
+            throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+
+        double inverseDeterminant = 1 / determinant;
+        return new Matrix2(m11 * inverseDeterminant, -m01 * inverseDeterminant, -m10 * inverseDeterminant, m00 * inverseDeterminant);
+    }
+
+    //Returns the sum of the two matrices.
+    public static Matrix2 addition(Matrix2 m1, Matrix2 m2) {
+        return new Matrix2(m1.m00 + m2.m00, m1.m01 + m2.m01, m1.m10 + m2.m10, m1.m11 + m2.m11);
+    }
+
+    //Returns the difference of the two matrices, m1 - m2.
+    public static Matrix2 subtraction(Matrix2 m1, Matrix2 m2) {
+        return new Matrix2(m1.m00 - m2.m00, m1.m01 - m2.m01, m1.m10 - m2.m10, m1.m11 - m2.m11);
+    }
+
+    //Returns the matrix multiplied by a scalar number.
+    public static Matrix2 multiplication(Matrix2 matrix, double scalar) {
+        return new Matrix2(matrix.m00 * scalar, matrix.m01 * scalar, matrix.m10 * scalar, matrix.m11 * scalar);
+    }
+
+    //Returns the product of the two matrices, m1 * m2.
+    public static Matrix2 multiplication(Matrix2 m1, Matrix2 m2) {
+        return new Matrix2(
+                m1.m00 * m2.m00 + m1.m01 * m2.m10,
+                m1.m00 * m2.m01 + m1.m01 * m2.m11,
+                m1.m10 * m2.m00 + m1.m11 * m2.m10,
+                m1.m10 * m2.m01 + m1.m11 * m2.m11);
+    }
+
+    //Returns the product of the matrix and the vector. The vector is treated as a column vector.
+    public static Vector2 multiplication(Matrix2 matrix, Vector2 vector) {
+        return new Vector2(
+                matrix.m00 * vector.getX() + matrix.m01 * vector.getY(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY());
+    }
+
+    //Returns the elements in the form of "|a, b...|" lines, like Matrix.toString.
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append('|').append(m00).append(", ").append(m01).append("|\n");
+        text.append('|').append(m10).append(", ").append(m11).append("|\n");
+        return text.toString();
+    }
+}
\ No newline at end of file
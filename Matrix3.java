@@ -0,0 +1,173 @@
+//An immutable 3x3 matrix which keeps its elements in fields instead of an array.
+//It is a fast path for small matrices: the multiplication, the determinant and the inverse are written out without loops, so they need no LU decomposition and allocate only the result.
+//Operations return new matrices. Use toMatrix and the Matrix3(Matrix) constructor to convert to and from Matrix. For many matrices at once see Matrix3Batch.
+public final class Matrix3 {
+
+    public static final Matrix3 IDENTITY = new Matrix3(1, 0, 0, 0, 1, 0, 0, 0, 1);
+
+    //Package-private, so that Matrix3Batch reads them directly.
+    final double m00, m01, m02;
+    final double m10, m11, m12;
+    final double m20, m21, m22;
+
+    //Creates a matrix from its elements, given row by row.
+    public Matrix3(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+    }
+
+    //Copies the elements of a 3x3 matrix.
+    public Matrix3(Matrix matrix) {
+        if (matrix.getRowCount() != 3 || matrix.getColumnCount() != 3)
+            throw new IllegalArgumentException("Matrix must be 3x3.");
+
+        m00 = matrix.getElement(0, 0);
+        m01 = matrix.getElement(0, 1);
+        m02 = matrix.getElement(0, 2);
+        m10 = matrix.getElement(1, 0);
+        m11 = matrix.getElement(1, 1);
+        m12 = matrix.getElement(1, 2);
+        m20 = matrix.getElement(2, 0);
+        m21 = matrix.getElement(2, 1);
+        m22 = matrix.getElement(2, 2);
+    }
+
+    //Creates and returns a Matrix with the same elements.
+    public Matrix toMatrix() {
+        return new Matrix(new double[][]{{m00, m01, m02}, {m10, m11, m12}, {m20, m21, m22}});
+    }
+
+    //Returns the element at the given row and column.
+    public double getElement(int row, int column) {
+        if (row < 0 || row >= 3 || column < 0 || column >= 3)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+
+        switch (row * 3 + column) {
+            case 0:
+                return m00;
+            case 1:
+                return m01;
+            case 2:
+                return m02;
+            case 3:
+                return m10;
+            case 4:
+                return m11;
+            case 5:
+                return m12;
+            case 6:
+                return m20;
+            case 7:
+                return m21;
+            default: //8, the location was checked above.
+                return m22;
+        }
+    }
+
+    //Returns the given row as a vector.
+    public Vector3 getRow(int row) {
+        switch (row) {
+            case 0:
+                return new Vector3(m00, m01, m02);
+            case 1:
+                return new Vector3(m10, m11, m12);
+            case 2:
+                return new Vector3(m20, m21, m22);
+            default:
+                throw new IndexOutOfBoundsException("Row " + row + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the given column as a vector.
+    public Vector3 getColumn(int column) {
+        switch (column) {
+            case 0:
+                return new Vector3(m00, m10, m20);
+            case 1:
+                return new Vector3(m01, m11, m21);
+            case 2:
+                return new Vector3(m02, m12, m22);
+            default:
+                throw new IndexOutOfBoundsException("Column " + column + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the transpose of the matrix.
+    public Matrix3 getTranspose() {
+        return new Matrix3(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+    }
+
+    //Returns the determinant of the matrix, expanded along the first row.
+    public double determinant() {
+        return m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20);
+    }
+
+    //Returns the inverse of the matrix: the adjugate (the transposed cofactors) divided by the determinant. Throws a RuntimeException if the determinant is 0.
+    public Matrix3 getInverse() {
+        double c00 = m11 * m22 - m12 * m21;
+        double c01 = m12 * m20 - m10 * m22;
+        double c02 = m10 * m21 - m11 * m20;
+        double determinant = m00 * c00 + m01 * c01 + m02 * c02; //The cofactors of the first row are reused for the determinant.
+        if (determinant == 0)
+            throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+
+        double d = 1 / determinant;
+        return new Matrix3(
+                c00 * d, (m02 * m21 - m01 * m22) * d, (m01 * m12 - m02 * m11) * d,
+                c01 * d, (m00 * m22 - m02 * m20) * d, (m02 * m10 - m00 * m12) * d,
+                c02 * d, (m01 * m20 - m00 * m21) * d, (m00 * m11 - m01 * m10) * d);
+    }
+
+    //Returns the sum of the two matrices.
+    public static Matrix3 addition(Matrix3 m1, Matrix3 m2) {
+        return new Matrix3(m1.m00 + m2.m00, m1.m01 + m2.m01, m1.m02 + m2.m02, m1.m10 + m2.m10, m1.m11 + m2.m11, m1.m12 + m2.m12, m1.m20 + m2.m20, m1.m21 + m2.m21, m1.m22 + m2.m22);
+    }
+
+    //Returns the difference of the two matrices, m1 - m2.
+    public static Matrix3 subtraction(Matrix3 m1, Matrix3 m2) {
+        return new Matrix3(m1.m00 - m2.m00, m1.m01 - m2.m01, m1.m02 - m2.m02, m1.m10 - m2.m10, m1.m11 - m2.m11, m1.m12 - m2.m12, m1.m20 - m2.m20, m1.m21 - m2.m21, m1.m22 - m2.m22);
+    }
+
+    //Returns the matrix multiplied by a scalar number.
+    public static Matrix3 multiplication(Matrix3 matrix, double scalar) {
+        return new Matrix3(matrix.m00 * scalar, matrix.m01 * scalar, matrix.m02 * scalar, matrix.m10 * scalar, matrix.m11 * scalar, matrix.m12 * scalar, matrix.m20 * scalar, matrix.m21 * scalar, matrix.m22 * scalar);
+    }
+
+    //Returns the product of the two matrices, m1 * m2.
+    public static Matrix3 multiplication(Matrix3 m1, Matrix3 m2) {
+        return new Matrix3(
+                m1.m00 * m2.m00 + m1.m01 * m2.m10 + m1.m02 * m2.m20,
+                m1.m00 * m2.m01 + m1.m01 * m2.m11 + m1.m02 * m2.m21,
+                m1.m00 * m2.m02 + m1.m01 * m2.m12 + m1.m02 * m2.m22,
+                m1.m10 * m2.m00 + m1.m11 * m2.m10 + m1.m12 * m2.m20,
+                m1.m10 * m2.m01 + m1.m11 * m2.m11 + m1.m12 * m2.m21,
+                m1.m10 * m2.m02 + m1.m11 * m2.m12 + m1.m12 * m2.m22,
+                m1.m20 * m2.m00 + m1.m21 * m2.m10 + m1.m22 * m2.m20,
+                m1.m20 * m2.m01 + m1.m21 * m2.m11 + m1.m22 * m2.m21,
+                m1.m20 * m2.m02 + m1.m21 * m2.m12 + m1.m22 * m2.m22);
+    }
+
+    //Returns the product of the matrix and the vector. The vector is treated as a column vector.
+    public static Vector3 multiplication(Matrix3 matrix, Vector3 vector) {
+        return new Vector3(
+                matrix.m00 * vector.getX() + matrix.m01 * vector.getY() + matrix.m02 * vector.getZ(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY() + matrix.m12 * vector.getZ(),
+                matrix.m20 * vector.getX() + matrix.m21 * vector.getY() + matrix.m22 * vector.getZ());
+    }
+
+    //Returns the elements in the form of "|a, b...|" lines, like Matrix.toString.
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append('|').append(m00).append(", ").append(m01).append(", ").append(m02).append("|\n");
+        text.append('|').append(m10).append(", ").append(m11).append(", ").append(m12).append("|\n");
+        text.append('|').append(m20).append(", ").append(m21).append(", ").append(m22).append("|\n");
+        return text.toString();
+    }
+}
\ No newline at end of file
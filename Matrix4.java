@@ -0,0 +1,278 @@
+//An immutable 4x4 matrix which keeps its elements in fields instead of an array.
+//It is a fast path for small matrices: the multiplication, the determinant and the inverse are written out without loops, so they need no LU decomposition and allocate only the result.
+//Operations return new matrices. Use toMatrix and the Matrix4(Matrix) constructor to convert to and from Matrix. For many matrices at once see Matrix4Batch.
+public final class Matrix4 {
+
+    public static final Matrix4 IDENTITY = new Matrix4(1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1);
+
+    //Package-private, so that Matrix4Batch reads them directly.
+    final double m00, m01, m02, m03;
+    final double m10, m11, m12, m13;
+    final double m20, m21, m22, m23;
+    final double m30, m31, m32, m33;
+
+    //Creates a matrix from its elements, given row by row.
+    public Matrix4(double m00, double m01, double m02, double m03, double m10, double m11, double m12, double m13, double m20, double m21, double m22, double m23, double m30, double m31, double m32, double m33) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m03 = m03;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m30 = m30;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+    }
+
+    //Copies the elements of a 4x4 matrix.
+    public Matrix4(Matrix matrix) {
+        if (matrix.getRowCount() != 4 || matrix.getColumnCount() != 4)
+            throw new IllegalArgumentException("Matrix must be 4x4.");
+
+        m00 = matrix.getElement(0, 0);
+        m01 = matrix.getElement(0, 1);
+        m02 = matrix.getElement(0, 2);
+        m03 = matrix.getElement(0, 3);
+        m10 = matrix.getElement(1, 0);
+        m11 = matrix.getElement(1, 1);
+        m12 = matrix.getElement(1, 2);
+        m13 = matrix.getElement(1, 3);
+        m20 = matrix.getElement(2, 0);
+        m21 = matrix.getElement(2, 1);
+        m22 = matrix.getElement(2, 2);
+        m23 = matrix.getElement(2, 3);
+        m30 = matrix.getElement(3, 0);
+        m31 = matrix.getElement(3, 1);
+        m32 = matrix.getElement(3, 2);
+        m33 = matrix.getElement(3, 3);
+    }
+
+    //Creates and returns a Matrix with the same elements.
+    public Matrix toMatrix() {
+        return new Matrix(new double[][]{{m00, m01, m02, m03}, {m10, m11, m12, m13}, {m20, m21, m22, m23}, {m30, m31, m32, m33}});
+    }
+
+    //Returns the element at the given row and column.
+    public double getElement(int row, int column) {
+        if (row < 0 || row >= 4 || column < 0 || column >= 4)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+
+        switch (row * 4 + column) {
+            case 0:
+                return m00;
+            case 1:
+                return m01;
+            case 2:
+                return m02;
+            case 3:
+                return m03;
+            case 4:
+                return m10;
+            case 5:
+                return m11;
+            case 6:
+                return m12;
+            case 7:
+                return m13;
+            case 8:
+                return m20;
+            case 9:
+                return m21;
+            case 10:
+                return m22;
+            case 11:
+                return m23;
+            case 12:
+                return m30;
+            case 13:
+                return m31;
+            case 14:
+                return m32;
+            default: //15, the location was checked above.
+                return m33;
+        }
+    }
+
+    //Returns the given row as a vector.
+    public Vector4 getRow(int row) {
+        switch (row) {
+            case 0:
+                return new Vector4(m00, m01, m02, m03);
+            case 1:
+                return new Vector4(m10, m11, m12, m13);
+            case 2:
+                return new Vector4(m20, m21, m22, m23);
+            case 3:
+                return new Vector4(m30, m31, m32, m33);
+            default:
+                throw new IndexOutOfBoundsException("Row " + row + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the given column as a vector.
+    public Vector4 getColumn(int column) {
+        switch (column) {
+            case 0:
+                return new Vector4(m00, m10, m20, m30);
+            case 1:
+                return new Vector4(m01, m11, m21, m31);
+            case 2:
+                return new Vector4(m02, m12, m22, m32);
+            case 3:
+                return new Vector4(m03, m13, m23, m33);
+            default:
+                throw new IndexOutOfBoundsException("Column " + column + " does not exist in this matrix.");
+        }
+    }
+
+    //Returns the transpose of the matrix.
+    public Matrix4 getTranspose() {
+        return new Matrix4(m00, m10, m20, m30, m01, m11, m21, m31, m02, m12, m22, m32, m03, m13, m23, m33);
+    }
+
+    //Returns the determinant of the matrix. It is computed from the 2x2 determinants of the upper two rows (s) and the lower two rows (c) with the Laplace expansion.
+    public double determinant() {
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    //Returns the inverse of the matrix: the adjugate divided by the determinant. The cofactors are computed from the same 2x2 determinants as the determinant.
+    //Throws a RuntimeException if the determinant is 0.
+    public Matrix4 getInverse() {
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+
+        double determinant = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (determinant == 0)
+            throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+
+        double d = 1 / determinant;
+        return new Matrix4(
+                (m11 * c5 - m12 * c4 + m13 * c3) * d,
+                (-m01 * c5 + m02 * c4 - m03 * c3) * d,
+                (m31 * s5 - m32 * s4 + m33 * s3) * d,
+                (-m21 * s5 + m22 * s4 - m23 * s3) * d,
+
+                (-m10 * c5 + m12 * c2 - m13 * c1) * d,
+                (m00 * c5 - m02 * c2 + m03 * c1) * d,
+                (-m30 * s5 + m32 * s2 - m33 * s1) * d,
+                (m20 * s5 - m22 * s2 + m23 * s1) * d,
+
+                (m10 * c4 - m11 * c2 + m13 * c0) * d,
+                (-m00 * c4 + m01 * c2 - m03 * c0) * d,
+                (m30 * s4 - m31 * s2 + m33 * s0) * d,
+                (-m20 * s4 + m21 * s2 - m23 * s0) * d,
+
+                (-m10 * c3 + m11 * c1 - m12 * c0) * d,
+                (m00 * c3 - m01 * c1 + m02 * c0) * d,
+                (-m30 * s3 + m31 * s1 - m32 * s0) * d,
+                (m20 * s3 - m21 * s1 + m22 * s0) * d);
+    }
+
+    //Returns the sum of the two matrices.
+    public static Matrix4 addition(Matrix4 m1, Matrix4 m2) {
+        return new Matrix4(m1.m00 + m2.m00, m1.m01 + m2.m01, m1.m02 + m2.m02, m1.m03 + m2.m03, m1.m10 + m2.m10, m1.m11 + m2.m11, m1.m12 + m2.m12, m1.m13 + m2.m13, m1.m20 + m2.m20, m1.m21 + m2.m21, m1.m22 + m2.m22, m1.m23 + m2.m23, m1.m30 + m2.m30, m1.m31 + m2.m31, m1.m32 + m2.m32, m1.m33 + m2.m33);
+    }
+
+    //Returns the difference of the two matrices, m1 - m2.
+    public static Matrix4 subtraction(Matrix4 m1, Matrix4 m2) {
+        return new Matrix4(m1.m00 - m2.m00, m1.m01 - m2.m01, m1.m02 - m2.m02, m1.m03 - m2.m03, m1.m10 - m2.m10, m1.m11 - m2.m11, m1.m12 - m2.m12, m1.m13 - m2.m13, m1.m20 - m2.m20, m1.m21 - m2.m21, m1.m22 - m2.m22, m1.m23 - m2.m23, m1.m30 - m2.m30, m1.m31 - m2.m31, m1.m32 - m2.m32, m1.m33 - m2.m33);
+    }
+
+    //Returns the matrix multiplied by a scalar number.
+    public static Matrix4 multiplication(Matrix4 matrix, double scalar) {
+        return new Matrix4(matrix.m00 * scalar, matrix.m01 * scalar, matrix.m02 * scalar, matrix.m03 * scalar, matrix.m10 * scalar, matrix.m11 * scalar, matrix.m12 * scalar, matrix.m13 * scalar, matrix.m20 * scalar, matrix.m21 * scalar, matrix.m22 * scalar, matrix.m23 * scalar, matrix.m30 * scalar, matrix.m31 * scalar, matrix.m32 * scalar, matrix.m33 * scalar);
+    }
+
+    //Returns the product of the two matrices, m1 * m2.
+    public static Matrix4 multiplication(Matrix4 m1, Matrix4 m2) {
+        return new Matrix4(
+                m1.m00 * m2.m00 + m1.m01 * m2.m10 + m1.m02 * m2.m20 + m1.m03 * m2.m30,
+                m1.m00 * m2.m01 + m1.m01 * m2.m11 + m1.m02 * m2.m21 + m1.m03 * m2.m31,
+                m1.m00 * m2.m02 + m1.m01 * m2.m12 + m1.m02 * m2.m22 + m1.m03 * m2.m32,
+                m1.m00 * m2.m03 + m1.m01 * m2.m13 + m1.m02 * m2.m23 + m1.m03 * m2.m33,
+                m1.m10 * m2.m00 + m1.m11 * m2.m10 + m1.m12 * m2.m20 + m1.m13 * m2.m30,
+                m1.m10 * m2.m01 + m1.m11 * m2.m11 + m1.m12 * m2.m21 + m1.m13 * m2.m31,
+                m1.m10 * m2.m02 + m1.m11 * m2.m12 + m1.m12 * m2.m22 + m1.m13 * m2.m32,
+                m1.m10 * m2.m03 + m1.m11 * m2.m13 + m1.m12 * m2.m23 + m1.m13 * m2.m33,
+                m1.m20 * m2.m00 + m1.m21 * m2.m10 + m1.m22 * m2.m20 + m1.m23 * m2.m30,
+                m1.m20 * m2.m01 + m1.m21 * m2.m11 + m1.m22 * m2.m21 + m1.m23 * m2.m31,
+                m1.m20 * m2.m02 + m1.m21 * m2.m12 + m1.m22 * m2.m22 + m1.m23 * m2.m32,
+                m1.m20 * m2.m03 + m1.m21 * m2.m13 + m1.m22 * m2.m23 + m1.m23 * m2.m33,
+                m1.m30 * m2.m00 + m1.m31 * m2.m10 + m1.m32 * m2.m20 + m1.m33 * m2.m30,
+                m1.m30 * m2.m01 + m1.m31 * m2.m11 + m1.m32 * m2.m21 + m1.m33 * m2.m31,
+                m1.m30 * m2.m02 + m1.m31 * m2.m12 + m1.m32 * m2.m22 + m1.m33 * m2.m32,
+                m1.m30 * m2.m03 + m1.m31 * m2.m13 + m1.m32 * m2.m23 + m1.m33 * m2.m33);
+    }
+
+    //Returns the product of the matrix and the vector. The vector is treated as a column vector.
+    public static Vector4 multiplication(Matrix4 matrix, Vector4 vector) {
+        return new Vector4(
+                matrix.m00 * vector.getX() + matrix.m01 * vector.getY() + matrix.m02 * vector.getZ() + matrix.m03 * vector.getW(),
+                matrix.m10 * vector.getX() + matrix.m11 * vector.getY() + matrix.m12 * vector.getZ() + matrix.m13 * vector.getW(),
+                matrix.m20 * vector.getX() + matrix.m21 * vector.getY() + matrix.m22 * vector.getZ() + matrix.m23 * vector.getW(),
+                matrix.m30 * vector.getX() + matrix.m31 * vector.getY() + matrix.m32 * vector.getZ() + matrix.m33 * vector.getW());
+    }
+
+    //Transforms a point with the matrix in homogeneous coordinates: the point is extended to (x, y, z, 1), multiplied and divided by the resulting w.
+    //For affine transforms (last row 0, 0, 0, 1) w is 1 and the division does not change the result.
+    public static Vector3 transformPoint(Matrix4 matrix, Vector3 point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        double w = matrix.m30 * x + matrix.m31 * y + matrix.m32 * z + matrix.m33;
+        double inverseW = w == 1 ? 1 : 1 / w;
+        return new Vector3(
+                (matrix.m00 * x + matrix.m01 * y + matrix.m02 * z + matrix.m03) * inverseW,
+                (matrix.m10 * x + matrix.m11 * y + matrix.m12 * z + matrix.m13) * inverseW,
+                (matrix.m20 * x + matrix.m21 * y + matrix.m22 * z + matrix.m23) * inverseW);
+    }
+
+    //Transforms a direction with the matrix: the vector is extended to (x, y, z, 0), so the translation does not apply.
+    public static Vector3 transformDirection(Matrix4 matrix, Vector3 direction) {
+        double x = direction.getX(), y = direction.getY(), z = direction.getZ();
+        return new Vector3(
+                matrix.m00 * x + matrix.m01 * y + matrix.m02 * z,
+                matrix.m10 * x + matrix.m11 * y + matrix.m12 * z,
+                matrix.m20 * x + matrix.m21 * y + matrix.m22 * z);
+    }
+
+    //Returns the elements in the form of "|a, b...|" lines, like Matrix.toString.
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append('|').append(m00).append(", ").append(m01).append(", ").append(m02).append(", ").append(m03).append("|\n");
+        text.append('|').append(m10).append(", ").append(m11).append(", ").append(m12).append(", ").append(m13).append("|\n");
+        text.append('|').append(m20).append(", ").append(m21).append(", ").append(m22).append(", ").append(m23).append("|\n");
+        text.append('|').append(m30).append(", ").append(m31).append(", ").append(m32).append(", ").append(m33).append("|\n");
+        return text.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,345 @@
+import java.util.ArrayList;
+import java.util.List;
+
+//A lazily evaluated matrix expression. Sums, differences, multiplications by scalars, products and transposes only build a tree, nothing is computed
+//until evaluate or evaluateInto is called. The leaves refer to the matrices themselves, not to copies, so changes made to them before the evaluation are seen by it.
+//E.g. MatrixExpression.of(a).multiply(b).multiplyByAScalar(2).add(MatrixExpression.of(c).transpose()).evaluateInto(d) computes d = 2 * a * b + c^T.
+//
+//At evaluation the tree is flattened into a sum of terms, each a scalar times a matrix or a scalar times a product of two matrices:
+//  - Scalars are moved into the coefficients of the terms. Scaled operands of products are never computed, the product kernel applies the scalar.
+//  - Transposes are pushed down to the leaves, where they become transpose views ((a * b)^T = b^T * a^T). No transpose is ever copied,
+//    the multiplication kernel reads transpose views as fast as ordinary matrices.
+//  - The element-wise terms are combined into the destination row by row in a single pass, then the products are accumulated into it like gemm does.
+//Only operands of products which are themselves sums or products (e.g. (a + b) * c or a * b * c) are evaluated into temporary matrices.
+//The destination may appear in the expression (e.g. d = a * b + 0.5 * d). Operands which share its elements in a different way are copied first.
+public abstract class MatrixExpression {
+
+    private final int rowCount;
+    private final int columnCount;
+
+    MatrixExpression(int rowCount, int columnCount) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+    }
+
+    //Creates an expression which consists of the given matrix.
+    public static MatrixExpression of(Matrix matrix) {
+        return new Leaf(matrix);
+    }
+
+    //Returns the row count of the result.
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    //Returns the column count of the result.
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Returns the expression this + other. Throws an IllegalArgumentException when the dimensions are not equal.
+    public MatrixExpression add(MatrixExpression other) {
+        return new Sum(this, other, 1);
+    }
+
+    public MatrixExpression add(Matrix other) {
+        return add(of(other));
+    }
+
+    //Returns the expression this - other. Throws an IllegalArgumentException when the dimensions are not equal.
+    public MatrixExpression subtract(MatrixExpression other) {
+        return new Sum(this, other, -1);
+    }
+
+    public MatrixExpression subtract(Matrix other) {
+        return subtract(of(other));
+    }
+
+    //Returns the expression this * other. Throws an IllegalArgumentException when the column count of this is not equal to the row count of other.
+    //Unlike Matrix.multiplication, the operands are never swapped.
+    public MatrixExpression multiply(MatrixExpression other) {
+        return new Product(this, other);
+    }
+
+    public MatrixExpression multiply(Matrix other) {
+        return multiply(of(other));
+    }
+
+    //Returns the expression scalar * this.
+    public MatrixExpression multiplyByAScalar(double scalar) {
+        return new Scale(this, scalar);
+    }
+
+    //Returns the expression this^T.
+    public MatrixExpression transpose() {
+        return new Transpose(this);
+    }
+
+    //Evaluates the expression into a new matrix and returns it.
+    public Matrix evaluate() {
+        Matrix result = new Matrix(rowCount, columnCount);
+        evaluateInto(result);
+        return result;
+    }
+
+    //Evaluates the expression into the given matrix, which may be a view. Its previous elements are overwritten, unless the expression itself refers to them.
+    //Products are computed with the default parallelism and executor of Matrix (see Matrix.setParallelism and Matrix.setExecutor).
+    //Throws an IllegalArgumentException when the dimension of the destination does not match the expression.
+    public void evaluateInto(Matrix destination) {
+        if (destination.getRowCount() != rowCount || destination.getColumnCount() != columnCount)
+            throw new IllegalArgumentException("Dimension of the destination matrix does not match the dimension of the expression.");
+        destination.modified();
+
+        List<Term> terms = new ArrayList<>();
+        collect(this, 1, false, terms);
+        evaluateTerms(terms, destination);
+    }
+
+    //Flattens the expression, transposed if needed and multiplied by the coefficient, into terms.
+    private static void collect(MatrixExpression expression, double coefficient, boolean transposed, List<Term> terms) {
+        if (expression instanceof Leaf) {
+            Matrix matrix = ((Leaf) expression).matrix;
+            terms.add(new Term(coefficient, transposed ? matrix.getTransposeView() : matrix, null));
+        }
+        else if (expression instanceof Scale) {
+            Scale scale = (Scale) expression;
+            collect(scale.operand, coefficient * scale.scalar, transposed, terms);
+        }
+        else if (expression instanceof Transpose) {
+            collect(((Transpose) expression).operand, coefficient, !transposed, terms);
+        }
+        else if (expression instanceof Sum) {
+            Sum sum = (Sum) expression;
+            collect(sum.left, coefficient, transposed, terms);
+            collect(sum.right, coefficient * sum.sign, transposed, terms);
+        }
+        else {
+            Product product = (Product) expression;
+            //(left * right)^T = right^T * left^T
+            MatrixExpression first = transposed ? product.right : product.left;
+            MatrixExpression second = transposed ? product.left : product.right;
+            terms.add(new Term(coefficient * scalarOf(first) * scalarOf(second), operand(first, transposed), operand(second, transposed)));
+        }
+    }
+
+    //Returns the product of the scalars on top of the expression, which are moved into the coefficient of the product.
+    private static double scalarOf(MatrixExpression expression) {
+        double scalar = 1;
+        while (true) {
+            if (expression instanceof Scale) {
+                scalar *= ((Scale) expression).scalar;
+                expression = ((Scale) expression).operand;
+            }
+            else if (expression instanceof Transpose) {
+                expression = ((Transpose) expression).operand;
+            }
+            else {
+                return scalar;
+            }
+        }
+    }
+
+    //Returns a matrix for an operand of a product, without the scalars on top of it (see scalarOf). Leaves are returned as they are or as transpose views,
+    //other expressions are evaluated into a new matrix.
+    private static Matrix operand(MatrixExpression expression, boolean transposed) {
+        while (true) {
+            if (expression instanceof Scale) {
+                expression = ((Scale) expression).operand;
+            }
+            else if (expression instanceof Transpose) {
+                expression = ((Transpose) expression).operand;
+                transposed = !transposed;
+            }
+            else {
+                break;
+            }
+        }
+
+        if (expression instanceof Leaf) {
+            Matrix matrix = ((Leaf) expression).matrix;
+            return transposed ? matrix.getTransposeView() : matrix;
+        }
+
+        Matrix result = transposed ? new Matrix(expression.columnCount, expression.rowCount) : new Matrix(expression.rowCount, expression.columnCount);
+        List<Term> terms = new ArrayList<>();
+        collect(expression, 1, transposed, terms);
+        evaluateTerms(terms, result);
+        return result;
+    }
+
+    private static void evaluateTerms(List<Term> terms, Matrix destination) {
+        //Operands which share the elements of the destination are copied before anything is written, except the destination itself in the element-wise terms.
+        //Its coefficients are summed up, the destination is scaled by them in place.
+        double selfCoefficient = 0;
+        boolean hasSelf = false;
+        List<Term> elementTerms = new ArrayList<>();
+        List<Term> productTerms = new ArrayList<>();
+        for (Term term : terms) {
+            if (term.second == null) {
+                if (isSame(term.first, destination)) {
+                    selfCoefficient += term.coefficient;
+                    hasSelf = true;
+                }
+                else {
+                    elementTerms.add(new Term(term.coefficient, separate(term.first, destination), null));
+                }
+            }
+            else {
+                productTerms.add(new Term(term.coefficient, separate(term.first, destination), separate(term.second, destination)));
+            }
+        }
+
+        //The element-wise terms are combined row by row. A row of the destination is written once by the first term and updated in the cache by the others.
+        double[] data = destination.getData();
+        int columns = destination.getColumnCount();
+        int columnStride = destination.getColumnStride();
+        for (int i = 0; i < destination.getRowCount(); i++) {
+            int index = destination.index(i, 0);
+            int start = 0;
+            if (hasSelf) {
+                if (selfCoefficient == 0)
+                    fillRow(data, index, columnStride, columns);
+                else if (selfCoefficient != 1)
+                    scaleRow(data, index, columnStride, columns, selfCoefficient);
+            }
+            else if (elementTerms.isEmpty()) {
+                fillRow(data, index, columnStride, columns);
+            }
+            else {
+                Term first = elementTerms.get(0);
+                copyScaledRow(first.first, i, data, index, columnStride, columns, first.coefficient);
+                start = 1;
+            }
+            for (int t = start; t < elementTerms.size(); t++) {
+                Term term = elementTerms.get(t);
+                addScaledRow(term.first, i, data, index, columnStride, columns, term.coefficient);
+            }
+        }
+
+        for (Term term : productTerms) {
+            if (term.coefficient != 0)
+                MultiplicationKernel.multiplyParallel(term.coefficient, term.first, term.second, destination, Matrix.getExecutor(), Matrix.getParallelism());
+        }
+    }
+
+    //Checks whether the two matrices are the same elements in the same layout.
+    private static boolean isSame(Matrix matrix, Matrix destination) {
+        return matrix.getData() == destination.getData() && matrix.getOffset() == destination.getOffset()
+                && matrix.getRowStride() == destination.getRowStride() && matrix.getColumnStride() == destination.getColumnStride();
+    }
+
+    //Returns the matrix, or a copy of it if it shares its elements with the destination.
+    private static Matrix separate(Matrix matrix, Matrix destination) {
+        return matrix.getData() == destination.getData() ? new Matrix(matrix) : matrix;
+    }
+
+    private static void fillRow(double[] data, int index, int stride, int length) {
+        for (int j = 0; j < length; j++) {
+            data[index + j * stride] = 0;
+        }
+    }
+
+    private static void scaleRow(double[] data, int index, int stride, int length, double scalar) {
+        if (stride == 1) {
+            VectorKernels.INSTANCE.scale(data, index, length, scalar);
+            return;
+        }
+        for (int j = 0; j < length; j++) {
+            data[index + j * stride] *= scalar;
+        }
+    }
+
+    //Sets the row of the destination to the coefficient times the given row of the matrix.
+    private static void copyScaledRow(Matrix matrix, int row, double[] data, int index, int stride, int length, double coefficient) {
+        double[] source = matrix.getData();
+        int sourceIndex = matrix.index(row, 0);
+        int sourceStride = matrix.getColumnStride();
+        for (int j = 0; j < length; j++) {
+            data[index + j * stride] = coefficient * source[sourceIndex + j * sourceStride];
+        }
+    }
+
+    //Adds the coefficient times the given row of the matrix to the row of the destination.
+    private static void addScaledRow(Matrix matrix, int row, double[] data, int index, int stride, int length, double coefficient) {
+        double[] source = matrix.getData();
+        int sourceIndex = matrix.index(row, 0);
+        int sourceStride = matrix.getColumnStride();
+        if (stride == 1 && sourceStride == 1) {
+            VectorKernels.INSTANCE.addScaled(data, index, source, sourceIndex, length, coefficient);
+            return;
+        }
+        for (int j = 0; j < length; j++) {
+            data[index + j * stride] += coefficient * source[sourceIndex + j * sourceStride];
+        }
+    }
+
+    //coefficient * first, or coefficient * first * second if second is not null.
+    private static final class Term {
+        final double coefficient;
+        final Matrix first;
+        final Matrix second;
+
+        Term(double coefficient, Matrix first, Matrix second) {
+            this.coefficient = coefficient;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    private static final class Leaf extends MatrixExpression {
+        final Matrix matrix;
+
+        Leaf(Matrix matrix) {
+            super(matrix.getRowCount(), matrix.getColumnCount());
+            this.matrix = matrix;
+        }
+    }
+
+    private static final class Sum extends MatrixExpression {
+        final MatrixExpression left;
+        final MatrixExpression right;
+        final int sign; //1 for a sum, -1 for a difference.
+
+        Sum(MatrixExpression left, MatrixExpression right, int sign) {
+            super(left.getRowCount(), left.getColumnCount());
+            if (left.getRowCount() != right.getRowCount() || left.getColumnCount() != right.getColumnCount())
+                throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+            this.left = left;
+            this.right = right;
+            this.sign = sign;
+        }
+    }
+
+    private static final class Scale extends MatrixExpression {
+        final MatrixExpression operand;
+        final double scalar;
+
+        Scale(MatrixExpression operand, double scalar) {
+            super(operand.getRowCount(), operand.getColumnCount());
+            this.operand = operand;
+            this.scalar = scalar;
+        }
+    }
+
+    private static final class Product extends MatrixExpression {
+        final MatrixExpression left;
+        final MatrixExpression right;
+
+        Product(MatrixExpression left, MatrixExpression right) {
+            super(left.getRowCount(), right.getColumnCount());
+            if (left.getColumnCount() != right.getRowCount())
+                throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private static final class Transpose extends MatrixExpression {
+        final MatrixExpression operand;
+
+        Transpose(MatrixExpression operand) {
+            super(operand.getColumnCount(), operand.getRowCount());
+            this.operand = operand;
+        }
+    }
+}
\ No newline at end of file
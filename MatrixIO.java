@@ -0,0 +1,419 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//Reading and writing matrices and vectors, in a binary format through NIO channels and as comma-separated text through Appendables and Readers.
+//
+//The binary format starts with a 16-byte header of little-endian ints: the magic number "SLAM", the version (1), the row count and the column count.
+//The elements follow as little-endian doubles in row-major order. Vectors are written as matrices with a single column.
+//Matrices are transferred through a small direct buffer in bulk. The chunks of an OffHeapMatrix are written to and read from the channel directly,
+//so its elements never pass through the heap.
+//
+//The text format has a line per row with the elements separated by commas. The reader also accepts whitespace as a separator and skips empty lines,
+//but rejects empty fields between commas and at the ends of a line.
+//Both directions work as streams: the writer appends element by element and the reader reads characters in blocks, so no string of the whole matrix is ever built.
+public final class MatrixIO {
+
+    static final int MAGIC = 'S' | 'L' << 8 | 'A' << 16 | 'M' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    //Size of the buffer used to transfer the elements of heap matrices.
+    private static final int TRANSFER_BYTES = 1 << 16;
+
+    private MatrixIO() {
+    }
+
+    //Writes the matrix to the channel in the binary format.
+    public static void write(Matrix matrix, WritableByteChannel channel) throws IOException {
+        writeHeader(channel, matrix.getRowCount(), matrix.getColumnCount());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        double[] data = matrix.getData();
+        int columnStride = matrix.getColumnStride();
+
+        for (int i = 0; i < matrix.getRowCount(); i++) {
+            int index = matrix.index(i, 0);
+            int remaining = matrix.getColumnCount();
+            while (remaining > 0) {
+                int length = Math.min(remaining, doubles.remaining());
+                if (columnStride == 1) {
+                    doubles.put(data, index, length);
+                }
+                else {
+                    for (int j = 0; j < length; j++) {
+                        doubles.put(data[index + j * columnStride]);
+                    }
+                }
+                index += length * columnStride;
+                remaining -= length;
+                if (!doubles.hasRemaining())
+                    flush(buffer, doubles, channel);
+            }
+        }
+        flush(buffer, doubles, channel);
+    }
+
+    //Writes the vector to the channel in the binary format, as a matrix with a single column.
+    public static void write(Vector vector, WritableByteChannel channel) throws IOException {
+        if (vector.getDimension() == 0)
+            throw new IllegalArgumentException("Vectors of dimension 0 cannot be written.");
+
+        write(new Matrix(vector.getComponents(), vector.getOffset(), vector.getDimension(), 1, vector.getStride(), 1), channel);
+    }
+
+    //Writes the matrix to the channel in the binary format. The chunks are written to the channel as they are.
+    public static void write(OffHeapMatrix matrix, WritableByteChannel channel) throws IOException {
+        writeHeader(channel, matrix.getRowCount(), matrix.getColumnCount());
+
+        ByteBuffer transfer = null;
+        for (ByteBuffer chunk : matrix.getBuffers()) {
+            ByteBuffer source = chunk.duplicate().clear();
+            if (chunk.order() == ByteOrder.LITTLE_ENDIAN) {
+                writeFully(channel, source);
+                continue;
+            }
+            //A direct buffer in big-endian order. Only possible on big-endian CPUs.
+            if (transfer == null)
+                transfer = ByteBuffer.allocateDirect(TRANSFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = source.order(chunk.order()).asDoubleBuffer();
+            while (doubles.hasRemaining()) {
+                transfer.clear();
+                while (transfer.remaining() >= Double.BYTES && doubles.hasRemaining()) {
+                    transfer.putDouble(doubles.get());
+                }
+                transfer.flip();
+                writeFully(channel, transfer);
+            }
+        }
+    }
+
+    //Reads a matrix in the binary format from the channel.
+    //Throws an IOException if the data is not in the binary format or ends early, and if the matrix does not fit in a single array (see readOffHeapMatrix).
+    //The dimension of the header is checked before the matrix is allocated, against the remaining size of the channel if it is seekable, e.g. a file.
+    public static Matrix readMatrix(ReadableByteChannel channel) throws IOException {
+        int[] dimension = readHeader(channel);
+        if ((long) dimension[0] * dimension[1] > Integer.MAX_VALUE - 8)
+            throw new IOException("Matrix of dimension " + dimension[0] + "x" + dimension[1] + " is too big for the heap, use readOffHeapMatrix.");
+        checkRemaining(channel, dimension);
+
+        Matrix matrix = new Matrix(dimension[0], dimension[1]);
+        double[] data = matrix.getData();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        while (position < data.length) {
+            int length = Math.min(data.length - position, TRANSFER_BYTES / Double.BYTES);
+            buffer.clear().limit(length * Double.BYTES);
+            readFully(channel, buffer);
+            buffer.flip();
+            buffer.asDoubleBuffer().get(data, position, length);
+            position += length;
+        }
+        return matrix;
+    }
+
+    //Reads a vector in the binary format from the channel. Matrices with a single row are accepted too.
+    public static Vector readVector(ReadableByteChannel channel) throws IOException {
+        Matrix matrix = readMatrix(channel);
+        if (matrix.getColumnCount() != 1 && matrix.getRowCount() != 1)
+            throw new IOException("Data is a " + matrix.getRowCount() + "x" + matrix.getColumnCount() + " matrix, not a vector.");
+
+        return new Vector(matrix.getData());
+    }
+
+    //Reads the rows of a matrix in the binary format from the channel and adds them to the accumulator block by block, so the matrix is never held in memory.
+    //Throws an IOException if the data is not in the binary format or ends early,
+    //and an IllegalArgumentException if its column count does not match the column count of the accumulator.
+    public static void readRows(ReadableByteChannel channel, GramAccumulator accumulator) throws IOException {
+        int[] dimension = readHeader(channel);
+        int rows = dimension[0], columns = dimension[1];
+        if (columns != accumulator.getColumnCount())
+            throw new IllegalArgumentException("Column count of the data does not match the column count of the accumulator.");
+
+        int blockRows = Math.min(rows, Math.max(1, TRANSFER_BYTES / Double.BYTES / columns));
+        Matrix block = new Matrix(blockRows, columns);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(blockRows * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int row = 0; row < rows; row += blockRows) {
+            int count = Math.min(blockRows, rows - row);
+            buffer.clear().limit(count * columns * Double.BYTES);
+            readFully(channel, buffer);
+            buffer.flip();
+            buffer.asDoubleBuffer().get(block.getData(), 0, count * columns);
+            accumulator.addRows(count == blockRows ? block : block.getSubMatrixView(0, 0, count, columns));
+        }
+    }
+
+    //Reads a matrix in the binary format from the channel into direct memory. The chunks are filled from the channel directly.
+    public static OffHeapMatrix readOffHeapMatrix(ReadableByteChannel channel) throws IOException {
+        int[] dimension = readHeader(channel);
+        checkRemaining(channel, dimension);
+        OffHeapMatrix matrix = OffHeapMatrix.allocate(dimension[0], dimension[1]);
+
+        for (ByteBuffer chunk : matrix.getBuffers()) {
+            ByteBuffer target = chunk.duplicate().clear();
+            readFully(channel, target);
+            if (chunk.order() != ByteOrder.LITTLE_ENDIAN) {
+                //The bytes were read as they are, so every double is reversed on big-endian CPUs.
+                target.flip();
+                DoubleBuffer source = target.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                DoubleBuffer destination = target.duplicate().order(chunk.order()).asDoubleBuffer();
+                for (int i = 0; i < source.limit(); i++) {
+                    destination.put(i, source.get(i));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    //Writes the matrix to the given file in the binary format. The file is created or replaced.
+    public static void write(Matrix matrix, Path file) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            write(matrix, channel);
+        }
+    }
+
+    //Writes the vector to the given file in the binary format. The file is created or replaced.
+    public static void write(Vector vector, Path file) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            write(vector, channel);
+        }
+    }
+
+    //Writes the matrix to the given file in the binary format. The file is created or replaced.
+    public static void write(OffHeapMatrix matrix, Path file) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            write(matrix, channel);
+        }
+    }
+
+    //Reads a matrix in the binary format from the given file.
+    public static Matrix readMatrix(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readMatrix(channel);
+        }
+    }
+
+    //Reads a vector in the binary format from the given file.
+    public static Vector readVector(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readVector(channel);
+        }
+    }
+
+    //Reads a matrix in the binary format from the given file into direct memory.
+    public static OffHeapMatrix readOffHeapMatrix(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readOffHeapMatrix(channel);
+        }
+    }
+
+    //Writes the matrix as comma-separated text, a line per row. The elements are written with Double.toString, so reading them back gives exactly the same values.
+    public static void writeCsv(Matrix matrix, Appendable output) throws IOException {
+        double[] data = matrix.getData();
+        for (int i = 0; i < matrix.getRowCount(); i++) {
+            for (int j = 0; j < matrix.getColumnCount(); j++) {
+                if (j > 0)
+                    output.append(',');
+                output.append(Double.toString(data[matrix.index(i, j)]));
+            }
+            output.append('\n');
+        }
+    }
+
+    //Writes the vector as comma-separated text on a single line.
+    public static void writeCsv(Vector vector, Appendable output) throws IOException {
+        for (int i = 0; i < vector.getDimension(); i++) {
+            if (i > 0)
+                output.append(',');
+            output.append(Double.toString(vector.getComponent(i)));
+        }
+        output.append('\n');
+    }
+
+    //Reads a matrix from comma-separated text, a line per row, until the end of the input. The reader is not closed.
+    //Throws an IOException if a value is not a number, a field is empty, the rows have different numbers of elements or there are no elements.
+    public static Matrix readCsv(Reader input) throws IOException {
+        CsvParser parser = new CsvParser(input);
+        parser.parse();
+
+        if (parser.rows == 0)
+            throw new IOException("Input does not contain any elements.");
+
+        Matrix matrix = new Matrix(parser.rows, parser.columns);
+        System.arraycopy(parser.values, 0, matrix.getData(), 0, parser.count);
+        return matrix;
+    }
+
+    //Reads a vector from comma-separated text. All elements may be on a single line or each on its own line.
+    public static Vector readCsvVector(Reader input) throws IOException {
+        CsvParser parser = new CsvParser(input);
+        parser.parse();
+
+        if (parser.rows == 0)
+            throw new IOException("Input does not contain any elements.");
+        if (parser.rows != 1 && parser.columns != 1)
+            throw new IOException("Input is a " + parser.rows + "x" + parser.columns + " matrix, not a vector.");
+
+        return new Vector(Arrays.copyOf(parser.values, parser.count));
+    }
+
+    private static void writeHeader(WritableByteChannel channel, int rows, int columns) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).flip();
+        writeFully(channel, header);
+    }
+
+    //Reads and checks the header. Returns the row count and the column count.
+    private static int[] readHeader(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header);
+        header.flip();
+
+        if (header.getInt() != MAGIC)
+            throw new IOException("Data is not in the binary matrix format.");
+        int version = header.getInt();
+        if (version != VERSION)
+            throw new IOException("Version " + version + " of the binary matrix format is not supported.");
+        int rows = header.getInt();
+        int columns = header.getInt();
+        if (rows < 1 || columns < 1)
+            throw new IOException("Invalid dimension " + rows + "x" + columns + ".");
+
+        return new int[]{rows, columns};
+    }
+
+    //Checks that a seekable channel has at least as many bytes left as the elements of the matrix need, so that a damaged header does not allocate
+    //gigabytes before the read fails. The length of other channels is not known in advance.
+    private static void checkRemaining(ReadableByteChannel channel, int[] dimension) throws IOException {
+        if (!(channel instanceof SeekableByteChannel))
+            return;
+
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+        long remaining = seekable.size() - seekable.position();
+        long needed = (long) dimension[0] * dimension[1] * Double.BYTES;
+        if (needed > remaining)
+            throw new EOFException("Matrix of dimension " + dimension[0] + "x" + dimension[1] + " needs " + needed + " bytes, but the data has " + remaining + " left.");
+    }
+
+    private static void flush(ByteBuffer buffer, DoubleBuffer doubles, WritableByteChannel channel) throws IOException {
+        buffer.clear().limit(doubles.position() * Double.BYTES);
+        writeFully(channel, buffer);
+        doubles.clear();
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Data ends before the end of the matrix.");
+        }
+    }
+
+    private static FileChannel openForWriting(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    //Parses comma or whitespace separated values into a growing array, reading the input in blocks of characters.
+    //A comma (or a semicolon) ends a field, which must contain a value, so "1,,2", ",1" and "1," are rejected. Whitespace only separates values.
+    private static final class CsvParser {
+        private final Reader input;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder token = new StringBuilder();
+
+        double[] values = new double[64];
+        int count;
+        int rows;
+        int columns;
+        private int line = 1;
+        private int column; //Of the current character in the line, from 1.
+        private int valuesInLine;
+        private boolean fieldHasValue; //Whether a value was read since the last separator or the start of the line.
+        private int separatorColumn; //Of the last separator in the line, 0 if there is none.
+
+        CsvParser(Reader input) {
+            this.input = input;
+        }
+
+        void parse() throws IOException {
+            int length;
+            while ((length = input.read(buffer)) >= 0) {
+                for (int i = 0; i < length; i++) {
+                    char c = buffer[i];
+                    column++;
+                    if (c == '\n') {
+                        endToken();
+                        endLine();
+                    }
+                    else if (c == ',' || c == ';') {
+                        endToken();
+                        if (!fieldHasValue)
+                            throw new IOException("Line " + line + " has an empty field before column " + column + ".");
+                        fieldHasValue = false;
+                        separatorColumn = column;
+                    }
+                    else if (Character.isWhitespace(c)) {
+                        endToken();
+                    }
+                    else {
+                        token.append(c);
+                    }
+                }
+            }
+            endToken();
+            endLine();
+        }
+
+        private void endToken() throws IOException {
+            if (token.length() == 0)
+                return;
+
+            double value;
+            try {
+                value = Double.parseDouble(token.toString());
+            } catch (NumberFormatException e) {
+                throw new IOException("\"" + token + "\" in line " + line + " is not a number.");
+            }
+            token.setLength(0);
+
+            if (count == values.length)
+                values = Arrays.copyOf(values, values.length * 2);
+            values[count++] = value;
+            valuesInLine++;
+            fieldHasValue = true;
+        }
+
+        private void endLine() throws IOException {
+            if (separatorColumn > 0 && !fieldHasValue)
+                throw new IOException("Line " + line + " has an empty field after column " + separatorColumn + ".");
+            if (valuesInLine > 0) {
+                if (rows == 0)
+                    columns = valuesInLine;
+                else if (valuesInLine != columns)
+                    throw new IOException("Line " + line + " has " + valuesInLine + " elements, but the first row has " + columns + ".");
+                rows++;
+                valuesInLine = 0;
+            }
+            line++;
+            column = 0;
+            fieldHasValue = false;
+            separatorColumn = 0;
+        }
+    }
+}
\ No newline at end of file
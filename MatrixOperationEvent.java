@@ -0,0 +1,44 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+//A JDK Flight Recorder event for one instrumented operation (see Metrics). Only created while the metrics are enabled,
+//and only written to a recording if the event is enabled in it, e.g. with jcmd <pid> JFR.start settings=profile or a custom .jfc file.
+@Name("simplelinearalgebra.MatrixOperation")
+@Label("Matrix Operation")
+@Category("Linear Algebra")
+@Description("An operation of the linear algebra library with its dimension, estimated floating-point operations and allocated bytes.")
+@StackTrace(false)
+class MatrixOperationEvent extends Event {
+
+    @Label("Operation")
+    String operationName;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Columns")
+    int columns;
+
+    @Label("Estimated FLOPs")
+    long flops;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    //The state of the measurement. Transient fields are not written to the recording.
+    transient final Metrics.Operation operation;
+    transient final long startNanos;
+    transient final long startBytes;
+
+    MatrixOperationEvent(Metrics.Operation operation, long startNanos, long startBytes) {
+        this.operation = operation;
+        this.startNanos = startNanos;
+        this.startBytes = startBytes;
+    }
+}
\ No newline at end of file
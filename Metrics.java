@@ -0,0 +1,235 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//Optional instrumentation of the expensive operations of the library: multiplications, decompositions, the determinant, the inverse, the transpose and dot products.
+//For each operation it counts the calls, the estimated floating-point operations, the elapsed time and the bytes allocated by the calling thread,
+//and it emits a JDK Flight Recorder event (see MatrixOperationEvent) per call. The counters can be polled with getSnapshot or through JMX (see registerMBean).
+//It is disabled by default (or enabled with -Dsimplelinearalgebra.metrics=true). While disabled, an instrumented call only reads one volatile field.
+//While enabled, each call reads the clock and the allocation counter of the thread twice, which costs well under a microsecond.
+public final class Metrics {
+
+    //The instrumented operations. The time and the allocated bytes of an operation include the operations it calls, e.g. the LU decomposition of determinant,
+    //while the estimated FLOPs only count its own work, so that the FLOPs of all operations can be summed. Cached results (see Matrix.setCacheEnabled) count 0 FLOPs.
+    //Strassen multiplications count the FLOPs of the classical algorithm, so that their rates can be compared with those of MULTIPLICATION.
+    //The operations of FloatMatrix are counted separately (FLOAT_*), since their rates are not comparable with those of the double operations.
+    public enum Operation {
+        MULTIPLICATION,
+        GEMM,
+        STRASSEN_MULTIPLICATION,
+        MATRIX_VECTOR_MULTIPLICATION,
+        FLOAT_MULTIPLICATION,
+        FLOAT_GEMM,
+        FLOAT_MATRIX_VECTOR_MULTIPLICATION,
+        SPARSE_MATRIX_VECTOR_MULTIPLICATION,
+        TRANSPOSE,
+        DETERMINANT,
+        INVERSE,
+        LU_DECOMPOSITION,
+        CHOLESKY_DECOMPOSITION,
+        QR_DECOMPOSITION,
+        ROW_ECHELON_FORM,
+        DOT_PRODUCT
+    }
+
+    private static final String OBJECT_NAME = "SimpleLinearAlgebra:type=Metrics";
+
+    private static volatile boolean enabled = Boolean.getBoolean("simplelinearalgebra.metrics");
+    private static final Counters[] counters = new Counters[Operation.values().length];
+
+    static {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counters();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    //Enables or disables the instrumentation. Operations which are running when it is disabled are still recorded.
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    //Returns the statistics of the given operation since the start or the last reset.
+    public static Statistics getStatistics(Operation operation) {
+        return counters[operation.ordinal()].toStatistics();
+    }
+
+    //Returns the statistics of all operations. Each one is read separately, so calls which finish while the snapshot is taken may be in some of them only.
+    public static Map<Operation, Statistics> getSnapshot() {
+        Map<Operation, Statistics> snapshot = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            snapshot.put(operation, getStatistics(operation));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    //Sets all counters to 0.
+    public static void reset() {
+        for (Counters counter : counters) {
+            counter.reset();
+        }
+    }
+
+    //Registers the metrics in the platform MBean server as SimpleLinearAlgebra:type=Metrics (see MetricsMXBean). Does nothing if they are already registered.
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(new Bean(), name);
+        } catch (JMException e) {
+            throw new RuntimeException("Metrics could not be registered.", e);
+        }
+    }
+
+    //Starts measuring an operation. Returns null if the metrics are disabled, in which case end must not be called.
+    //Usage: MatrixOperationEvent event = Metrics.begin(operation); ... if (event != null) Metrics.end(event, rows, columns, flops);
+    static MatrixOperationEvent begin(Operation operation) {
+        if (!enabled)
+            return null;
+
+        MatrixOperationEvent event = new MatrixOperationEvent(operation, System.nanoTime(), Allocations.currentThread());
+        event.begin();
+        return event;
+    }
+
+    //Finishes measuring the operation started by begin, adds it to the counters and commits the event if the flight recorder records it.
+    static void end(MatrixOperationEvent event, int rows, int columns, long flops) {
+        long nanos = System.nanoTime() - event.startNanos;
+        long bytes = Allocations.currentThread() - event.startBytes;
+        counters[event.operation.ordinal()].add(nanos, flops, bytes);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operationName = event.operation.name();
+            event.rows = rows;
+            event.columns = columns;
+            event.flops = flops;
+            event.allocatedBytes = bytes;
+            event.commit();
+        }
+    }
+
+    //The counters of one operation. LongAdder keeps them cheap when many threads record the same operation.
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder flops = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+
+        void add(long nanos, long flops, long allocatedBytes) {
+            calls.increment();
+            this.flops.add(flops);
+            this.nanos.add(nanos);
+            this.allocatedBytes.add(allocatedBytes);
+        }
+
+        void reset() {
+            calls.reset();
+            flops.reset();
+            nanos.reset();
+            allocatedBytes.reset();
+        }
+
+        Statistics toStatistics() {
+            return new Statistics(calls.sum(), flops.sum(), nanos.sum(), allocatedBytes.sum());
+        }
+    }
+
+    //Reads the bytes allocated by the current thread. The class is initialized, and the management beans are loaded, only when the metrics are first used.
+    //Allocations of other threads, e.g. of the workers of a parallel multiplication, are not included. 0 is returned if the JVM does not support it.
+    private static final class Allocations {
+        private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+        private static com.sun.management.ThreadMXBean threads() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+                if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled())
+                    return allocations;
+            }
+            return null;
+        }
+
+        static long currentThread() {
+            return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        }
+    }
+
+    //The totals of one operation at the time they were read.
+    public static final class Statistics {
+        private final long calls;
+        private final long flops;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        Statistics(long calls, long flops, long elapsedNanos, long allocatedBytes) {
+            this.calls = calls;
+            this.flops = flops;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        //Returns the estimated number of floating-point operations, e.g. 2mnk for the multiplication of an m x n and an n x k matrix.
+        public long getFlops() {
+            return flops;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        //Returns the estimated floating-point operations per second, 0 if no time was recorded.
+        public double getFlopsPerSecond() {
+            return elapsedNanos == 0 ? 0 : flops * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return calls + " calls, " + flops + " FLOPs, " + elapsedNanos / 1e6 + " ms, " + allocatedBytes + " bytes";
+        }
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        public Map<String, Statistics> getStatistics() {
+            Map<String, Statistics> statistics = new LinkedHashMap<>();
+            for (Map.Entry<Operation, Statistics> entry : getSnapshot().entrySet()) {
+                statistics.put(entry.getKey().name(), entry.getValue());
+            }
+            return statistics;
+        }
+
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
\ No newline at end of file
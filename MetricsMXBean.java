@@ -0,0 +1,14 @@
+import java.util.Map;
+
+//The management interface of the metrics (see Metrics.registerMBean). It is registered as SimpleLinearAlgebra:type=Metrics and can be read with JConsole or any JMX client.
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    //Returns the statistics of each operation, keyed by the name of the operation.
+    Map<String, Metrics.Statistics> getStatistics();
+
+    void reset();
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+//Counts the changes of the elements of a matrix. It is shared by the matrix and all of its views (matrices and vectors), since they change the same array,
+//so a change through any of them invalidates the cached results of all of them (see Matrix.setCacheEnabled).
+//The counter of a frozen matrix (see Matrix.freeze) never changes: every attempt to change the elements throws an exception before anything is written.
+final class ModificationCounter {
+
+    final boolean frozen;
+    long count;
+
+    ModificationCounter(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+    //Records a change. Throws an UnsupportedOperationException if the elements are frozen.
+    void increment() {
+        if (frozen)
+            throw new UnsupportedOperationException("Frozen matrices cannot be changed.");
+        count++;
+    }
+}
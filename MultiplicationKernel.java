@@ -0,0 +1,234 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+//Matrix multiplication kernels used by Matrix.multiplication.
+//They work directly on the backing arrays, the caller provides the result matrix. Any layout (views, transpose views) is supported.
+//Apart from per-thread scratch buffers, which are created once and reused, nothing is allocated.
+final class MultiplicationKernel {
+
+    //Products with at most this many multiply-adds (rows * inner * columns) use the naive loop. Blocking does not pay off for them.
+    static final long NAIVE_THRESHOLD = 32 * 32 * 32;
+
+    //Products with fewer multiply-adds than this are never split across threads. Below it the scheduling costs more than the work.
+    static final long PARALLEL_THRESHOLD = 128 * 128 * 128;
+
+    //Block sizes of the inner dimension and the result columns. A 128x256 block of the second matrix (256 KB) stays in the cache while every row of the first matrix passes over it.
+    static final int BLOCK_INNER = 128;
+    static final int BLOCK_COLUMNS = 256;
+
+    private MultiplicationKernel() {
+    }
+
+    //Computes alpha * a * b and adds it to c. a is n x k, b is k x m and c is n x m. c must not share its array with a or b.
+    //Each element of a is multiplied by alpha when it is loaded, so an alpha of 1 gives exactly the plain product.
+    static void multiply(double alpha, Matrix a, Matrix b, Matrix c) {
+        if ((long) a.getRowCount() * b.getRowCount() * b.getColumnCount() <= NAIVE_THRESHOLD)
+            multiplyNaive(alpha, a, b, c, 0, a.getRowCount());
+        else
+            multiplyRows(alpha, a, b, c, 0, a.getRowCount());
+    }
+
+    //Computes alpha * a * b and adds it to c like multiply, but splits the rows of c into at most parallelism chunks and runs them on the executor.
+    //Products below PARALLEL_THRESHOLD multiply-adds, or a parallelism of 1, run on the calling thread without touching the executor.
+    static void multiplyParallel(double alpha, Matrix a, Matrix b, Matrix c, Executor executor, int parallelism) {
+        int rows = a.getRowCount();
+        long work = (long) rows * b.getRowCount() * b.getColumnCount();
+
+        if (work < PARALLEL_THRESHOLD || Math.min(parallelism, (rows + 3) / 4) < 2) {
+            multiply(alpha, a, b, c);
+            return;
+        }
+        runInChunks(rows, executor, parallelism, (rowStart, rowEnd) -> multiplyRows(alpha, a, b, c, rowStart, rowEnd));
+    }
+
+    //A task which computes the rows from rowStart (inclusive) to rowEnd (exclusive) of a result.
+    interface RowTask {
+        void run(int rowStart, int rowEnd);
+    }
+
+    //Splits the rows into at most parallelism chunks and runs the task for each of them on the executor. The calling thread runs the last chunk itself.
+    static void runInChunks(int rows, Executor executor, int parallelism, RowTask task) {
+        int chunkCount = Math.max(1, Math.min(parallelism, (rows + 3) / 4));
+
+        //Chunk sizes are multiples of 4 so that only the last chunk has rows which are not part of a group of four.
+        int chunkSize = ((rows + chunkCount - 1) / chunkCount + 3) / 4 * 4;
+        chunkCount = (rows + chunkSize - 1) / chunkSize;
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount - 1];
+        for (int chunk = 0; chunk < futures.length; chunk++) {
+            int rowStart = chunk * chunkSize;
+            int rowEnd = rowStart + chunkSize;
+            futures[chunk] = CompletableFuture.runAsync(() -> task.run(rowStart, rowEnd), executor);
+        }
+        task.run((chunkCount - 1) * chunkSize, rows);
+        join(futures);
+    }
+
+    //Waits for the given tasks. An exception thrown by one of them is rethrown as it is, not wrapped in a CompletionException.
+    static void join(CompletableFuture<?>[] futures) {
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    //Computes the rows from rowStart (inclusive) to rowEnd (exclusive) of c with the cache-blocked loop. Different row ranges can run on different threads.
+    static void multiplyRows(double alpha, Matrix a, Matrix b, Matrix c, int rowStart, int rowEnd) {
+        multiplyBlocked(alpha, a, b, c, rowStart, rowEnd, BUFFERS.get());
+    }
+
+    //The plain triple loop. Each element is the dot product of a row of a and a column of b. Works with any layout.
+    static void multiplyNaive(double alpha, Matrix a, Matrix b, Matrix c, int rowStart, int rowEnd) {
+        double[] aData = a.getData(), bData = b.getData(), cData = c.getData();
+        int aColumnStride = a.getColumnStride();
+        int bRowStride = b.getRowStride();
+        int inner = b.getRowCount();
+        int columns = b.getColumnCount();
+
+        for (int i = rowStart; i < rowEnd; i++) {
+            int aRow = a.index(i, 0);
+            for (int j = 0; j < columns; j++) {
+                int cIndex = c.index(i, j);
+                int bColumn = b.index(0, j);
+                double sum = cData[cIndex];
+                for (int p = 0; p < inner; p++) {
+                    sum += alpha * aData[aRow + p * aColumnStride] * bData[bColumn + p * bRowStride];
+                }
+                cData[cIndex] = sum;
+            }
+        }
+    }
+
+    //Cache-blocked multiplication. The inner dimension and the columns are split into blocks. Each block of b is copied (packed) into the panel,
+    //one array per row, and four rows of the result are updated together in the row buffers so that each element loaded from b is used four times.
+    //The inner loop only reads and writes separate arrays from index 0, which is the form the JIT compiler turns into SIMD instructions.
+    //The packing also makes the loop independent of the layouts, views and transpose views are multiplied as fast as ordinary matrices.
+    //Every element of c still sums its products in increasing order of the inner index, so the result is identical to the naive loop.
+    static void multiplyBlocked(double alpha, Matrix a, Matrix b, Matrix c, int rowStart, int rowEnd, Buffers buffers) {
+        int inner = b.getRowCount();
+        int columns = b.getColumnCount();
+        double[][] panel = buffers.panel;
+
+        for (int innerStart = 0; innerStart < inner; innerStart += BLOCK_INNER) {
+            int innerEnd = Math.min(innerStart + BLOCK_INNER, inner);
+            for (int columnStart = 0; columnStart < columns; columnStart += BLOCK_COLUMNS) {
+                int width = Math.min(columnStart + BLOCK_COLUMNS, columns) - columnStart;
+
+                for (int p = innerStart; p < innerEnd; p++) {
+                    copyRow(b, p, columnStart, width, panel[p - innerStart]);
+                }
+
+                int i = rowStart;
+                for (; i + 3 < rowEnd; i += 4) {
+                    multiplyFourRows(alpha, a, c, i, innerStart, innerEnd, columnStart, width, buffers);
+                }
+                for (; i < rowEnd; i++) {
+                    multiplyOneRow(alpha, a, c, i, innerStart, innerEnd, columnStart, width, buffers);
+                }
+            }
+        }
+    }
+
+    //Updates rows i, i + 1, i + 2 and i + 3 of c with one block of the product.
+    private static void multiplyFourRows(double alpha, Matrix a, Matrix c, int i, int innerStart, int innerEnd, int columnStart, int width, Buffers buffers) {
+        double[] aData = a.getData();
+        int aRowStride = a.getRowStride(), aColumnStride = a.getColumnStride();
+        double[][] panel = buffers.panel;
+        double[] c0 = buffers.row0, c1 = buffers.row1, c2 = buffers.row2, c3 = buffers.row3;
+
+        copyRow(c, i, columnStart, width, c0);
+        copyRow(c, i + 1, columnStart, width, c1);
+        copyRow(c, i + 2, columnStart, width, c2);
+        copyRow(c, i + 3, columnStart, width, c3);
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            int aIndex = aRow + p * aColumnStride;
+            double a0p = alpha * aData[aIndex];
+            double a1p = alpha * aData[aIndex + aRowStride];
+            double a2p = alpha * aData[aIndex + 2 * aRowStride];
+            double a3p = alpha * aData[aIndex + 3 * aRowStride];
+            double[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                double bpj = bRow[j];
+                c0[j] += a0p * bpj;
+                c1[j] += a1p * bpj;
+                c2[j] += a2p * bpj;
+                c3[j] += a3p * bpj;
+            }
+        }
+
+        storeRow(c0, c, i, columnStart, width);
+        storeRow(c1, c, i + 1, columnStart, width);
+        storeRow(c2, c, i + 2, columnStart, width);
+        storeRow(c3, c, i + 3, columnStart, width);
+    }
+
+    //Updates a single row of c with one block of the product. Used for the rows left over after the groups of four.
+    private static void multiplyOneRow(double alpha, Matrix a, Matrix c, int i, int innerStart, int innerEnd, int columnStart, int width, Buffers buffers) {
+        double[] aData = a.getData();
+        int aColumnStride = a.getColumnStride();
+        double[][] panel = buffers.panel;
+        double[] cRow = buffers.row0;
+
+        copyRow(c, i, columnStart, width, cRow);
+
+        int aRow = a.index(i, 0);
+        for (int p = innerStart; p < innerEnd; p++) {
+            double ap = alpha * aData[aRow + p * aColumnStride];
+            double[] bRow = panel[p - innerStart];
+            for (int j = 0; j < width; j++) {
+                cRow[j] += ap * bRow[j];
+            }
+        }
+
+        storeRow(cRow, c, i, columnStart, width);
+    }
+
+    //Copies width elements of the given row, starting at the given column, to the destination array.
+    private static void copyRow(Matrix matrix, int row, int column, int width, double[] destination) {
+        double[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        if (columnStride == 1) {
+            System.arraycopy(data, index, destination, 0, width);
+        }
+        else {
+            for (int j = 0; j < width; j++) {
+                destination[j] = data[index + j * columnStride];
+            }
+        }
+    }
+
+    //Copies width elements of the source array back to the given row, starting at the given column.
+    private static void storeRow(double[] source, Matrix matrix, int row, int column, int width) {
+        double[] data = matrix.getData();
+        int index = matrix.index(row, column);
+        int columnStride = matrix.getColumnStride();
+        if (columnStride == 1) {
+            System.arraycopy(source, 0, data, index, width);
+        }
+        else {
+            for (int j = 0; j < width; j++) {
+                data[index + j * columnStride] = source[j];
+            }
+        }
+    }
+
+    //Scratch arrays of the blocked loop. Each thread keeps its own, so the multiplications of a thread reuse them instead of allocating.
+    static final class Buffers {
+        final double[][] panel = new double[BLOCK_INNER][BLOCK_COLUMNS];
+        final double[] row0 = new double[BLOCK_COLUMNS];
+        final double[] row1 = new double[BLOCK_COLUMNS];
+        final double[] row2 = new double[BLOCK_COLUMNS];
+        final double[] row3 = new double[BLOCK_COLUMNS];
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+}
\ No newline at end of file
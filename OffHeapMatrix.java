@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//A matrix whose elements are stored outside of the Java heap, either in direct memory or in a file mapped into memory.
+//The garbage collector only sees the small buffer objects, never the elements, and the row count times the column count is not limited by the size of a Java array.
+//Mapped matrices are paged in by the operating system when their elements are accessed, so they can be larger than the physical memory as well.
+//
+//The elements are stored in row-major order in chunks of whole rows, each at most CHUNK_BYTES long, since a single buffer cannot exceed 2 GB.
+//Element-wise operations run over the chunks directly. Multiplication and transpose copy square tiles into ordinary matrices and use the multiplication kernel of Matrix,
+//so only a few tiles are on the heap at any time.
+//Direct memory is limited by the -XX:MaxDirectMemorySize option of the JVM (by default the maximum heap size). Mapped matrices are not limited by it.
+//Mapped files contain the elements as little-endian doubles without a header. They are unmapped when the matrix is garbage collected.
+public class OffHeapMatrix {
+
+    //Maximum size of a chunk in bytes.
+    static final int CHUNK_BYTES = 1 << 30;
+
+    //Edge length of the square tiles used by multiplication and transpose. Three 512x512 tiles take 6 MB on the heap.
+    static final int TILE = 512;
+
+    //Number of elements processed at once by the element-wise operations.
+    private static final int SEGMENT = 8192;
+
+    private final int rowCount;
+    private final int columnCount;
+    private final int rowsPerChunk;
+    private final ByteBuffer[] buffers;
+    private final DoubleBuffer[] chunks; //Double views of the buffers. Row i is row i % rowsPerChunk of chunk i / rowsPerChunk.
+
+    private OffHeapMatrix(int rowCount, int columnCount, ByteBuffer[] buffers) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowsPerChunk = rowsPerChunk(columnCount);
+        this.buffers = buffers;
+        chunks = new DoubleBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            chunks[i] = buffers[i].asDoubleBuffer();
+        }
+    }
+
+    //Creates a matrix of zeros in direct memory, outside of the heap.
+    public static OffHeapMatrix allocate(int rows, int columns) {
+        checkDimension(rows, columns);
+
+        int rowsPerChunk = rowsPerChunk(columns);
+        ByteBuffer[] buffers = new ByteBuffer[chunkCount(rows, rowsPerChunk)];
+        for (int i = 0; i < buffers.length; i++) {
+            int rowsInChunk = Math.min(rowsPerChunk, rows - i * rowsPerChunk);
+            buffers[i] = ByteBuffer.allocateDirect(rowsInChunk * columns * Double.BYTES).order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapMatrix(rows, columns, buffers);
+    }
+
+    //Maps the given file into memory as a matrix of the given dimension. The file is created if it does not exist and extended if it is shorter,
+    //new elements are 0. Changes to the elements are written to the file by the operating system, force writes them immediately.
+    //Throws an UncheckedIOException if the file cannot be mapped.
+    public static OffHeapMatrix map(Path file, int rows, int columns) {
+        checkDimension(rows, columns);
+
+        int rowsPerChunk = rowsPerChunk(columns);
+        ByteBuffer[] buffers = new ByteBuffer[chunkCount(rows, rowsPerChunk)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long chunkBytes = (long) rowsPerChunk * columns * Double.BYTES;
+            for (int i = 0; i < buffers.length; i++) {
+                int rowsInChunk = Math.min(rowsPerChunk, rows - i * rowsPerChunk);
+                //The mappings stay valid after the channel is closed.
+                buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * chunkBytes, (long) rowsInChunk * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("File " + file + " cannot be mapped.", e);
+        }
+        return new OffHeapMatrix(rows, columns, buffers);
+    }
+
+    //Creates a matrix in direct memory with the elements of the given matrix.
+    public static OffHeapMatrix copyOf(Matrix matrix) {
+        OffHeapMatrix result = allocate(matrix.getRowCount(), matrix.getColumnCount());
+        for (int i = 0; i < result.rowCount; i += TILE) {
+            for (int j = 0; j < result.columnCount; j += TILE) {
+                int rows = Math.min(TILE, result.rowCount - i);
+                int columns = Math.min(TILE, result.columnCount - j);
+                result.writeTile(i, j, matrix.getSubMatrixView(i, j, rows, columns));
+            }
+        }
+        return result;
+    }
+
+    private static void checkDimension(int rows, int columns) {
+        if (rows < 1 || columns < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1x1");
+        if ((long) columns * Double.BYTES > CHUNK_BYTES)
+            throw new IllegalArgumentException("Column count cannot be more than " + CHUNK_BYTES / Double.BYTES + ".");
+    }
+
+    private static int rowsPerChunk(int columns) {
+        return CHUNK_BYTES / Double.BYTES / columns;
+    }
+
+    private static int chunkCount(int rows, int rowsPerChunk) {
+        return (rows + rowsPerChunk - 1) / rowsPerChunk;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Returns the element at given coordinates.
+    public double getElement(int row, int column) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+        return chunks[row / rowsPerChunk].get((row % rowsPerChunk) * columnCount + column);
+    }
+
+    //Sets the element at given coordinates.
+    public void setElement(int row, int column, double value) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+        chunks[row / rowsPerChunk].put((row % rowsPerChunk) * columnCount + column, value);
+    }
+
+    //Checks whether the matrix is mapped from a file.
+    public boolean isMapped() {
+        return buffers[0] instanceof MappedByteBuffer;
+    }
+
+    //Writes the changes of a mapped matrix to its file. Does nothing for matrices in direct memory.
+    public void force() {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer instanceof MappedByteBuffer)
+                ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    //Takes a matrix as the argument and adds its elements to the elements of this matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void add(OffHeapMatrix m1) {
+        addScaled(m1, 1);
+    }
+
+    //Takes a matrix as the argument and subtracts its elements from the elements of this matrix.
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public void subtract(OffHeapMatrix m1) {
+        addScaled(m1, -1);
+    }
+
+    //Performs the multiplication by a scalar. Multiplies each element by the scalar number.
+    public void multiplyByAScalar(double scalar) {
+        double[] segment = new double[SEGMENT];
+        for (DoubleBuffer chunk : chunks) {
+            for (int start = 0; start < chunk.capacity(); start += SEGMENT) {
+                int length = Math.min(SEGMENT, chunk.capacity() - start);
+                chunk.get(start, segment, 0, length);
+                VectorKernels.INSTANCE.scale(segment, 0, length, scalar);
+                chunk.put(start, segment, 0, length);
+            }
+        }
+    }
+
+    //this += scalar * m1. Both matrices have the same column count, so their chunks have the same length.
+    private void addScaled(OffHeapMatrix m1, double scalar) {
+        if (rowCount != m1.rowCount || columnCount != m1.columnCount)
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        double[] segment = new double[SEGMENT];
+        double[] otherSegment = new double[SEGMENT];
+        for (int c = 0; c < chunks.length; c++) {
+            DoubleBuffer chunk = chunks[c];
+            DoubleBuffer otherChunk = m1.chunks[c];
+            for (int start = 0; start < chunk.capacity(); start += SEGMENT) {
+                int length = Math.min(SEGMENT, chunk.capacity() - start);
+                chunk.get(start, segment, 0, length);
+                otherChunk.get(start, otherSegment, 0, length);
+                if (scalar == 1)
+                    VectorKernels.INSTANCE.add(segment, 0, otherSegment, 0, length);
+                else if (scalar == -1)
+                    VectorKernels.INSTANCE.subtract(segment, 0, otherSegment, 0, length);
+                else
+                    VectorKernels.INSTANCE.addScaled(segment, 0, otherSegment, 0, length, scalar);
+                chunk.put(start, segment, 0, length);
+            }
+        }
+    }
+
+    //Performs the multiplication of given matrices and returns the resultant matrix, which is allocated in direct memory.
+    //Throws an IllegalArgumentException if the column count of m1 is not equal to the row count of m2. Unlike Matrix.multiplication, the operands are never swapped.
+    public static OffHeapMatrix multiplication(OffHeapMatrix m1, OffHeapMatrix m2) {
+        if (m1.columnCount != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        OffHeapMatrix result = allocate(m1.rowCount, m2.columnCount);
+        multiplyInto(m1, m2, result);
+        return result;
+    }
+
+    //Multiplies the given matrices into the destination (destination = m1 * m2), e.g. into a mapped matrix. The destination must not be m1 or m2.
+    //The product is computed tile by tile: for each tile of the destination, the tiles of m1 and m2 along the inner dimension are copied to the heap
+    //and multiplied with the kernel of Matrix, with the default parallelism and executor of Matrix.
+    public static void multiplyInto(OffHeapMatrix m1, OffHeapMatrix m2, OffHeapMatrix destination) {
+        if (m1.columnCount != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+        if (destination.rowCount != m1.rowCount || destination.columnCount != m2.columnCount)
+            throw new IllegalArgumentException("Dimension of the result matrix does not match the dimension of the product.");
+        if (destination == m1 || destination == m2)
+            throw new IllegalArgumentException("The result matrix cannot be one of the multiplied matrices.");
+
+        Matrix aTile = new Matrix(TILE, TILE);
+        Matrix bTile = new Matrix(TILE, TILE);
+        Matrix cTile = new Matrix(TILE, TILE);
+        int inner = m1.columnCount;
+
+        for (int i = 0; i < destination.rowCount; i += TILE) {
+            int rows = Math.min(TILE, destination.rowCount - i);
+            for (int j = 0; j < destination.columnCount; j += TILE) {
+                int columns = Math.min(TILE, destination.columnCount - j);
+                Matrix c = cTile.getSubMatrixView(0, 0, rows, columns);
+                c.fill(0);
+                for (int p = 0; p < inner; p += TILE) {
+                    int depth = Math.min(TILE, inner - p);
+                    Matrix a = aTile.getSubMatrixView(0, 0, rows, depth);
+                    Matrix b = bTile.getSubMatrixView(0, 0, depth, columns);
+                    m1.readTile(i, p, a);
+                    m2.readTile(p, j, b);
+                    MultiplicationKernel.multiplyParallel(1, a, b, c, Matrix.getExecutor(), Matrix.getParallelism());
+                }
+                destination.writeTile(i, j, c);
+            }
+        }
+    }
+
+    //Creates and returns the transpose of the matrix in direct memory.
+    public OffHeapMatrix getTranspose() {
+        OffHeapMatrix result = allocate(columnCount, rowCount);
+        transposeInto(result);
+        return result;
+    }
+
+    //Copies the transpose of the matrix into the given matrix tile by tile. The destination must not be the matrix itself.
+    public void transposeInto(OffHeapMatrix destination) {
+        if (destination.rowCount != columnCount || destination.columnCount != rowCount)
+            throw new IllegalArgumentException("Dimension of the destination matrix does not match the dimension of the transpose.");
+        if (destination == this)
+            throw new IllegalArgumentException("The destination matrix cannot be the matrix itself.");
+
+        //Each tile is transposed on the heap, so that the off-heap elements are always read and written row by row.
+        Matrix tile = new Matrix(TILE, TILE);
+        Matrix transposedTile = new Matrix(TILE, TILE);
+        for (int i = 0; i < rowCount; i += TILE) {
+            int rows = Math.min(TILE, rowCount - i);
+            for (int j = 0; j < columnCount; j += TILE) {
+                int columns = Math.min(TILE, columnCount - j);
+                Matrix part = tile.getSubMatrixView(0, 0, rows, columns);
+                Matrix transposedPart = transposedTile.getSubMatrixView(0, 0, columns, rows);
+                readTile(i, j, part);
+                part.transposeInto(transposedPart);
+                destination.writeTile(j, i, transposedPart);
+            }
+        }
+    }
+
+    //Copies the elements into a new Matrix on the heap. Throws an IllegalArgumentException if they do not fit in a single array.
+    public Matrix toMatrix() {
+        if ((long) rowCount * columnCount > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Matrix is too big to be copied to the heap.");
+
+        Matrix matrix = new Matrix(rowCount, columnCount);
+        for (int i = 0; i < rowCount; i++) {
+            DoubleBuffer chunk = chunks[i / rowsPerChunk];
+            chunk.get((i % rowsPerChunk) * columnCount, matrix.getData(), matrix.index(i, 0), columnCount);
+        }
+        return matrix;
+    }
+
+    //The chunks as byte buffers. Used by MatrixIO to transfer them to and from channels without copying them to the heap.
+    ByteBuffer[] getBuffers() {
+        return buffers;
+    }
+
+    //Copies the elements starting at (row, column) into the given matrix, which has to be row-major (column stride 1), e.g. a sub-matrix view.
+    void readTile(int row, int column, Matrix tile) {
+        tile.modified();
+        double[] data = tile.getData();
+        for (int i = 0; i < tile.getRowCount(); i++) {
+            int r = row + i;
+            chunks[r / rowsPerChunk].get((r % rowsPerChunk) * columnCount + column, data, tile.index(i, 0), tile.getColumnCount());
+        }
+    }
+
+    //Copies the elements of the given matrix, which can have any layout, to the elements starting at (row, column).
+    void writeTile(int row, int column, Matrix tile) {
+        double[] data = tile.getData();
+        int columns = tile.getColumnCount();
+        int columnStride = tile.getColumnStride();
+        for (int i = 0; i < tile.getRowCount(); i++) {
+            int r = row + i;
+            DoubleBuffer chunk = chunks[r / rowsPerChunk];
+            int position = (r % rowsPerChunk) * columnCount + column;
+            if (columnStride == 1) {
+                chunk.put(position, data, tile.index(i, 0), columns);
+                continue;
+            }
+            int index = tile.index(i, 0);
+            for (int j = 0; j < columns; j++) {
+                chunk.put(position + j, data[index + j * columnStride]);
+            }
+        }
+    }
+
+    //Returns a string containing the dimension and whether the matrix is in direct memory or mapped. The elements are not printed since there may be billions of them.
+    public String toString() {
+        return rowCount + "x" + columnCount + (isMapped() ? " mapped" : " off-heap") + " matrix";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+//QR decomposition of an m x n matrix with m >= n, computed with Householder reflections. A = QR, where Q is an m x n matrix with orthonormal columns
+//and R is an n x n upper triangular matrix. The reflections are applied without pivoting, which is stable since they are orthogonal.
+//The main use is the least-squares solution of overdetermined systems: solve returns the x which minimises the length of Ax - b, without forming A^T A.
+public class QRDecomposition {
+
+    //Column j of the decomposed matrix is qr[j]: R above the diagonal and the Householder vectors on and below it.
+    //Storing the columns as arrays lets the reflections run over contiguous arrays with the vector kernels.
+    private final double[][] qr;
+    private final double[] rDiagonal;
+    private final int rowCount;
+    private final int columnCount;
+
+    //Computes the decomposition of the given matrix. Throws an IllegalArgumentException if it has fewer rows than columns.
+    public QRDecomposition(Matrix matrix) {
+        rowCount = matrix.getRowCount();
+        columnCount = matrix.getColumnCount();
+        if (rowCount < columnCount)
+            throw new IllegalArgumentException("QR decomposition needs at least as many rows as columns.");
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.QR_DECOMPOSITION);
+
+        qr = new double[columnCount][rowCount];
+        for (int j = 0; j < columnCount; j++) {
+            for (int i = 0; i < rowCount; i++) {
+                qr[j][i] = matrix.getElement(i, j);
+            }
+        }
+        rDiagonal = new double[columnCount];
+
+        for (int k = 0; k < columnCount; k++) {
+            double[] column = qr[k];
+            int length = rowCount - k;
+
+            //The reflection maps the part of column k below the diagonal to a multiple of the first unit vector. The norm is computed with hypot to avoid overflow.
+            double norm = 0;
+            for (int i = k; i < rowCount; i++) {
+                norm = Math.hypot(norm, column[i]);
+            }
+
+            if (norm != 0) {
+                if (column[k] < 0)
+                    norm = -norm;
+                VectorKernels.INSTANCE.scale(column, k, length, 1 / norm);
+                column[k] += 1;
+
+                //Applies the reflection to the remaining columns.
+                for (int j = k + 1; j < columnCount; j++) {
+                    double s = -VectorKernels.INSTANCE.dot(column, k, qr[j], k, length) / column[k];
+                    VectorKernels.INSTANCE.addScaled(qr[j], k, column, k, length, s);
+                }
+            }
+            rDiagonal[k] = -norm;
+        }
+
+        if (event != null)
+            Metrics.end(event, rowCount, columnCount, 2L * rowCount * columnCount * columnCount - 2L * columnCount * columnCount * columnCount / 3);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Checks whether the decomposed matrix has full column rank, i.e. no diagonal element of R is exactly 0. Only then solve can be used.
+    public boolean isFullRank() {
+        for (double value : rDiagonal) {
+            if (value == 0)
+                return false;
+        }
+        return true;
+    }
+
+    //Returns the upper triangular factor R (n x n).
+    public Matrix getR() {
+        Matrix r = new Matrix(columnCount, columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            r.setElement(i, i, rDiagonal[i]);
+            for (int j = i + 1; j < columnCount; j++) {
+                r.setElement(i, j, qr[j][i]);
+            }
+        }
+        return r;
+    }
+
+    //Returns the factor Q (m x n) whose columns are orthonormal. It is built by applying the reflections to the first n columns of the identity matrix.
+    public Matrix getQ() {
+        Matrix q = new Matrix(rowCount, columnCount);
+        double[] column = new double[rowCount];
+        for (int j = 0; j < columnCount; j++) {
+            Arrays.fill(column, 0);
+            column[j] = 1;
+            for (int k = Math.min(j, columnCount - 1); k >= 0; k--) {
+                reflect(k, column);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                q.setElement(i, j, column[i]);
+            }
+        }
+        return q;
+    }
+
+    //Returns the least-squares solution of Ax = b, the x which minimises the length of Ax - b. For square matrices it is the exact solution.
+    //Throws a RuntimeException if the matrix does not have full rank.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != rowCount)
+            throw new IllegalArgumentException("Dimension of the vector does not match the row count of the matrix.");
+        checkFullRank();
+
+        double[] y = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            y[i] = b.getComponent(i);
+        }
+        solveInPlace(y);
+        return new Vector(Arrays.copyOf(y, columnCount));
+    }
+
+    //Returns the least-squares solutions for the columns of B as the columns of the resultant matrix.
+    //Throws a RuntimeException if the matrix does not have full rank.
+    public Matrix solve(Matrix b) {
+        if (b.getRowCount() != rowCount)
+            throw new IllegalArgumentException("Row count of the matrix does not match the row count of the decomposed matrix.");
+        checkFullRank();
+
+        Matrix result = new Matrix(columnCount, b.getColumnCount());
+        double[] y = new double[rowCount];
+        for (int j = 0; j < b.getColumnCount(); j++) {
+            for (int i = 0; i < rowCount; i++) {
+                y[i] = b.getElement(i, j);
+            }
+            solveInPlace(y);
+            for (int i = 0; i < columnCount; i++) {
+                result.setElement(i, j, y[i]);
+            }
+        }
+        return result;
+    }
+
+    private void checkFullRank() {
+        if (!isFullRank())
+            throw new RuntimeException("Matrix is rank deficient.");
+    }
+
+    //Applies reflection k to the vector: y = (I - v v^T / v[k]) y, where v is the Householder vector stored in column k.
+    private void reflect(int k, double[] y) {
+        double[] column = qr[k];
+        int length = rowCount - k;
+        if (column[k] == 0)
+            return;
+        double s = -VectorKernels.INSTANCE.dot(column, k, y, k, length) / column[k];
+        VectorKernels.INSTANCE.addScaled(y, k, column, k, length, s);
+    }
+
+    //Computes Q^T y with the reflections, then solves Rx = (Q^T y)[0..n-1] by back substitution. The solution is left in the first n elements of y.
+    private void solveInPlace(double[] y) {
+        for (int k = 0; k < columnCount; k++) {
+            reflect(k, y);
+        }
+        for (int k = columnCount - 1; k >= 0; k--) {
+            y[k] /= rDiagonal[k];
+            double yk = y[k];
+            double[] column = qr[k];
+            for (int i = 0; i < k; i++) {
+                y[i] -= yk * column[i];
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+import java.util.Arrays;
+
+//Reduced row echelon form of a matrix, computed with the Gauss-Jordan elimination with partial pivoting in O(mn min(m, n)).
+//The elimination works on a copy of the rows as separate arrays, so rows are interchanged by swapping the references and the row operations
+//run along contiguous arrays with the vector kernels, without the range checks of getElement and setElement.
+//The rank, the pivot columns and bases of the column space, the row space and the null space are taken from the reduced matrix.
+//Elements whose absolute value is at most the tolerance are treated as zero. The default tolerance is max(m, n) * eps * normInf(A), like rref of MATLAB.
+//Optionally the row operations are recorded, so that they can be applied to other matrices with the same row count (see apply), e.g. to right-hand sides
+//or to the identity matrix, which gives E with EA = R.
+public class RowEchelonForm {
+
+    private static final int SWAP = 0;
+    private static final int SCALE = 1;
+    private static final int ADD = 2;
+
+    private final double[][] reduced;
+    private final int columnCount;
+    private final int rank;
+    private final int[] pivotColumns;
+    private final double[][] columnSpace; //Pivot columns of the original matrix, one array per row.
+    private final double tolerance;
+
+    //The recorded row operations: kind, the row which is read (or the first row of a swap) and the row which is changed, and the factor.
+    private final boolean recorded;
+    private int operationCount;
+    private byte[] kinds;
+    private int[] sources;
+    private int[] targets;
+    private double[] factors;
+
+    //Computes the reduced row echelon form of the given matrix with the default tolerance, without recording the row operations.
+    public RowEchelonForm(Matrix matrix) {
+        this(matrix, defaultTolerance(matrix), false);
+    }
+
+    //Computes the reduced row echelon form of the given matrix with the default tolerance. If record is true, the row operations are recorded (see apply).
+    public RowEchelonForm(Matrix matrix, boolean record) {
+        this(matrix, defaultTolerance(matrix), record);
+    }
+
+    //Computes the reduced row echelon form of the given matrix. Pivots whose absolute value is at most the tolerance are treated as zero.
+    //If record is true, the row operations are recorded (see apply).
+    public RowEchelonForm(Matrix matrix, double tolerance, boolean record) {
+        if (tolerance < 0)
+            throw new IllegalArgumentException("Tolerance cannot be negative.");
+
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.ROW_ECHELON_FORM);
+        int m = matrix.getRowCount(), n = matrix.getColumnCount();
+        this.tolerance = tolerance;
+        columnCount = n;
+        recorded = record;
+        if (record) {
+            kinds = new byte[2 * m];
+            sources = new int[2 * m];
+            targets = new int[2 * m];
+            factors = new double[2 * m];
+        }
+
+        double[] data = matrix.getData();
+        int columnStride = matrix.getColumnStride();
+        reduced = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            int index = matrix.index(i, 0);
+            for (int j = 0; j < n; j++) {
+                reduced[i][j] = data[index + j * columnStride];
+            }
+        }
+
+        int[] pivots = new int[Math.min(m, n)];
+        int r = 0;
+        long flops = 0;
+        for (int c = 0; c < n && r < m; c++) {
+            int pivotRow = r;
+            for (int i = r + 1; i < m; i++) {
+                if (Math.abs(reduced[i][c]) > Math.abs(reduced[pivotRow][c]))
+                    pivotRow = i;
+            }
+            if (Math.abs(reduced[pivotRow][c]) <= tolerance) { //No pivot in this column. What is left of it is rounding noise.
+                for (int i = r; i < m; i++) {
+                    reduced[i][c] = 0;
+                }
+                continue;
+            }
+
+            if (pivotRow != r) {
+                double[] temp = reduced[pivotRow];
+                reduced[pivotRow] = reduced[r];
+                reduced[r] = temp;
+                record(SWAP, pivotRow, r, 0);
+            }
+
+            //The elements before column c are zero in the pivot row, so only the columns from c on are changed.
+            double[] pivotElements = reduced[r];
+            double scale = 1 / pivotElements[c];
+            VectorKernels.INSTANCE.scale(pivotElements, c + 1, n - c - 1, scale);
+            pivotElements[c] = 1;
+            record(SCALE, r, r, scale);
+
+            for (int i = 0; i < m; i++) {
+                double factor = reduced[i][c];
+                if (i == r || factor == 0)
+                    continue;
+                VectorKernels.INSTANCE.addScaled(reduced[i], c + 1, pivotElements, c + 1, n - c - 1, -factor);
+                reduced[i][c] = 0;
+                record(ADD, r, i, -factor);
+                flops += 2L * (n - c - 1);
+            }
+            pivots[r++] = c;
+        }
+
+        rank = r;
+        pivotColumns = Arrays.copyOf(pivots, r);
+        columnSpace = new double[m][r];
+        for (int i = 0; i < m; i++) {
+            int index = matrix.index(i, 0);
+            for (int k = 0; k < r; k++) {
+                columnSpace[i][k] = data[index + pivotColumns[k] * columnStride];
+            }
+        }
+
+        if (event != null)
+            Metrics.end(event, m, n, flops);
+    }
+
+    //Returns max(m, n) * eps * normInf(A), the tolerance used when none is given.
+    public static double defaultTolerance(Matrix matrix) {
+        return Math.max(matrix.getRowCount(), matrix.getColumnCount()) * Math.ulp(1.0) * matrix.normInf();
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    //Returns the reduced row echelon form R.
+    public Matrix getReducedMatrix() {
+        return new Matrix(reduced);
+    }
+
+    //Returns the rank of the matrix, the number of pivots.
+    public int getRank() {
+        return rank;
+    }
+
+    //Returns the columns which contain the pivots, in increasing order. Row i of R has its pivot in column getPivotColumns()[i].
+    public int[] getPivotColumns() {
+        return pivotColumns.clone();
+    }
+
+    //Returns a basis of the column space (the range) of the matrix as the columns of an m x rank matrix: the pivot columns of the original matrix.
+    //Throws a RuntimeException if the rank is 0, since the basis is empty.
+    public Matrix getColumnSpaceBasis() {
+        checkNonZeroRank();
+        return new Matrix(columnSpace);
+    }
+
+    //Returns a basis of the row space of the matrix as the rows of a rank x n matrix: the non-zero rows of R.
+    //Throws a RuntimeException if the rank is 0, since the basis is empty.
+    public Matrix getRowSpaceBasis() {
+        checkNonZeroRank();
+        return new Matrix(Arrays.copyOf(reduced, rank));
+    }
+
+    //Returns a basis of the null space (the kernel) of the matrix as the columns of an n x (n - rank) matrix. Column k solves Ax = 0 with 1 at the k-th
+    //column which has no pivot, 0 at the other such columns and the negated elements of that column of R at the pivot columns.
+    //Throws a RuntimeException if the rank is n, since then the null space contains only the zero vector.
+    public Matrix getNullSpaceBasis() {
+        if (rank == columnCount)
+            throw new RuntimeException("The null space of a matrix with full column rank contains only the zero vector.");
+
+        Matrix basis = new Matrix(columnCount, columnCount - rank);
+        int k = 0;
+        for (int c = 0, p = 0; c < columnCount; c++) {
+            if (p < rank && pivotColumns[p] == c) {
+                p++;
+                continue;
+            }
+            for (int i = 0; i < rank; i++) {
+                basis.setElement(pivotColumns[i], k, -reduced[i][c]);
+            }
+            basis.setElement(c, k++, 1);
+        }
+        return basis;
+    }
+
+    //Checks whether the row operations were recorded.
+    public boolean isRecorded() {
+        return recorded;
+    }
+
+    //Returns the number of recorded row operations.
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    //Applies the recorded row operations, in order, to the given matrix, which must have as many rows as the reduced matrix. Any column count and layout work.
+    //Applied to [A | B], they give [R | EB]. Throws a RuntimeException if the operations were not recorded.
+    public void apply(Matrix target) {
+        checkTarget(target);
+        replay(target);
+    }
+
+    //Applies the recorded row operations to each of the given matrices. All of them are checked before any of them is changed.
+    public void apply(Matrix... targets) {
+        for (Matrix target : targets) {
+            checkTarget(target);
+        }
+        for (Matrix target : targets) {
+            replay(target);
+        }
+    }
+
+    //Applies the recorded row operations to the vector, which is treated as a column vector, e.g. a right-hand side of Ax = b.
+    public void apply(Vector target) {
+        if (!recorded)
+            throw new RuntimeException("The row operations were not recorded.");
+        if (target.getDimension() != reduced.length)
+            throw new IllegalArgumentException("Dimension of the vector does not match the row count of the reduced matrix.");
+
+        target.modified();
+        double[] components = target.getComponents();
+        int offset = target.getOffset(), stride = target.getStride();
+        for (int k = 0; k < operationCount; k++) {
+            int source = offset + sources[k] * stride, destination = offset + targets[k] * stride;
+            switch (kinds[k]) {
+                case SWAP:
+                    double temp = components[source];
+                    components[source] = components[destination];
+                    components[destination] = temp;
+                    break;
+                case SCALE:
+                    components[destination] *= factors[k];
+                    break;
+                default:
+                    components[destination] += factors[k] * components[source];
+            }
+        }
+    }
+
+    private void checkTarget(Matrix target) {
+        if (!recorded)
+            throw new RuntimeException("The row operations were not recorded.");
+        if (target.getRowCount() != reduced.length)
+            throw new IllegalArgumentException("Row count of the matrix does not match the row count of the reduced matrix.");
+    }
+
+    private void replay(Matrix target) {
+        target.modified();
+        for (int k = 0; k < operationCount; k++) {
+            switch (kinds[k]) {
+                case SWAP:
+                    target.swapRows(sources[k], targets[k]);
+                    break;
+                case SCALE:
+                    target.scaleRow(targets[k], factors[k]);
+                    break;
+                default:
+                    target.addScaledRow(sources[k], targets[k], factors[k]);
+            }
+        }
+    }
+
+    private void record(int kind, int source, int target, double factor) {
+        if (!recorded)
+            return;
+
+        if (operationCount == kinds.length) {
+            int capacity = 2 * operationCount;
+            kinds = Arrays.copyOf(kinds, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            factors = Arrays.copyOf(factors, capacity);
+        }
+        kinds[operationCount] = (byte) kind;
+        sources[operationCount] = source;
+        targets[operationCount] = target;
+        factors[operationCount++] = factor;
+    }
+
+    private void checkNonZeroRank() {
+        if (rank == 0)
+            throw new RuntimeException("The basis of a matrix with rank 0 is empty.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+//Plain loop implementations of the kernels. Used when the jdk.incubator.vector module is not available.
+//The loops are simple enough for the JIT compiler to vectorize some of them (add, subtract, scale) by itself.
+final class ScalarVectorKernels extends VectorKernels {
+
+    @Override
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfSquares(double[] a, int offset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            double value = a[offset + i];
+            result += value * value;
+        }
+        return result;
+    }
+
+    @Override
+    void add(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+    }
+
+    @Override
+    void subtract(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] -= b[bOffset + i];
+        }
+    }
+
+    @Override
+    void addScaled(double[] a, int aOffset, double[] b, int bOffset, int length, double scalar) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] += scalar * b[bOffset + i];
+        }
+    }
+
+    @Override
+    void scale(double[] a, int offset, int length, double scalar) {
+        for (int i = 0; i < length; i++) {
+            a[offset + i] *= scalar;
+        }
+    }
+
+    @Override
+    double sum(double[] a, int offset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result += a[offset + i];
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfAbsolutes(double[] a, int offset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result += Math.abs(a[offset + i]);
+        }
+        return result;
+    }
+
+    @Override
+    double max(double[] a, int offset, int length) {
+        double result = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            result = Math.max(result, a[offset + i]);
+        }
+        return result;
+    }
+
+    @Override
+    double maxOfAbsolutes(double[] a, int offset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result = Math.max(result, Math.abs(a[offset + i]));
+        }
+        return result;
+    }
+
+    @Override
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float result = 0;
+        for (int i = 0; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    double mixedDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            result += (double) a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfSquares(float[] a, int offset, int length) {
+        double result = 0;
+        for (int i = 0; i < length; i++) {
+            double value = a[offset + i];
+            result += value * value;
+        }
+        return result;
+    }
+
+    @Override
+    void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+    }
+
+    @Override
+    void subtract(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] -= b[bOffset + i];
+        }
+    }
+
+    @Override
+    void addScaled(float[] a, int aOffset, float[] b, int bOffset, int length, float scalar) {
+        for (int i = 0; i < length; i++) {
+            a[aOffset + i] += scalar * b[bOffset + i];
+        }
+    }
+
+    @Override
+    void scale(float[] a, int offset, int length, float scalar) {
+        for (int i = 0; i < length; i++) {
+            a[offset + i] *= scalar;
+        }
+    }
+
+    @Override
+    boolean isSimd() {
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+//SIMD implementations of the kernels using the jdk.incubator.vector module. Each loop processes as many elements at once as the widest
+//vector register of the CPU holds, the remaining elements are processed one by one.
+//Dot products and sums of squares use fused multiply-add with two accumulators. Their results may differ from the scalar ones in the last digits
+//because the products are summed in a different order.
+//Loaded by VectorKernels through reflection, so that the other classes do not depend on the module.
+//FloatVector in this file is the vector type of the module: the single-type import shadows the FloatVector class of the library.
+final class SimdVectorKernels extends VectorKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    //Floats are twice as many per register. The mixed dot product loads half as many floats as a register holds and widens them to a register of doubles.
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int FLOAT_LANES = FLOAT_SPECIES.length();
+    private static final VectorSpecies<Float> HALF_FLOAT_SPECIES = VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    @Override
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+        DoubleVector sum2 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * LANES <= length; i += 2 * LANES) {
+            sum1 = DoubleVector.fromArray(SPECIES, a, aOffset + i).fma(DoubleVector.fromArray(SPECIES, b, bOffset + i), sum1);
+            sum2 = DoubleVector.fromArray(SPECIES, a, aOffset + i + LANES).fma(DoubleVector.fromArray(SPECIES, b, bOffset + i + LANES), sum2);
+        }
+        for (; i + LANES <= length; i += LANES) {
+            sum1 = DoubleVector.fromArray(SPECIES, a, aOffset + i).fma(DoubleVector.fromArray(SPECIES, b, bOffset + i), sum1);
+        }
+        double result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result = Math.fma(a[aOffset + i], b[bOffset + i], result);
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfSquares(double[] a, int offset, int length) {
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+        DoubleVector sum2 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * LANES <= length; i += 2 * LANES) {
+            DoubleVector v1 = DoubleVector.fromArray(SPECIES, a, offset + i);
+            DoubleVector v2 = DoubleVector.fromArray(SPECIES, a, offset + i + LANES);
+            sum1 = v1.fma(v1, sum1);
+            sum2 = v2.fma(v2, sum2);
+        }
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, a, offset + i);
+            sum1 = v.fma(v, sum1);
+        }
+        double result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result = Math.fma(a[offset + i], a[offset + i], result);
+        }
+        return result;
+    }
+
+    @Override
+    void add(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i).add(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+    }
+
+    @Override
+    void subtract(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i).sub(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] -= b[bOffset + i];
+        }
+    }
+
+    @Override
+    void addScaled(double[] a, int aOffset, double[] b, int bOffset, int length, double scalar) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, scalar);
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector.fromArray(SPECIES, b, bOffset + i).fma(factor, DoubleVector.fromArray(SPECIES, a, aOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] = Math.fma(scalar, b[bOffset + i], a[aOffset + i]);
+        }
+    }
+
+    @Override
+    void scale(double[] a, int offset, int length, double scalar) {
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector.fromArray(SPECIES, a, offset + i).mul(scalar).intoArray(a, offset + i);
+        }
+        for (; i < length; i++) {
+            a[offset + i] *= scalar;
+        }
+    }
+
+    @Override
+    double sum(double[] a, int offset, int length) {
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+        DoubleVector sum2 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * LANES <= length; i += 2 * LANES) {
+            sum1 = sum1.add(DoubleVector.fromArray(SPECIES, a, offset + i));
+            sum2 = sum2.add(DoubleVector.fromArray(SPECIES, a, offset + i + LANES));
+        }
+        for (; i + LANES <= length; i += LANES) {
+            sum1 = sum1.add(DoubleVector.fromArray(SPECIES, a, offset + i));
+        }
+        double result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[offset + i];
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfAbsolutes(double[] a, int offset, int length) {
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+        DoubleVector sum2 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * LANES <= length; i += 2 * LANES) {
+            sum1 = sum1.add(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+            sum2 = sum2.add(DoubleVector.fromArray(SPECIES, a, offset + i + LANES).abs());
+        }
+        for (; i + LANES <= length; i += LANES) {
+            sum1 = sum1.add(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+        }
+        double result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += Math.abs(a[offset + i]);
+        }
+        return result;
+    }
+
+    @Override
+    double max(double[] a, int offset, int length) {
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            max = max.max(DoubleVector.fromArray(SPECIES, a, offset + i));
+        }
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            result = Math.max(result, a[offset + i]);
+        }
+        return result;
+    }
+
+    @Override
+    double maxOfAbsolutes(double[] a, int offset, int length) {
+        DoubleVector max = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            max = max.max(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+        }
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            result = Math.max(result, Math.abs(a[offset + i]));
+        }
+        return result;
+    }
+
+    @Override
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum1 = FloatVector.zero(FLOAT_SPECIES);
+        FloatVector sum2 = FloatVector.zero(FLOAT_SPECIES);
+        int i = 0;
+        for (; i + 2 * FLOAT_LANES <= length; i += 2 * FLOAT_LANES) {
+            sum1 = FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i).fma(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i), sum1);
+            sum2 = FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i + FLOAT_LANES).fma(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i + FLOAT_LANES), sum2);
+        }
+        for (; i + FLOAT_LANES <= length; i += FLOAT_LANES) {
+            sum1 = FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i).fma(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i), sum1);
+        }
+        float result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result = Math.fma(a[aOffset + i], b[bOffset + i], result);
+        }
+        return result;
+    }
+
+    @Override
+    double mixedDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+        DoubleVector sum2 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * LANES <= length; i += 2 * LANES) {
+            sum1 = widen(a, aOffset + i).fma(widen(b, bOffset + i), sum1);
+            sum2 = widen(a, aOffset + i + LANES).fma(widen(b, bOffset + i + LANES), sum2);
+        }
+        for (; i + LANES <= length; i += LANES) {
+            sum1 = widen(a, aOffset + i).fma(widen(b, bOffset + i), sum1);
+        }
+        double result = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result = Math.fma(a[aOffset + i], b[bOffset + i], result);
+        }
+        return result;
+    }
+
+    @Override
+    double sumOfSquares(float[] a, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector v = widen(a, offset + i);
+            sum = v.fma(v, sum);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double value = a[offset + i];
+            result = Math.fma(value, value, result);
+        }
+        return result;
+    }
+
+    //Loads LANES floats and converts them to a vector of doubles.
+    private static DoubleVector widen(float[] a, int offset) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, a, offset).convertShape(VectorOperators.F2D, SPECIES, 0);
+    }
+
+    @Override
+    void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+        for (; i + FLOAT_LANES <= length; i += FLOAT_LANES) {
+            FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i).add(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+    }
+
+    @Override
+    void subtract(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+        for (; i + FLOAT_LANES <= length; i += FLOAT_LANES) {
+            FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i).sub(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] -= b[bOffset + i];
+        }
+    }
+
+    @Override
+    void addScaled(float[] a, int aOffset, float[] b, int bOffset, int length, float scalar) {
+        FloatVector factor = FloatVector.broadcast(FLOAT_SPECIES, scalar);
+        int i = 0;
+        for (; i + FLOAT_LANES <= length; i += FLOAT_LANES) {
+            FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + i).fma(factor, FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + i)).intoArray(a, aOffset + i);
+        }
+        for (; i < length; i++) {
+            a[aOffset + i] = Math.fma(scalar, b[bOffset + i], a[aOffset + i]);
+        }
+    }
+
+    @Override
+    void scale(float[] a, int offset, int length, float scalar) {
+        int i = 0;
+        for (; i + FLOAT_LANES <= length; i += FLOAT_LANES) {
+            FloatVector.fromArray(FLOAT_SPECIES, a, offset + i).mul(scalar).intoArray(a, offset + i);
+        }
+        for (; i < length; i++) {
+            a[offset + i] *= scalar;
+        }
+    }
+
+    @Override
+    boolean isSimd() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,441 @@
+import java.util.Arrays;
+
+//A sparse matrix in the compressed sparse row (CSR) format. Only the non-zero elements are stored:
+//the non-zero elements of row i are values[rowPointers[i]] ... values[rowPointers[i + 1] - 1], and their columns are in columnIndices, in increasing order.
+//The compressed sparse column (CSC) format of a matrix is the CSR format of its transpose, so getTranspose gives the column-wise access in O(nnz).
+//Sparse matrices are immutable. They are created from coordinate triplets (fromTriplets, Builder) or from a dense Matrix (fromMatrix).
+//The memory and the number of operations are proportional to the number of non-zero elements (nnz) instead of rows * columns.
+public class SparseMatrix {
+
+    private final int rowCount;
+    private final int columnCount;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    private final int[] columnNonZeroCounts; //Number of non-zero elements in each column. Makes isZeroColumn an O(1) lookup.
+
+    //Creates a matrix from CSR arrays which are already sorted, without duplicates and zeros. The arrays are not copied.
+    private SparseMatrix(int rowCount, int columnCount, int[] rowPointers, int[] columnIndices, double[] values) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+
+        columnNonZeroCounts = new int[columnCount];
+        for (int k = 0; k < rowPointers[rowCount]; k++) {
+            columnNonZeroCounts[columnIndices[k]]++;
+        }
+    }
+
+    //Creates a sparse matrix of the given dimension from coordinate triplets: the element at (rows[k], columns[k]) is values[k].
+    //Triplets may be in any order. Values of the same coordinates are added together, zeros are not stored. Runs in O(rows + columns + nnz).
+    //Throws an IllegalArgumentException if the three arrays do not have the same length.
+    public static SparseMatrix fromTriplets(int rowCount, int columnCount, int[] rows, int[] columns, double[] values) {
+        if (rows.length != values.length || columns.length != values.length)
+            throw new IllegalArgumentException("Rows, columns and values must have the same length.");
+        return fromTriplets(rowCount, columnCount, rows, columns, values, values.length);
+    }
+
+    //Builds the matrix from the first count triplets. The arrays of the Builder may be longer than that.
+    private static SparseMatrix fromTriplets(int rowCount, int columnCount, int[] rows, int[] columns, double[] values, int count) {
+        if (rowCount < 1 || columnCount < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1x1");
+        if (rows.length < count || columns.length < count || values.length < count)
+            throw new IllegalArgumentException("Rows, columns and values must have at least " + count + " elements.");
+
+        for (int k = 0; k < count; k++) {
+            if (rows[k] < 0 || rows[k] >= rowCount || columns[k] < 0 || columns[k] >= columnCount)
+                throw new IndexOutOfBoundsException("Location " + rows[k] + ", " + columns[k] + " does not exist in the matrix.");
+        }
+
+        //Two counting sorts, first by column and then (stable) by row, sort the triplets by row and then by column.
+        int[] byColumn = countingSort(columns, count, columnCount, null);
+        int[] order = countingSort(rows, count, rowCount, byColumn);
+
+        int[] rowPointers = new int[rowCount + 1];
+        int[] columnIndices = new int[count];
+        double[] sortedValues = new double[count];
+        int size = 0;
+        int k = 0;
+        for (int i = 0; i < rowCount; i++) {
+            rowPointers[i] = size;
+            while (k < count && rows[order[k]] == i) {
+                int column = columns[order[k]];
+                double value = 0;
+                while (k < count && rows[order[k]] == i && columns[order[k]] == column) { //Adds the duplicates together.
+                    value += values[order[k]];
+                    k++;
+                }
+                if (value != 0) {
+                    columnIndices[size] = column;
+                    sortedValues[size] = value;
+                    size++;
+                }
+            }
+        }
+        rowPointers[rowCount] = size;
+
+        return new SparseMatrix(rowCount, columnCount, rowPointers, Arrays.copyOf(columnIndices, size), Arrays.copyOf(sortedValues, size));
+    }
+
+    //Returns the positions of the triplets sorted by the given keys. If previousOrder is given, the positions are taken in that order (stable sort).
+    private static int[] countingSort(int[] keys, int count, int keyCount, int[] previousOrder) {
+        int[] starts = new int[keyCount + 1];
+        for (int k = 0; k < count; k++) {
+            starts[keys[k] + 1]++;
+        }
+        for (int key = 0; key < keyCount; key++) {
+            starts[key + 1] += starts[key];
+        }
+        int[] order = new int[count];
+        for (int k = 0; k < count; k++) {
+            int position = previousOrder != null ? previousOrder[k] : k;
+            order[starts[keys[position]]++] = position;
+        }
+        return order;
+    }
+
+    //Creates a sparse matrix from the non-zero elements of a dense matrix.
+    public static SparseMatrix fromMatrix(Matrix matrix) {
+        int rows = matrix.getRowCount();
+        int columns = matrix.getColumnCount();
+        int[] rowPointers = new int[rows + 1];
+
+        int nonZeroCount = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (matrix.getElement(i, j) != 0)
+                    nonZeroCount++;
+            }
+        }
+
+        int[] columnIndices = new int[nonZeroCount];
+        double[] values = new double[nonZeroCount];
+        int size = 0;
+        for (int i = 0; i < rows; i++) {
+            rowPointers[i] = size;
+            for (int j = 0; j < columns; j++) {
+                double value = matrix.getElement(i, j);
+                if (value != 0) {
+                    columnIndices[size] = j;
+                    values[size] = value;
+                    size++;
+                }
+            }
+        }
+        rowPointers[rows] = size;
+
+        return new SparseMatrix(rows, columns, rowPointers, columnIndices, values);
+    }
+
+    //Creates and returns a dense matrix with the same elements.
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(rowCount, columnCount);
+        for (int i = 0; i < rowCount; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                matrix.setElement(i, columnIndices[k], values[k]);
+            }
+        }
+        return matrix;
+    }
+
+    //Returns the count of rows of the matrix.
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    //Returns the count of columns of the matrix.
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    //Returns the number of stored (non-zero) elements.
+    public int getNonZeroCount() {
+        return rowPointers[rowCount];
+    }
+
+    //Returns the element at given coordinates. Finds it with a binary search in the row, O(log(nnz of the row)).
+    public double getElement(int row, int column) {
+        if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+
+        int position = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return position >= 0 ? values[position] : 0;
+    }
+
+    //Checks whether all elements in the given row are zero. O(1).
+    public boolean isZeroRow(int row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+        return rowPointers[row] == rowPointers[row + 1];
+    }
+
+    //Checks whether all elements in the given column are zero. O(1).
+    public boolean isZeroColumn(int column) {
+        if (column < 0 || column >= columnCount)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+        return columnNonZeroCounts[column] == 0;
+    }
+
+    //Computes the determinant. If the matrix has a row or a column with all zeroes, returns 0 without any further work.
+    //Otherwise the determinant is computed from the LU decomposition of the dense matrix.
+    public double determinant() {
+        if (rowCount != columnCount)
+            throw new RuntimeException("Determinant of non-square matrices cannot be computed.");
+
+        for (int i = 0; i < rowCount; i++) {
+            if (isZeroRow(i) || isZeroColumn(i))
+                return 0;
+        }
+        return toMatrix().determinant();
+    }
+
+    //Creates and returns the transpose of the matrix in O(rows + columns + nnz). Its CSR arrays are the CSC arrays of this matrix.
+    public SparseMatrix getTranspose() {
+        int nonZeroCount = getNonZeroCount();
+        int[] transposedPointers = new int[columnCount + 1];
+        for (int j = 0; j < columnCount; j++) {
+            transposedPointers[j + 1] = transposedPointers[j] + columnNonZeroCounts[j];
+        }
+
+        int[] next = Arrays.copyOf(transposedPointers, columnCount);
+        int[] transposedIndices = new int[nonZeroCount];
+        double[] transposedValues = new double[nonZeroCount];
+        for (int i = 0; i < rowCount; i++) { //Rows are visited in order, so the column indices of the transpose are sorted.
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int position = next[columnIndices[k]]++;
+                transposedIndices[position] = i;
+                transposedValues[position] = values[k];
+            }
+        }
+
+        return new SparseMatrix(columnCount, rowCount, transposedPointers, transposedIndices, transposedValues);
+    }
+
+    //Adds two sparse matrices and returns the result as a new sparse matrix. Each row is merged in O(nnz of the row).
+    //Throws an IllegalArgumentException when the two matrices' dimensions are not equal.
+    public static SparseMatrix addition(SparseMatrix m1, SparseMatrix m2) {
+        if (m1.rowCount != m2.rowCount || m1.columnCount != m2.columnCount)
+            throw new IllegalArgumentException("Dimensions of two matrices are not equal.");
+
+        int capacity = m1.getNonZeroCount() + m2.getNonZeroCount();
+        int[] rowPointers = new int[m1.rowCount + 1];
+        int[] columnIndices = new int[capacity];
+        double[] values = new double[capacity];
+        int size = 0;
+
+        for (int i = 0; i < m1.rowCount; i++) {
+            rowPointers[i] = size;
+            int k1 = m1.rowPointers[i], end1 = m1.rowPointers[i + 1];
+            int k2 = m2.rowPointers[i], end2 = m2.rowPointers[i + 1];
+            while (k1 < end1 || k2 < end2) {
+                int column1 = k1 < end1 ? m1.columnIndices[k1] : Integer.MAX_VALUE;
+                int column2 = k2 < end2 ? m2.columnIndices[k2] : Integer.MAX_VALUE;
+                int column = Math.min(column1, column2);
+                double value = 0;
+                if (column1 == column)
+                    value += m1.values[k1++];
+                if (column2 == column)
+                    value += m2.values[k2++];
+                if (value != 0) {
+                    columnIndices[size] = column;
+                    values[size] = value;
+                    size++;
+                }
+            }
+        }
+        rowPointers[m1.rowCount] = size;
+
+        return new SparseMatrix(m1.rowCount, m1.columnCount, rowPointers, Arrays.copyOf(columnIndices, size), Arrays.copyOf(values, size));
+    }
+
+    //Multiplies the sparse matrix by a dense vector (SpMV) and returns the resultant vector. O(nnz).
+    public static Vector multiplication(SparseMatrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.rowCount);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the sparse matrix by a dense vector into the given vector instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the vector.
+    public static void multiplyInto(SparseMatrix matrix, Vector vector, Vector destination) {
+        if (matrix.columnCount != vector.getDimension())
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.rowCount)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents())
+            throw new IllegalArgumentException("The destination vector cannot share its components with the vector.");
+        destination.modified();
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.SPARSE_MATRIX_VECTOR_MULTIPLICATION);
+
+        double[] x = vector.getComponents();
+        int xOffset = vector.getOffset();
+        int xStride = vector.getStride();
+
+        double[] y = destination.getComponents();
+        int yOffset = destination.getOffset();
+        int yStride = destination.getStride();
+        for (int i = 0; i < matrix.rowCount; i++) {
+            double sum = 0;
+            for (int k = matrix.rowPointers[i]; k < matrix.rowPointers[i + 1]; k++) {
+                sum += matrix.values[k] * x[xOffset + matrix.columnIndices[k] * xStride];
+            }
+            y[yOffset + i * yStride] = sum;
+        }
+
+        if (event != null)
+            Metrics.end(event, matrix.rowCount, matrix.columnCount, 2L * matrix.getNonZeroCount());
+    }
+
+    //Multiplies the sparse matrix by a dense matrix and returns the resultant dense matrix. O(nnz * columns of the dense matrix).
+    //Each non-zero element (i, k) adds a multiple of row k of the dense matrix to row i of the result.
+    public static Matrix multiplication(SparseMatrix m1, Matrix m2) {
+        if (m1.columnCount != m2.getRowCount())
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int columns = m2.getColumnCount();
+        Matrix dense = m2.getColumnStride() == 1 ? m2 : new Matrix(m2); //Rows of the dense matrix must be contiguous for the kernel.
+        Matrix result = new Matrix(m1.rowCount, columns);
+        double[] resultData = result.getData();
+
+        for (int i = 0; i < m1.rowCount; i++) {
+            int resultRow = result.index(i, 0);
+            for (int k = m1.rowPointers[i]; k < m1.rowPointers[i + 1]; k++) {
+                VectorKernels.INSTANCE.addScaled(resultData, resultRow, dense.getData(), dense.index(m1.columnIndices[k], 0), columns, m1.values[k]);
+            }
+        }
+        return result;
+    }
+
+    //Multiplies a dense matrix by the sparse matrix and returns the resultant dense matrix. O(rows of the dense matrix * nnz).
+    //Each element (i, k) of the dense matrix scatters a multiple of row k of the sparse matrix into row i of the result.
+    public static Matrix multiplication(Matrix m1, SparseMatrix m2) {
+        if (m1.getColumnCount() != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int rows = m1.getRowCount();
+        Matrix result = new Matrix(rows, m2.columnCount);
+        double[] resultData = result.getData();
+        double[] data = m1.getData();
+
+        for (int i = 0; i < rows; i++) {
+            int resultRow = result.index(i, 0);
+            for (int k = 0; k < m2.rowCount; k++) {
+                double factor = data[m1.index(i, k)];
+                if (factor == 0)
+                    continue;
+                for (int position = m2.rowPointers[k]; position < m2.rowPointers[k + 1]; position++) {
+                    resultData[resultRow + m2.columnIndices[position]] += factor * m2.values[position];
+                }
+            }
+        }
+        return result;
+    }
+
+    //Multiplies two sparse matrices (SpGEMM) with Gustavson's algorithm and returns the resultant sparse matrix.
+    //Each row of the result is accumulated in a dense array, only the columns which were reached are visited and stored.
+    public static SparseMatrix multiplication(SparseMatrix m1, SparseMatrix m2) {
+        if (m1.columnCount != m2.rowCount)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int columns = m2.columnCount;
+        double[] accumulator = new double[columns];
+        int[] marker = new int[columns]; //marker[j] == i + 1 if column j was already reached in row i.
+        int[] rowColumns = new int[columns]; //Columns reached in the current row.
+
+        int[] rowPointers = new int[m1.rowCount + 1];
+        int[] columnIndices = new int[Math.max(16, m1.getNonZeroCount() + m2.getNonZeroCount())];
+        double[] values = new double[columnIndices.length];
+        int size = 0;
+
+        for (int i = 0; i < m1.rowCount; i++) {
+            rowPointers[i] = size;
+            int reached = 0;
+            for (int k = m1.rowPointers[i]; k < m1.rowPointers[i + 1]; k++) {
+                int row = m1.columnIndices[k];
+                double factor = m1.values[k];
+                for (int position = m2.rowPointers[row]; position < m2.rowPointers[row + 1]; position++) {
+                    int column = m2.columnIndices[position];
+                    if (marker[column] != i + 1) {
+                        marker[column] = i + 1;
+                        accumulator[column] = 0;
+                        rowColumns[reached++] = column;
+                    }
+                    accumulator[column] += factor * m2.values[position];
+                }
+            }
+
+            Arrays.sort(rowColumns, 0, reached);
+            if (size + reached > columnIndices.length) {
+                int capacity = Math.max(columnIndices.length * 2, size + reached);
+                columnIndices = Arrays.copyOf(columnIndices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int r = 0; r < reached; r++) {
+                double value = accumulator[rowColumns[r]];
+                if (value != 0) {
+                    columnIndices[size] = rowColumns[r];
+                    values[size] = value;
+                    size++;
+                }
+            }
+        }
+        rowPointers[m1.rowCount] = size;
+
+        return new SparseMatrix(m1.rowCount, columns, rowPointers, Arrays.copyOf(columnIndices, size), Arrays.copyOf(values, size));
+    }
+
+    //Returns a string with the non-zero elements, one per line in the form "(row, column) value".
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(rowCount).append("x").append(columnCount).append(" sparse matrix, ").append(getNonZeroCount()).append(" non-zero elements\n");
+        for (int i = 0; i < rowCount; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                text.append("(").append(i).append(", ").append(columnIndices[k]).append(") ").append(values[k]).append("\n");
+            }
+        }
+        return text.toString();
+    }
+
+    //Collects coordinate triplets and builds a sparse matrix from them. Duplicates are added together (see fromTriplets).
+    public static class Builder {
+
+        private final int rowCount;
+        private final int columnCount;
+        private int[] rows = new int[16];
+        private int[] columns = new int[16];
+        private double[] values = new double[16];
+        private int size;
+
+        //Creates a builder for a matrix of the given dimension.
+        public Builder(int rowCount, int columnCount) {
+            if (rowCount < 1 || columnCount < 1)
+                throw new IllegalArgumentException("Dimension must be at least 1x1");
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+
+        //Adds the value to the element at given coordinates.
+        public Builder add(int row, int column, double value) {
+            if (row < 0 || column < 0 || row >= rowCount || column >= columnCount)
+                throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                columns = Arrays.copyOf(columns, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            rows[size] = row;
+            columns[size] = column;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        //Creates the sparse matrix. The builder can be used further afterwards.
+        public SparseMatrix build() {
+            return fromTriplets(rowCount, columnCount, rows, columns, values, size);
+        }
+    }
+}
\ No newline at end of file
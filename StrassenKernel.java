@@ -0,0 +1,214 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//The Strassen-Winograd multiplication used by Matrix.strassenMultiplyInto. Each level splits the matrices into quadrants and computes the product
+//with 7 multiplications and 15 additions of quadrants instead of 8 multiplications, which gives a complexity of O(n^2.81).
+//Products with a dimension at or below the crossover use the classical kernel (MultiplicationKernel), for which the saved multiplication no longer
+//pays for the additions. Odd dimensions are peeled: the even part is split, and the last row, column and inner index are added with the classical kernel in O(n^2).
+//All matrices passed to the kernel must have a column stride of 1. Apart from the quadrant views, all temporaries are taken from a Workspace.
+final class StrassenKernel {
+
+    private StrassenKernel() {
+    }
+
+    //Computes c = a * b. The first levels are split on the calling thread into independent products which run on up to parallelism threads of the executor,
+    //one level for up to 7 threads and two levels (49 products) for more. Each product continues with the sequential recursion.
+    //The temporaries are taken from the workspace before the products start and released when the product is complete.
+    static void multiply(Matrix a, Matrix b, Matrix c, int crossover, Workspace workspace, Executor executor, int parallelism) {
+        int levels = 0;
+        for (int products = 1; products < parallelism && levels < 2; products *= 7) {
+            levels++;
+        }
+
+        List<Matrix> taken = new ArrayList<>();
+        List<Runnable> products = new ArrayList<>();
+        List<Runnable> combinations = new ArrayList<>();
+        try {
+            split(a, b, c, crossover, levels, workspace, taken, products, combinations);
+            runAll(products, executor, parallelism);
+            for (Runnable combination : combinations) {
+                combination.run();
+            }
+        } finally {
+            for (Matrix matrix : taken) {
+                workspace.release(matrix);
+            }
+        }
+    }
+
+    //Computes c = a * b recursively on the calling thread. The temporaries of each depth are three matrices at 3 * depth in the array (see temporaries).
+    //The schedule overwrites the quadrants of c with partial results, so one level needs only the temporaries x, y and z.
+    static void multiply(Matrix a, Matrix b, Matrix c, int crossover, Matrix[] temporaries, int depth) {
+        int m = a.getRowCount(), k = a.getColumnCount(), n = b.getColumnCount();
+        if (m <= crossover || k <= crossover || n <= crossover) {
+            c.fill(0);
+            MultiplicationKernel.multiply(1, a, b, c);
+            return;
+        }
+
+        int h = m / 2, g = k / 2, w = n / 2;
+        Matrix a11 = block(a, 0, 0, h, g), a12 = block(a, 0, g, h, g), a21 = block(a, h, 0, h, g), a22 = block(a, h, g, h, g);
+        Matrix b11 = block(b, 0, 0, g, w), b12 = block(b, 0, w, g, w), b21 = block(b, g, 0, g, w), b22 = block(b, g, w, g, w);
+        Matrix c11 = block(c, 0, 0, h, w), c12 = block(c, 0, w, h, w), c21 = block(c, h, 0, h, w), c22 = block(c, h, w, h, w);
+        Matrix x = temporaries[3 * depth], y = temporaries[3 * depth + 1], z = temporaries[3 * depth + 2];
+
+        subtract(a11, a21, x); //S3
+        subtract(b22, b12, y); //T3
+        multiply(x, y, c21, crossover, temporaries, depth + 1); //P7 = S3 T3
+        add(a21, a22, x); //S1
+        subtract(b12, b11, y); //T1
+        multiply(x, y, c22, crossover, temporaries, depth + 1); //P5 = S1 T1
+        subtract(x, a11, x); //S2 = S1 - A11
+        subtract(b22, y, y); //T2 = B22 - T1
+        multiply(x, y, c12, crossover, temporaries, depth + 1); //P6 = S2 T2
+        subtract(a12, x, x); //S4 = A12 - S2
+        multiply(x, b22, c11, crossover, temporaries, depth + 1); //P3 = S4 B22
+        multiply(a11, b11, z, crossover, temporaries, depth + 1); //P1 = A11 B11
+        add(z, c12, c12); //U2 = P1 + P6
+        add(c12, c21, c21); //U3 = U2 + P7
+        add(c12, c22, c12); //U4 = U2 + P5
+        add(c21, c22, c22); //C22 = U3 + P5
+        add(c12, c11, c12); //C12 = U4 + P3
+        subtract(y, b21, y); //T4 = T2 - B21
+        multiply(a22, y, c11, crossover, temporaries, depth + 1); //P4 = A22 T4
+        subtract(c21, c11, c21); //C21 = U3 - P4
+        multiply(a12, b21, c11, crossover, temporaries, depth + 1); //P2 = A12 B21
+        add(z, c11, c11); //C11 = P1 + P2
+
+        peel(a, b, c, h, g, w);
+    }
+
+    //Splits c = a * b into the 7 products of one level while levels is greater than 0 and adds the products which are not split any more to products.
+    //The sums of the quadrants are computed immediately, the steps which combine the products into c are added to combinations, each after those of its products.
+    private static void split(Matrix a, Matrix b, Matrix c, int crossover, int levels, Workspace workspace, List<Matrix> taken, List<Runnable> products, List<Runnable> combinations) {
+        int m = a.getRowCount(), k = a.getColumnCount(), n = b.getColumnCount();
+        if (levels == 0 || m <= crossover || k <= crossover || n <= crossover) {
+            Matrix[] temporaries = temporaries(m, k, n, crossover, workspace, taken);
+            products.add(() -> multiply(a, b, c, crossover, temporaries, 0));
+            return;
+        }
+
+        int h = m / 2, g = k / 2, w = n / 2;
+        Matrix a11 = block(a, 0, 0, h, g), a12 = block(a, 0, g, h, g), a21 = block(a, h, 0, h, g), a22 = block(a, h, g, h, g);
+        Matrix b11 = block(b, 0, 0, g, w), b12 = block(b, 0, w, g, w), b21 = block(b, g, 0, g, w), b22 = block(b, g, w, g, w);
+        Matrix c11 = block(c, 0, 0, h, w), c12 = block(c, 0, w, h, w), c21 = block(c, h, 0, h, w), c22 = block(c, h, w, h, w);
+
+        Matrix s1 = take(workspace, taken, h, g), s2 = take(workspace, taken, h, g), s3 = take(workspace, taken, h, g), s4 = take(workspace, taken, h, g);
+        Matrix t1 = take(workspace, taken, g, w), t2 = take(workspace, taken, g, w), t3 = take(workspace, taken, g, w), t4 = take(workspace, taken, g, w);
+        Matrix p1 = take(workspace, taken, h, w), p2 = take(workspace, taken, h, w), p4 = take(workspace, taken, h, w);
+        add(a21, a22, s1);
+        subtract(s1, a11, s2);
+        subtract(a11, a21, s3);
+        subtract(a12, s2, s4);
+        subtract(b12, b11, t1);
+        subtract(b22, t1, t2);
+        subtract(b22, b12, t3);
+        subtract(t2, b21, t4);
+
+        //P3, P5, P6 and P7 are written into the quadrants of c, like in the sequential schedule.
+        split(a11, b11, p1, crossover, levels - 1, workspace, taken, products, combinations);
+        split(a12, b21, p2, crossover, levels - 1, workspace, taken, products, combinations);
+        split(s4, b22, c11, crossover, levels - 1, workspace, taken, products, combinations);
+        split(a22, t4, p4, crossover, levels - 1, workspace, taken, products, combinations);
+        split(s1, t1, c22, crossover, levels - 1, workspace, taken, products, combinations);
+        split(s2, t2, c12, crossover, levels - 1, workspace, taken, products, combinations);
+        split(s3, t3, c21, crossover, levels - 1, workspace, taken, products, combinations);
+
+        combinations.add(() -> {
+            add(p1, c12, c12); //U2 = P1 + P6
+            add(c12, c21, c21); //U3 = U2 + P7
+            add(c12, c22, c12); //U4 = U2 + P5
+            add(c21, c22, c22); //C22 = U3 + P5
+            add(c12, c11, c12); //C12 = U4 + P3
+            subtract(c21, p4, c21); //C21 = U3 - P4
+            add(p1, p2, c11); //C11 = P1 + P2
+            peel(a, b, c, h, g, w);
+        });
+    }
+
+    //Takes the temporaries of the sequential recursion of an m x k times k x n product from the workspace: x, y and z for every depth which is split.
+    private static Matrix[] temporaries(int m, int k, int n, int crossover, Workspace workspace, List<Matrix> taken) {
+        List<Matrix> temporaries = new ArrayList<>();
+        while (m > crossover && k > crossover && n > crossover) {
+            m /= 2;
+            k /= 2;
+            n /= 2;
+            temporaries.add(take(workspace, taken, m, k));
+            temporaries.add(take(workspace, taken, k, n));
+            temporaries.add(take(workspace, taken, m, n));
+        }
+        return temporaries.toArray(new Matrix[0]);
+    }
+
+    private static Matrix take(Workspace workspace, List<Matrix> taken, int rows, int columns) {
+        Matrix matrix = workspace.getMatrix(rows, columns);
+        taken.add(matrix);
+        return matrix;
+    }
+
+    //Completes c = a * b after its even part, the first 2h rows and 2w columns summed over the first 2g inner indices, has been computed.
+    private static void peel(Matrix a, Matrix b, Matrix c, int h, int g, int w) {
+        int m = a.getRowCount(), k = a.getColumnCount(), n = b.getColumnCount();
+        if (k > 2 * g)
+            MultiplicationKernel.multiply(1, block(a, 0, 2 * g, 2 * h, 1), block(b, 2 * g, 0, 1, 2 * w), block(c, 0, 0, 2 * h, 2 * w));
+        if (n > 2 * w) {
+            Matrix column = block(c, 0, 2 * w, 2 * h, 1);
+            column.fill(0);
+            MultiplicationKernel.multiply(1, block(a, 0, 0, 2 * h, k), block(b, 0, 2 * w, k, 1), column);
+        }
+        if (m > 2 * h) {
+            Matrix row = block(c, 2 * h, 0, 1, n);
+            row.fill(0);
+            MultiplicationKernel.multiply(1, block(a, 2 * h, 0, 1, k), b, row);
+        }
+    }
+
+    //Runs the tasks on up to parallelism threads. Every thread, including the calling one, takes the next task until none is left.
+    private static void runAll(List<Runnable> tasks, Executor executor, int parallelism) {
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < tasks.size(); i = next.getAndIncrement()) {
+                tasks.get(i).run();
+            }
+        };
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[Math.min(parallelism, tasks.size()) - 1];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(worker, executor);
+        }
+        worker.run();
+        MultiplicationKernel.join(futures);
+    }
+
+    //Returns the block of the matrix which starts at the given row and column as a view. Unlike getSubMatrixView, the view does not take part in the modification count.
+    private static Matrix block(Matrix matrix, int row, int column, int rows, int columns) {
+        return new Matrix(matrix.getData(), matrix.index(row, column), rows, columns, matrix.getRowStride(), matrix.getColumnStride());
+    }
+
+    //Computes destination = x + y. The destination may be x or y.
+    private static void add(Matrix x, Matrix y, Matrix destination) {
+        double[] xData = x.getData(), yData = y.getData(), data = destination.getData();
+        int columns = destination.getColumnCount();
+        for (int i = 0; i < destination.getRowCount(); i++) {
+            int xIndex = x.index(i, 0), yIndex = y.index(i, 0), index = destination.index(i, 0);
+            for (int j = 0; j < columns; j++) {
+                data[index + j] = xData[xIndex + j] + yData[yIndex + j];
+            }
+        }
+    }
+
+    //Computes destination = x - y. The destination may be x or y.
+    private static void subtract(Matrix x, Matrix y, Matrix destination) {
+        double[] xData = x.getData(), yData = y.getData(), data = destination.getData();
+        int columns = destination.getColumnCount();
+        for (int i = 0; i < destination.getRowCount(); i++) {
+            int xIndex = x.index(i, 0), yIndex = y.index(i, 0), index = destination.index(i, 0);
+            for (int j = 0; j < columns; j++) {
+                data[index + j] = xData[xIndex + j] - yData[yIndex + j];
+            }
+        }
+    }
+}
\ No newline at end of file
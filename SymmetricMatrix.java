@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+//A symmetric square matrix in packed storage: only the upper triangle, n(n + 1)/2 elements, is stored row by row (row i holds columns i to n - 1),
+//which is about half of the memory of a dense matrix. Element (i, j) below the diagonal is read from (j, i).
+//Products read every stored element once and use it for both (i, j) and (j, i), so they need the same multiply-adds as a dense product
+//while reading half of the elements.
+public class SymmetricMatrix {
+
+    private final double[] elements;
+    private final int dimension;
+
+    //Creates a symmetric matrix of the given dimension with zeros.
+    public SymmetricMatrix(int dimension) {
+        if (dimension < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1.");
+        long size = (long) dimension * (dimension + 1) / 2;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Triangle of dimension " + dimension + " does not fit in an array.");
+
+        this.dimension = dimension;
+        elements = new double[(int) size];
+    }
+
+    //Creates a symmetric matrix from the upper triangle of a square dense matrix. The elements below the diagonal are ignored,
+    //so the matrix is not checked for symmetry.
+    public static SymmetricMatrix fromMatrix(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Symmetric matrices must be square.");
+
+        SymmetricMatrix result = new SymmetricMatrix(matrix.getRowCount());
+        double[] data = matrix.getData();
+        int columnStride = matrix.getColumnStride();
+        for (int i = 0; i < result.dimension; i++) {
+            int index = matrix.index(i, i);
+            int start = result.rowStart(i);
+            for (int j = 0; j < result.dimension - i; j++) {
+                result.elements[start + j] = data[index + j * columnStride];
+            }
+        }
+        return result;
+    }
+
+    //Creates and returns a dense matrix with the same elements. Both triangles are filled.
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(dimension, dimension);
+        double[] data = matrix.getData();
+        for (int i = 0; i < dimension; i++) {
+            int start = rowStart(i);
+            System.arraycopy(elements, start, data, matrix.index(i, i), dimension - i);
+            for (int j = i + 1; j < dimension; j++) {
+                data[matrix.index(j, i)] = elements[start + j - i];
+            }
+        }
+        return matrix;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    //Returns the element at given coordinates.
+    public double getElement(int row, int column) {
+        checkLocation(row, column);
+        return row <= column ? elements[rowStart(row) + column - row] : elements[rowStart(column) + row - column];
+    }
+
+    //Sets the element at given coordinates and, since the matrix stays symmetric, the element at the transposed coordinates.
+    public void setElement(int row, int column, double value) {
+        checkLocation(row, column);
+        if (row <= column)
+            elements[rowStart(row) + column - row] = value;
+        else
+            elements[rowStart(column) + row - column] = value;
+    }
+
+    //Multiplies the symmetric matrix by the vector and returns the resultant vector.
+    public static Vector multiplication(SymmetricMatrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.dimension);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the symmetric matrix by the vector into the given vector instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the vector.
+    public static void multiplyInto(SymmetricMatrix matrix, Vector vector, Vector destination) {
+        if (vector.getDimension() != matrix.dimension)
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.dimension)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents())
+            throw new IllegalArgumentException("The destination vector cannot share its components with the vector.");
+        destination.modified();
+
+        double[] x = vector.getComponents(), y = destination.getComponents();
+        int xOffset = vector.getOffset(), xStride = vector.getStride();
+        int yOffset = destination.getOffset(), yStride = destination.getStride();
+        if (xStride == 1 && yStride == 1) {
+            Arrays.fill(y, yOffset, yOffset + matrix.dimension, 0);
+            matrix.multiplyAdd(x, xOffset, y, yOffset);
+            return;
+        }
+        //Views with a stride are multiplied with a plain loop in the same order, so nothing is copied.
+        for (int i = 0; i < matrix.dimension; i++) {
+            y[yOffset + i * yStride] = 0;
+        }
+        for (int i = 0; i < matrix.dimension; i++) {
+            int start = matrix.rowStart(i);
+            double xi = x[xOffset + i * xStride];
+            double sum = matrix.elements[start] * xi;
+            for (int j = i + 1; j < matrix.dimension; j++) {
+                double element = matrix.elements[start + j - i];
+                sum += element * x[xOffset + j * xStride];
+                y[yOffset + j * yStride] += element * xi;
+            }
+            y[yOffset + i * yStride] += sum;
+        }
+    }
+
+    //Multiplies the symmetric matrix by a dense matrix and returns the resultant matrix. Each stored element (i, j) adds a multiple of row j of the dense matrix
+    //to row i of the result and, above the diagonal, a multiple of row i to row j.
+    public static Matrix multiplication(SymmetricMatrix m1, Matrix m2) {
+        if (m1.dimension != m2.getRowCount())
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int columns = m2.getColumnCount();
+        Matrix dense = m2.getColumnStride() == 1 ? m2 : new Matrix(m2); //Rows of the dense matrix must be contiguous for the kernel.
+        double[] data = dense.getData();
+        Matrix result = new Matrix(m1.dimension, columns);
+        double[] resultData = result.getData();
+        for (int i = 0; i < m1.dimension; i++) {
+            int start = m1.rowStart(i);
+            int resultRow = result.index(i, 0), row = dense.index(i, 0);
+            VectorKernels.INSTANCE.addScaled(resultData, resultRow, data, row, columns, m1.elements[start]);
+            for (int j = i + 1; j < m1.dimension; j++) {
+                double factor = m1.elements[start + j - i];
+                if (factor == 0)
+                    continue;
+                VectorKernels.INSTANCE.addScaled(resultData, resultRow, data, dense.index(j, 0), columns, factor);
+                VectorKernels.INSTANCE.addScaled(resultData, result.index(j, 0), data, row, columns, factor);
+            }
+        }
+        return result;
+    }
+
+    //Multiplies a dense matrix by the symmetric matrix and returns the resultant matrix. Since the matrix is symmetric,
+    //row i of the result is the product of the matrix and row i of the dense matrix.
+    public static Matrix multiplication(Matrix m1, SymmetricMatrix m2) {
+        if (m1.getColumnCount() != m2.dimension)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int rows = m1.getRowCount();
+        Matrix dense = m1.getColumnStride() == 1 ? m1 : new Matrix(m1); //Rows of the dense matrix must be contiguous for the kernel.
+        Matrix result = new Matrix(rows, m2.dimension);
+        for (int i = 0; i < rows; i++) {
+            m2.multiplyAdd(dense.getData(), dense.index(i, 0), result.getData(), result.index(i, 0));
+        }
+        return result;
+    }
+
+    //Adds the product of the matrix and the n components of x from xOffset to the n components of y from yOffset. Each stored row is read once:
+    //its dot product with x gives the part of y[i] from the diagonal on, and x[i] times the row adds the transposed elements to the rest of y.
+    private void multiplyAdd(double[] x, int xOffset, double[] y, int yOffset) {
+        for (int i = 0; i < dimension; i++) {
+            int start = rowStart(i), length = dimension - i - 1;
+            y[yOffset + i] += elements[start] * x[xOffset + i] + VectorKernels.INSTANCE.dot(elements, start + 1, x, xOffset + i + 1, length);
+            VectorKernels.INSTANCE.addScaled(y, yOffset + i + 1, elements, start + 1, length, x[xOffset + i]);
+        }
+    }
+
+    //Returns the position of the diagonal element of the row in the packed array.
+    private int rowStart(int row) {
+        return (int) ((long) row * (2 * dimension - row + 1) / 2); //The product may not fit in an int.
+    }
+
+    private void checkLocation(int row, int column) {
+        if (row < 0 || column < 0 || row >= dimension || column >= dimension)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+    }
+
+    //Overrides the toString function. Returns the dense text representation (see Matrix.toString).
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+//An upper or lower triangular square matrix in packed storage: only the n(n + 1)/2 elements of the triangle are stored, row by row.
+//Row i of an upper triangular matrix holds columns i to n - 1, row i of a lower one columns 0 to i, so every row is contiguous and the products and
+//the substitutions run along the rows with the vector kernels. Linear systems are solved by back substitution (upper) or forward substitution (lower)
+//in O(n^2) per right-hand side, without a decomposition. The determinant is the product of the diagonal.
+public class TriangularMatrix {
+
+    private final double[] elements;
+    private final int dimension;
+    private final boolean upper;
+
+    //Creates an upper (if upper is true) or lower triangular matrix of the given dimension with zeros in the triangle.
+    public TriangularMatrix(int dimension, boolean upper) {
+        if (dimension < 1)
+            throw new IllegalArgumentException("Dimension must be at least 1.");
+        long size = (long) dimension * (dimension + 1) / 2;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Triangle of dimension " + dimension + " does not fit in an array.");
+
+        this.dimension = dimension;
+        this.upper = upper;
+        elements = new double[(int) size];
+    }
+
+    //Creates a triangular matrix from the upper (if upper is true) or lower triangle of a square dense matrix. The elements outside the triangle are ignored.
+    public static TriangularMatrix fromMatrix(Matrix matrix, boolean upper) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Triangular matrices must be square.");
+
+        TriangularMatrix result = new TriangularMatrix(matrix.getRowCount(), upper);
+        double[] data = matrix.getData();
+        int columnStride = matrix.getColumnStride();
+        for (int i = 0; i < result.dimension; i++) {
+            int index = matrix.index(i, result.firstColumn(i));
+            int start = result.rowStart(i);
+            for (int j = 0; j < result.rowLength(i); j++) {
+                result.elements[start + j] = data[index + j * columnStride];
+            }
+        }
+        return result;
+    }
+
+    //Creates and returns a dense matrix with the same elements.
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(dimension, dimension);
+        double[] data = matrix.getData();
+        for (int i = 0; i < dimension; i++) {
+            System.arraycopy(elements, rowStart(i), data, matrix.index(i, firstColumn(i)), rowLength(i));
+        }
+        return matrix;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    //Checks whether the matrix is upper triangular. Otherwise it is lower triangular.
+    public boolean isUpper() {
+        return upper;
+    }
+
+    //Returns the element at given coordinates. Elements outside the triangle are 0.
+    public double getElement(int row, int column) {
+        checkLocation(row, column);
+        return inTriangle(row, column) ? elements[rowStart(row) + column - firstColumn(row)] : 0;
+    }
+
+    //Sets the element at given coordinates. Throws an IllegalArgumentException if a non-zero value is set outside the triangle.
+    public void setElement(int row, int column, double value) {
+        checkLocation(row, column);
+        if (inTriangle(row, column))
+            elements[rowStart(row) + column - firstColumn(row)] = value;
+        else if (value != 0)
+            throw new IllegalArgumentException("Elements outside the triangle of a triangular matrix must be 0.");
+    }
+
+    //Returns the product of the diagonal elements.
+    public double determinant() {
+        double determinant = 1;
+        for (int i = 0; i < dimension; i++) {
+            determinant *= elements[diagonalIndex(i)];
+        }
+        return determinant;
+    }
+
+    //Creates and returns the transpose, which is lower triangular if the matrix is upper triangular and vice versa.
+    public TriangularMatrix getTranspose() {
+        TriangularMatrix transpose = new TriangularMatrix(dimension, !upper);
+        for (int i = 0; i < dimension; i++) {
+            int start = rowStart(i), first = firstColumn(i);
+            for (int j = 0; j < rowLength(i); j++) {
+                transpose.elements[transpose.rowStart(first + j) + i - transpose.firstColumn(first + j)] = elements[start + j];
+            }
+        }
+        return transpose;
+    }
+
+    //Solves Tx = b for x by substitution and returns it. O(n^2). Throws a RuntimeException if a diagonal element is 0.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != dimension)
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the matrix.");
+
+        double[] x = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            x[i] = b.getComponent(i);
+        }
+        //Each component is the right-hand side minus the dot product of the rest of its row and the components already solved, divided by the diagonal element.
+        for (int k = 0; k < dimension; k++) {
+            int i = upper ? dimension - 1 - k : k;
+            double diagonal = diagonalElement(i);
+            int start = rowStart(i);
+            double sum = upper
+                    ? VectorKernels.INSTANCE.dot(elements, start + 1, x, i + 1, dimension - i - 1)
+                    : VectorKernels.INSTANCE.dot(elements, start, x, 0, i);
+            x[i] = (x[i] - sum) / diagonal;
+        }
+        return new Vector(x);
+    }
+
+    //Solves TX = B for X by substitution and returns it. Each column of X is the solution for the corresponding column of B.
+    //The rows of X are computed as combinations of the rows solved before, so the inner loops run along contiguous rows. O(n^2) per column of B.
+    //Throws a RuntimeException if a diagonal element is 0.
+    public Matrix solve(Matrix b) {
+        if (b.getRowCount() != dimension)
+            throw new IllegalArgumentException("Row count of the matrix does not match the dimension of the triangular matrix.");
+
+        Matrix x = new Matrix(b);
+        double[] data = x.getData();
+        int columns = x.getColumnCount();
+        for (int k = 0; k < dimension; k++) {
+            int i = upper ? dimension - 1 - k : k;
+            double diagonal = diagonalElement(i);
+            int start = rowStart(i), first = firstColumn(i);
+            int row = x.index(i, 0);
+            for (int j = 0; j < rowLength(i); j++) {
+                double factor = elements[start + j];
+                if (first + j != i && factor != 0)
+                    VectorKernels.INSTANCE.addScaled(data, row, data, x.index(first + j, 0), columns, -factor);
+            }
+            VectorKernels.INSTANCE.scale(data, row, columns, 1 / diagonal);
+        }
+        return x;
+    }
+
+    //Multiplies the triangular matrix by the vector and returns the resultant vector. Each component is the dot product of a packed row and
+    //the corresponding part of the vector, so the zeros are never read. About half of the multiply-adds of a dense matrix.
+    public static Vector multiplication(TriangularMatrix matrix, Vector vector) {
+        Vector result = new Vector(matrix.dimension);
+        multiplyInto(matrix, vector, result);
+        return result;
+    }
+
+    //Multiplies the triangular matrix by the vector into the given vector instead of creating a new one.
+    //Throws an IllegalArgumentException if the dimensions do not match or the destination shares its components with the vector.
+    public static void multiplyInto(TriangularMatrix matrix, Vector vector, Vector destination) {
+        if (vector.getDimension() != matrix.dimension)
+            throw new IllegalArgumentException("Dimensions of the matrix and the vector are not appropriate.");
+        if (destination.getDimension() != matrix.dimension)
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the row count of the matrix.");
+        if (destination.getComponents() == vector.getComponents())
+            throw new IllegalArgumentException("The destination vector cannot share its components with the vector.");
+        destination.modified();
+
+        double[] x = vector.getComponents(), y = destination.getComponents();
+        int xOffset = vector.getOffset(), xStride = vector.getStride();
+        int yOffset = destination.getOffset(), yStride = destination.getStride();
+        for (int i = 0; i < matrix.dimension; i++) {
+            int start = matrix.rowStart(i), first = matrix.firstColumn(i), length = matrix.rowLength(i);
+            double sum;
+            if (xStride == 1) {
+                sum = VectorKernels.INSTANCE.dot(matrix.elements, start, x, xOffset + first, length);
+            }
+            else {
+                sum = 0;
+                for (int j = 0; j < length; j++) {
+                    sum += matrix.elements[start + j] * x[xOffset + (first + j) * xStride];
+                }
+            }
+            y[yOffset + i * yStride] = sum;
+        }
+    }
+
+    //Multiplies the triangular matrix by a dense matrix and returns the resultant matrix. Row i of the result adds the rows of the dense matrix
+    //multiplied by the elements of row i of the triangle, so only the triangle is visited.
+    public static Matrix multiplication(TriangularMatrix m1, Matrix m2) {
+        if (m1.dimension != m2.getRowCount())
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int columns = m2.getColumnCount();
+        Matrix dense = m2.getColumnStride() == 1 ? m2 : new Matrix(m2); //Rows of the dense matrix must be contiguous for the kernel.
+        Matrix result = new Matrix(m1.dimension, columns);
+        double[] resultData = result.getData();
+        for (int i = 0; i < m1.dimension; i++) {
+            int resultRow = result.index(i, 0);
+            int start = m1.rowStart(i), first = m1.firstColumn(i);
+            for (int j = 0; j < m1.rowLength(i); j++) {
+                double factor = m1.elements[start + j];
+                if (factor != 0)
+                    VectorKernels.INSTANCE.addScaled(resultData, resultRow, dense.getData(), dense.index(first + j, 0), columns, factor);
+            }
+        }
+        return result;
+    }
+
+    //Multiplies a dense matrix by the triangular matrix and returns the resultant matrix. Each element (i, k) of the dense matrix adds a multiple of
+    //packed row k of the triangle to the columns of row i of the result which it covers.
+    public static Matrix multiplication(Matrix m1, TriangularMatrix m2) {
+        if (m1.getColumnCount() != m2.dimension)
+            throw new IllegalArgumentException("Dimensions of matrices are not appropriate.");
+
+        int rows = m1.getRowCount();
+        Matrix result = new Matrix(rows, m2.dimension);
+        double[] resultData = result.getData();
+        double[] data = m1.getData();
+        for (int i = 0; i < rows; i++) {
+            int resultRow = result.index(i, 0);
+            for (int k = 0; k < m2.dimension; k++) {
+                double factor = data[m1.index(i, k)];
+                if (factor != 0)
+                    VectorKernels.INSTANCE.addScaled(resultData, resultRow + m2.firstColumn(k), m2.elements, m2.rowStart(k), m2.rowLength(k), factor);
+            }
+        }
+        return result;
+    }
+
+    //Returns the position of the first stored element of the row in the packed array.
+    private int rowStart(int row) {
+        return (int) (upper ? (long) row * (2 * dimension - row + 1) / 2 : (long) row * (row + 1) / 2); //The products may not fit in an int.
+    }
+
+    //Returns the column of the first stored element of the row.
+    private int firstColumn(int row) {
+        return upper ? row : 0;
+    }
+
+    //Returns the number of stored elements of the row.
+    private int rowLength(int row) {
+        return upper ? dimension - row : row + 1;
+    }
+
+    private int diagonalIndex(int row) {
+        return rowStart(row) + row - firstColumn(row);
+    }
+
+    private double diagonalElement(int row) {
+        double diagonal = elements[diagonalIndex(row)];
+        if (diagonal == 0)
+            throw new RuntimeException("The system of a singular matrix cannot be solved.");
+        return diagonal;
+    }
+
+    private boolean inTriangle(int row, int column) {
+        return upper ? column >= row : column <= row;
+    }
+
+    private void checkLocation(int row, int column) {
+        if (row < 0 || column < 0 || row >= dimension || column >= dimension)
+            throw new IndexOutOfBoundsException("Location " + row + ", " + column + " does not exist in the matrix.");
+    }
+
+    //Overrides the toString function. Returns the dense text representation (see Matrix.toString).
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+import java.util.Arrays;
+
+//The inverse and the determinant of a square matrix which changes by rank-one updates: A + uv^T, a changed element, row or column.
+//Instead of computing them again in O(n^3), each update is applied in O(n^2) with the Sherman-Morrison formula
+//    (A + uv^T)^-1 = A^-1 - (A^-1 u)(v^T A^-1) / (1 + v^T A^-1 u)
+//and the matrix determinant lemma
+//    det(A + uv^T) = (1 + v^T A^-1 u) det(A).
+//If 1 + v^T A^-1 u is small compared to its terms, the formula loses most of its digits to cancellation. In that case the LU decomposition of the
+//changed matrix is computed from scratch instead. The same happens after a number of updates (see setRefreshInterval), so rounding errors cannot pile up,
+//and while the matrix is singular.
+public class UpdatableInverse {
+
+    //Updates whose denominator 1 + v^T A^-1 u is smaller than this times the bigger of 1 and |v^T A^-1 u| are replaced by a full recomputation.
+    static final double STABILITY_THRESHOLD = 1e-8;
+    static final int DEFAULT_REFRESH_INTERVAL = 100;
+
+    private final int dimension;
+    private final Matrix matrix; //A row-major copy of the matrix which receives the same updates. The recomputations start from it.
+    private final Matrix inverse; //Row-major. Valid only if the matrix is not singular.
+    private double determinant;
+    private boolean singular;
+
+    //Scratch arrays of an update: the components of u and v, A^-1 u and v^T A^-1.
+    private final double[] left;
+    private final double[] right;
+    private final double[] columnTerm;
+    private final double[] rowTerm;
+
+    private int refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private int updatesSinceRecomputation;
+    private long updateCount;
+    private long recomputationCount;
+
+    //Computes the inverse and the determinant of a copy of the given matrix. Throws an IllegalArgumentException if the matrix is not square.
+    //A singular matrix is accepted: its inverse becomes available as soon as an update makes it non-singular.
+    public UpdatableInverse(Matrix matrix) {
+        if (!matrix.isSquare())
+            throw new IllegalArgumentException("Non square matrices do not have inverses.");
+
+        dimension = matrix.getRowCount();
+        this.matrix = new Matrix(matrix);
+        inverse = new Matrix(dimension, dimension);
+        left = new double[dimension];
+        right = new double[dimension];
+        columnTerm = new double[dimension];
+        rowTerm = new double[dimension];
+        recompute();
+        recomputationCount = 0;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    //Returns a copy of the matrix with all updates applied.
+    public Matrix getMatrix() {
+        return new Matrix(matrix);
+    }
+
+    //Checks whether the matrix is singular, i.e. it does not have an inverse.
+    public boolean isSingular() {
+        return singular;
+    }
+
+    //Returns the determinant of the matrix. It is 0 if the matrix is singular.
+    public double determinant() {
+        return singular ? 0 : determinant;
+    }
+
+    //Returns a copy of the inverse of the matrix. Throws a RuntimeException if the matrix is singular.
+    public Matrix getInverse() {
+        checkNonSingular();
+        return new Matrix(inverse);
+    }
+
+    //Copies the inverse of the matrix into the given matrix instead of creating a new one. Throws a RuntimeException if the matrix is singular.
+    public void inverseInto(Matrix destination) {
+        checkNonSingular();
+        inverse.copyInto(destination);
+    }
+
+    //Solves Ax = b for x with the inverse in O(n^2) and returns it. Throws a RuntimeException if the matrix is singular.
+    public Vector solve(Vector b) {
+        if (b.getDimension() != dimension)
+            throw new IllegalArgumentException("Dimension of the vector does not match the dimension of the matrix.");
+        checkNonSingular();
+        return Matrix.multiplication(inverse, b);
+    }
+
+    //Adds uv^T to the matrix (A = A + uv^T) and updates the inverse and the determinant.
+    public void rankOneUpdate(Vector u, Vector v) {
+        if (u.getDimension() != dimension || v.getDimension() != dimension)
+            throw new IllegalArgumentException("Dimensions of the vectors do not match the dimension of the matrix.");
+
+        for (int i = 0; i < dimension; i++) {
+            left[i] = u.getComponent(i);
+            right[i] = v.getComponent(i);
+        }
+
+        double dotTerm = 0;
+        if (!needsRecomputation()) {
+            double[] inverseData = inverse.getData();
+            for (int i = 0; i < dimension; i++) {
+                columnTerm[i] = VectorKernels.INSTANCE.dot(inverseData, i * dimension, left, 0, dimension);
+            }
+            rowTimesInverse(right);
+            dotTerm = VectorKernels.INSTANCE.dot(right, 0, columnTerm, 0, dimension);
+        }
+
+        double[] data = matrix.getData();
+        for (int i = 0; i < dimension; i++) {
+            if (left[i] != 0)
+                VectorKernels.INSTANCE.addScaled(data, i * dimension, right, 0, dimension, left[i]);
+        }
+        update(dotTerm);
+    }
+
+    //Sets the element at given coordinates, the rank-one update A + (value - a) e_row e_column^T, and updates the inverse and the determinant.
+    public void setElement(int row, int column, double value) {
+        double delta = value - matrix.getElement(row, column);
+        if (delta == 0)
+            return;
+
+        double dotTerm = 0;
+        if (!needsRecomputation()) {
+            //A^-1 u is delta times column row of the inverse, v^T A^-1 is row column of the inverse.
+            double[] inverseData = inverse.getData();
+            for (int i = 0; i < dimension; i++) {
+                columnTerm[i] = delta * inverseData[i * dimension + row];
+            }
+            System.arraycopy(inverseData, column * dimension, rowTerm, 0, dimension);
+            dotTerm = columnTerm[column];
+        }
+
+        matrix.setElement(row, column, value);
+        update(dotTerm);
+    }
+
+    //Replaces the given row, the rank-one update A + e_row (values - row)^T, and updates the inverse and the determinant.
+    public void setRow(int row, Vector values) {
+        if (row < 0 || row >= dimension)
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist in the matrix.");
+        if (values.getDimension() != dimension)
+            throw new IllegalArgumentException("Dimension of the vector does not match the column count of the matrix.");
+
+        double[] data = matrix.getData();
+        for (int j = 0; j < dimension; j++) {
+            right[j] = values.getComponent(j) - data[row * dimension + j];
+        }
+
+        double dotTerm = 0;
+        if (!needsRecomputation()) {
+            double[] inverseData = inverse.getData();
+            for (int i = 0; i < dimension; i++) {
+                columnTerm[i] = inverseData[i * dimension + row];
+            }
+            rowTimesInverse(right);
+            dotTerm = VectorKernels.INSTANCE.dot(right, 0, columnTerm, 0, dimension);
+        }
+
+        VectorKernels.INSTANCE.add(data, row * dimension, right, 0, dimension);
+        update(dotTerm);
+    }
+
+    //Replaces the given column, the rank-one update A + (values - column) e_column^T, and updates the inverse and the determinant.
+    public void setColumn(int column, Vector values) {
+        if (column < 0 || column >= dimension)
+            throw new IndexOutOfBoundsException("Column " + column + " does not exist in the matrix.");
+        if (values.getDimension() != dimension)
+            throw new IllegalArgumentException("Dimension of the vector does not match the row count of the matrix.");
+
+        double[] data = matrix.getData();
+        for (int i = 0; i < dimension; i++) {
+            left[i] = values.getComponent(i) - data[i * dimension + column];
+        }
+
+        double dotTerm = 0;
+        if (!needsRecomputation()) {
+            double[] inverseData = inverse.getData();
+            for (int i = 0; i < dimension; i++) {
+                columnTerm[i] = VectorKernels.INSTANCE.dot(inverseData, i * dimension, left, 0, dimension);
+            }
+            System.arraycopy(inverseData, column * dimension, rowTerm, 0, dimension);
+            dotTerm = columnTerm[column];
+        }
+
+        for (int i = 0; i < dimension; i++) {
+            data[i * dimension + column] += left[i];
+        }
+        update(dotTerm);
+    }
+
+    //Sets the number of updates after which the inverse is computed from scratch to discard the accumulated rounding errors. 0 means never.
+    public void setRefreshInterval(int updates) {
+        if (updates < 0)
+            throw new IllegalArgumentException("Refresh interval cannot be less than 0.");
+        refreshInterval = updates;
+    }
+
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    //Returns the number of updates applied with the Sherman-Morrison formula.
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    //Returns the number of updates after which the inverse was computed from scratch, because they were unstable, the refresh interval was reached or the matrix was singular.
+    public long getRecomputationCount() {
+        return recomputationCount;
+    }
+
+    private void checkNonSingular() {
+        if (singular)
+            throw new RuntimeException("Matrices whose determinants are equal to 0 do not have inverses.");
+    }
+
+    //Checks whether the next update is computed from scratch anyway, so the terms of the formula are not needed.
+    private boolean needsRecomputation() {
+        return singular || (refreshInterval > 0 && updatesSinceRecomputation >= refreshInterval);
+    }
+
+    //Computes rowTerm = vector^T A^-1 as a sum of the rows of the inverse, which reads the inverse in its storage order.
+    private void rowTimesInverse(double[] vector) {
+        double[] inverseData = inverse.getData();
+        Arrays.fill(rowTerm, 0);
+        for (int i = 0; i < dimension; i++) {
+            if (vector[i] != 0)
+                VectorKernels.INSTANCE.addScaled(rowTerm, 0, inverseData, i * dimension, dimension, vector[i]);
+        }
+    }
+
+    //Applies the update whose terms were computed before the matrix was changed: A^-1 = A^-1 - columnTerm rowTerm^T / (1 + dotTerm).
+    private void update(double dotTerm) {
+        double denominator = 1 + dotTerm;
+        if (needsRecomputation() || Math.abs(denominator) < STABILITY_THRESHOLD * Math.max(1, Math.abs(dotTerm))) {
+            recompute();
+            return;
+        }
+
+        double[] inverseData = inverse.getData();
+        for (int i = 0; i < dimension; i++) {
+            if (columnTerm[i] != 0)
+                VectorKernels.INSTANCE.addScaled(inverseData, i * dimension, rowTerm, 0, dimension, -columnTerm[i] / denominator);
+        }
+        determinant *= denominator;
+        updatesSinceRecomputation++;
+        updateCount++;
+    }
+
+    //Computes the inverse and the determinant of the matrix from scratch with the LU decomposition.
+    private void recompute() {
+        LUDecomposition decomposition = new LUDecomposition(matrix);
+        singular = decomposition.isSingular();
+        determinant = decomposition.determinant();
+        if (!singular)
+            decomposition.getInverse().copyInto(inverse);
+        updatesSinceRecomputation = 0;
+        recomputationCount++;
+    }
+}
\ No newline at end of file
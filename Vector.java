@@ -1,67 +1,141 @@
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
 public class Vector {
 
-    private double[] components; //A 1D double array to store the components of the vector.
+    //A 1D double array to store the components of the vector. The component at index i is at offset + i * stride.
+    //Views (see Matrix.getRowVectorView, Matrix.getColumnVectorView) share the array of a matrix.
+    private double[] components;
+    private int offset;
+    private int stride;
+    private int dimension;
+    private ModificationCounter counter; //Shared with the matrix a view was created from, so changes through the view invalidate its cache (see Matrix.setCacheEnabled).
 
     //A constructor method with a parameter of dimension. Creates a new array with the specified dimension.
     public Vector(int dimension) {
         if (dimension < 0)
             throw new IllegalArgumentException("Dimension cannot be less than 0.");
         components = new double[dimension];
+        stride = 1;
+        this.dimension = dimension;
     }
 
     //A constructor method with an argument of a 1D double array. Assigns a copy of the given array to the components array.
     public Vector(double[] components) {
         this.components = components.clone();
+        stride = 1;
+        dimension = components.length;
     }
 
     //A constructor method which copies the components of the given vector.
     public Vector(Vector vector) {
-        components = new double[vector.getDimension()];
-        for (int i = 0; i < components.length; i++) {
-            setComponent(i, vector.getComponent(i));
+        this(vector.getDimension());
+        for (int i = 0; i < dimension; i++) {
+            components[i] = vector.components[vector.offset + i * vector.stride];
         }
     }
 
+    //Creates a view which shares the given array.
+    Vector(double[] components, int offset, int stride, int dimension) {
+        this(components, offset, stride, dimension, null);
+    }
+
+    //Creates a view which shares the given array and the modification counter of the matrix it belongs to.
+    Vector(double[] components, int offset, int stride, int dimension, ModificationCounter counter) {
+        this.components = components;
+        this.offset = offset;
+        this.stride = stride;
+        this.dimension = dimension;
+        this.counter = counter;
+    }
+
     public Vector clone() {
         return new Vector(this);
     }
 
+    //Copies the components of the vector into the given vector of the same dimension. Works with views too.
+    public void copyInto(Vector destination) {
+        if (getDimension() != destination.getDimension())
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the dimension of the vector.");
+        destination.modified();
+
+        if (stride == 1 && destination.stride == 1) {
+            System.arraycopy(components, offset, destination.components, destination.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            destination.components[destination.offset + i * destination.stride] = components[offset + i * stride];
+        }
+    }
+
     //Returns the dimension of the vector.
-    public int getDimension() { //Returns the dimension of the vector. Since its components are kept in the array, its dimension is equal to the length of the array.
-        return components.length;
+    public int getDimension() {
+        return dimension;
+    }
+
+    //The backing array and its layout. Used by the kernels to read and write the components without range checks.
+    double[] getComponents() {
+        return components;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    //Records a change of the components. Views of a frozen matrix throw an UnsupportedOperationException here, before anything is written.
+    void modified() {
+        if (counter != null)
+            counter.increment();
     }
 
     //Returns the nth component of the vector.
     public double getComponent(int index) {
-        if (index < 0 || index > components.length - 1)
+        if (index < 0 || index > dimension - 1)
             throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
-        return components[index];
+        return components[offset + index * stride];
     }
 
     //Sets the nth component of the vector.
     public void setComponent(int index, double value) {
-        if (index < 0 || index > components.length - 1)
+        if (index < 0 || index > dimension - 1)
             throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
-        components[index] = value;
+        modified();
+        components[offset + index * stride] = value;
     }
 
     //Calculates and returns the length of the vector.
+    //Contiguous vectors use the kernels of VectorKernels (SIMD instructions when available), views with a stride use a plain loop.
     public double getLength() {
-        double length = 0;
+        double length;
 
-        for (int i = 0; i < getDimension(); i++) {
-            length += Math.pow(getComponent(i), 2); //Summing the square of each element.
+        //Summing the square of each element.
+        if (stride == 1) {
+            length = VectorKernels.INSTANCE.sumOfSquares(components, offset, dimension);
+        }
+        else {
+            length = 0;
+            for (int i = 0; i < dimension; i++) {
+                double component = components[offset + i * stride];
+                length += component * component;
+            }
         }
 
-        length = Math.sqrt(length); //Calculating the square root of the sum.
-
-        return length;
+        return Math.sqrt(length); //Calculating the square root of the sum.
     }
 
     //Multiplies the vector by a scalar number.
     public void multiplyByAScalar(double scalar) {
-        for (int i = 0; i < getDimension(); i++) {
-            setComponent(i, getComponent(i) * scalar); //Each component is multiplied by the scalar number.
+        modified();
+        if (stride == 1) {
+            VectorKernels.INSTANCE.scale(components, offset, dimension, scalar);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] *= scalar; //Each component is multiplied by the scalar number.
         }
     }
 
@@ -69,9 +143,14 @@ public class Vector {
     public void add(Vector v) {
         if (getDimension() != v.getDimension())
             throw new IllegalArgumentException("Vectors of different dimensions cannot be added.");
+        modified();
 
-        for(int i = 0; i < getDimension(); i++) {
-            setComponent(i, getComponent(i) + v.getComponent(i));
+        if (stride == 1 && v.stride == 1) {
+            VectorKernels.INSTANCE.add(components, offset, v.components, v.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] += v.components[v.offset + i * v.stride];
         }
     }
 
@@ -79,9 +158,111 @@ public class Vector {
     public void subtract(Vector v) {
         if (getDimension() != v.getDimension())
             throw new IllegalArgumentException("Vectors of different dimensions cannot be subtracted.");
+        modified();
+
+        if (stride == 1 && v.stride == 1) {
+            VectorKernels.INSTANCE.subtract(components, offset, v.components, v.offset, dimension);
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            components[offset + i * stride] -= v.components[v.offset + i * v.stride];
+        }
+    }
+
+    //Replaces each component with the result of the operator applied to it, e.g. vector.map(Math::abs).
+    //Like the other bulk operations (see BulkOperations), it runs over the backing array without range checks.
+    public void map(DoubleUnaryOperator operator) {
+        modified();
+        BulkOperations.map(elements(), 0, dimension, operator);
+    }
+
+    //Performs map in parallel on fork-join tasks. The operator must be safe to call from several threads at once.
+    public void parallelMap(DoubleUnaryOperator operator) {
+        modified();
+        BulkOperations.Elements elements = elements();
+        BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.map(elements, start, end, operator));
+    }
+
+    //Replaces each component with the result of the operator applied to it and the corresponding component of the other vector,
+    //e.g. vector.zipWith(v, (a, b) -> a * b) for the element-wise product.
+    public void zipWith(Vector v, DoubleBinaryOperator operator) {
+        if (dimension != v.dimension)
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be combined.");
+        modified();
+        BulkOperations.zipWith(elements(), v.elements(), 0, dimension, operator);
+    }
+
+    //Performs zipWith in parallel on fork-join tasks. The operator must be safe to call from several threads at once.
+    public void parallelZipWith(Vector v, DoubleBinaryOperator operator) {
+        if (dimension != v.dimension)
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be combined.");
+        modified();
+        BulkOperations.Elements elements = elements(), other = v.elements();
+        BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.zipWith(elements, other, start, end, operator));
+    }
+
+    //Combines the identity and the components, in order, with the operator and returns the result.
+    public double reduce(double identity, DoubleBinaryOperator operator) {
+        return BulkOperations.reduce(elements(), 0, dimension, identity, operator);
+    }
+
+    //Performs reduce in parallel: ranges of the components are reduced separately, starting from the identity, and their results are combined with the operator.
+    //The result is that of reduce only if the operator is associative and identity is its identity element, e.g. 0 for addition.
+    public double parallelReduce(double identity, DoubleBinaryOperator operator) {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.reduce(elements, start, end, identity, operator), operator);
+    }
+
+    //Returns the sum of the components.
+    public double sum() {
+        return BulkOperations.sum(elements(), 0, dimension);
+    }
+
+    //Returns the sum of the components, computed in parallel. It may differ from sum in the last digits since the components are summed in a different order.
+    public double parallelSum() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.sum(elements, start, end), Double::sum);
+    }
+
+    //Returns the biggest component, negative infinity if the dimension is 0. Returns NaN if any component is NaN.
+    public double max() {
+        return BulkOperations.max(elements(), 0, dimension, false);
+    }
+
+    //Returns the biggest component, computed in parallel.
+    public double parallelMax() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.max(elements, start, end, false), Math::max);
+    }
+
+    //Returns the infinity norm (maximum norm) of the vector, the biggest absolute value of its components.
+    public double normInf() {
+        return BulkOperations.max(elements(), 0, dimension, true);
+    }
+
+    //Returns the infinity norm of the vector, computed in parallel.
+    public double parallelNormInf() {
+        BulkOperations.Elements elements = elements();
+        return BulkOperations.parallel(dimension, BulkOperations.PARALLEL_THRESHOLD, (start, end) -> BulkOperations.max(elements, start, end, true), Math::max);
+    }
+
+    //Returns the layout of the components for the bulk operations. A vector is a single row.
+    private BulkOperations.Elements elements() {
+        return new BulkOperations.Elements(components, offset, 1, dimension, 0, stride);
+    }
+
+    //Adds alpha times x to y (y += alpha * x, the AXPY operation of BLAS) in a single pass. Neither a scaled copy of x nor a new vector is created.
+    public static void axpy(double alpha, Vector x, Vector y) {
+        if (x.getDimension() != y.getDimension())
+            throw new IllegalArgumentException("Vectors of different dimensions cannot be added.");
+        y.modified();
 
-        for(int i = 0; i < getDimension(); i++) {
-            setComponent(i, getComponent(i) - v.getComponent(i));
+        if (x.stride == 1 && y.stride == 1) {
+            VectorKernels.INSTANCE.addScaled(y.components, y.offset, x.components, x.offset, x.dimension, alpha);
+            return;
+        }
+        for (int i = 0; i < x.dimension; i++) {
+            y.components[y.offset + i * y.stride] += alpha * x.components[x.offset + i * x.stride];
         }
     }
 
@@ -89,11 +270,21 @@ public class Vector {
     public static double dotProduct(Vector v1, Vector v2) {
         if (v1.getDimension() != v2.getDimension())
             throw new IllegalArgumentException("Dot product of vectors of different dimensions cannot be calculated.");
+        MatrixOperationEvent event = Metrics.begin(Metrics.Operation.DOT_PRODUCT);
 
-        double result = 0;
-        for (int i = 0; i < v1.getDimension(); i++) {
-            result += v1.getComponent(i) * v2.getComponent(i); //Corresponding components are individually multiplied and added to the result variable.
+        double result;
+        if (v1.stride == 1 && v2.stride == 1) {
+            result = VectorKernels.INSTANCE.dot(v1.components, v1.offset, v2.components, v2.offset, v1.dimension);
         }
+        else {
+            result = 0;
+            for (int i = 0; i < v1.dimension; i++) {
+                result += v1.components[v1.offset + i * v1.stride] * v2.components[v2.offset + i * v2.stride]; //Corresponding components are individually multiplied and added to the result variable.
+            }
+        }
+
+        if (event != null)
+            Metrics.end(event, v1.dimension, 1, 2L * v1.dimension);
         return result; //The result of dot product is a scalar.
     }
 
@@ -101,12 +292,27 @@ public class Vector {
         if (v1.getDimension() != 3 || v2.getDimension() != 3)
             throw new IllegalArgumentException("Vectors' dimensions must be 3 for the cross product.");
 
-        Vector result = new Vector(v1.getDimension());
-        result.setComponent(0, v1.getComponent(1) * v2.getComponent(2) - v1.getComponent(2) * v2.getComponent(1));
-        result.setComponent(1, v1.getComponent(2) * v2.getComponent(0) - v1.getComponent(0) * v2.getComponent(2));
-        result.setComponent(2, v1.getComponent(0) * v2.getComponent(1) - v1.getComponent(1) * v2.getComponent(0));
+        //The components are read once from the backing arrays, without the range checks of getComponent. Vector3.crossProduct avoids the arrays entirely.
+        double[] a = v1.components, b = v2.components;
+        double x1 = a[v1.offset], y1 = a[v1.offset + v1.stride], z1 = a[v1.offset + 2 * v1.stride];
+        double x2 = b[v2.offset], y2 = b[v2.offset + v2.stride], z2 = b[v2.offset + 2 * v2.stride];
+
+        return new Vector(new double[]{y1 * z2 - z1 * y2, z1 * x2 - x1 * z2, x1 * y2 - y1 * x2});
+    }
+
+    //Computes the cross product of the two vectors into the given vector instead of creating a new one. The destination may be v1 or v2.
+    public static void crossProductInto(Vector v1, Vector v2, Vector destination) {
+        if (v1.getDimension() != 3 || v2.getDimension() != 3 || destination.getDimension() != 3)
+            throw new IllegalArgumentException("Vectors' dimensions must be 3 for the cross product.");
+        destination.modified();
+
+        double[] a = v1.components, b = v2.components, c = destination.components;
+        double x1 = a[v1.offset], y1 = a[v1.offset + v1.stride], z1 = a[v1.offset + 2 * v1.stride];
+        double x2 = b[v2.offset], y2 = b[v2.offset + v2.stride], z2 = b[v2.offset + 2 * v2.stride];
 
-        return result;
+        c[destination.offset] = y1 * z2 - z1 * y2;
+        c[destination.offset + destination.stride] = z1 * x2 - x1 * z2;
+        c[destination.offset + 2 * destination.stride] = x1 * y2 - y1 * x2;
     }
 
     //Calculates and returns the unit vector of the vector. The unit vector is a vector whose length (magnitude) is 1.
@@ -122,6 +328,18 @@ public class Vector {
         return vector; //The result is a vector.
     }
 
+    //Computes the unit vector of the vector into the given vector instead of creating a new one. The destination may be the vector itself.
+    public void unitVectorInto(Vector destination) {
+        if (getDimension() != destination.getDimension())
+            throw new IllegalArgumentException("Dimension of the destination vector does not match the dimension of the vector.");
+
+        destination.modified();
+        double length = getLength();
+        for (int i = 0; i < dimension; i++) {
+            destination.components[destination.offset + i * destination.stride] = components[offset + i * stride] / length;
+        }
+    }
+
     //Takes a vector as the argument and returns the angle between them in degrees.
     //Calculates the dot product of two vectors and using their length, calculates cosine of the angle between them.
     //Then, using arccos function calculates the angle.
@@ -160,14 +378,18 @@ public class Vector {
         return isZero;
     }
     //Overrides the toString method and returns the components in the form "[a, b, c...]".
+    //The text is built in a StringBuilder, so it takes linear time in the dimension.
     public String toString() {
-        String text = "[";
+        if (dimension == 0)
+            return "[]";
+
+        StringBuilder text = new StringBuilder("[");
 
-        for(int i = 0; i < getDimension() - 1; i++) {
-            text += getComponent(i) + ", ";
+        for(int i = 0; i < dimension - 1; i++) {
+            text.append(components[offset + i * stride]).append(", ");
         }
 
-        text += getComponent(getDimension() - 1) + "]";
-        return text;
+        text.append(components[offset + (dimension - 1) * stride]).append("]");
+        return text.toString();
     }
 }
\ No newline at end of file
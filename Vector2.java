@@ -0,0 +1,94 @@
+//An immutable vector of dimension 2 which keeps its components in fields instead of an array.
+//It is a fast path for small vectors: there are no loops, no range checks and no array allocations, and the JIT compiler can often keep the vectors in registers.
+//Operations return new vectors. Use toVector and the Vector2(Vector) constructor to convert to and from Vector.
+public final class Vector2 {
+
+    public static final Vector2 ZERO = new Vector2(0, 0);
+
+    private final double x;
+    private final double y;
+
+    public Vector2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    //Copies the components of a vector of dimension 2.
+    public Vector2(Vector vector) {
+        if (vector.getDimension() != 2)
+            throw new IllegalArgumentException("Dimension of the vector must be 2.");
+
+        x = vector.getComponent(0);
+        y = vector.getComponent(1);
+    }
+
+    //Creates and returns a Vector with the same components.
+    public Vector toVector() {
+        return new Vector(new double[]{x, y});
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public int getDimension() {
+        return 2;
+    }
+
+    //Returns the component at the given index (0 is x).
+    public double getComponent(int index) {
+        switch (index) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
+        }
+    }
+
+    //Calculates and returns the length of the vector.
+    public double getLength() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    //Calculates and returns the unit vector of the vector.
+    public Vector2 getUnitVector() {
+        double length = getLength();
+        return new Vector2(x / length, y / length);
+    }
+
+    //Checks whether all components of the vector are equal to 0.
+    public boolean isZeroVector() {
+        return x == 0 && y == 0;
+    }
+
+    //Returns the sum of the two vectors.
+    public static Vector2 addition(Vector2 v1, Vector2 v2) {
+        return new Vector2(v1.x + v2.x, v1.y + v2.y);
+    }
+
+    //Returns the difference of the two vectors, v1 - v2.
+    public static Vector2 subtraction(Vector2 v1, Vector2 v2) {
+        return new Vector2(v1.x - v2.x, v1.y - v2.y);
+    }
+
+    //Returns the vector multiplied by a scalar number.
+    public static Vector2 multiplication(Vector2 vector, double scalar) {
+        return new Vector2(vector.x * scalar, vector.y * scalar);
+    }
+
+    //Calculates and returns the result of the dot product of the two vectors.
+    public static double dotProduct(Vector2 v1, Vector2 v2) {
+        return v1.x * v2.x + v1.y * v2.y;
+    }
+
+    //Returns the vector in the form "[x, y...]", like Vector.toString.
+    public String toString() {
+        return "[" + x + ", " + y + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+//An immutable vector of dimension 3 which keeps its components in fields instead of an array.
+//It is a fast path for small vectors: there are no loops, no range checks and no array allocations, and the JIT compiler can often keep the vectors in registers.
+//Operations return new vectors. Use toVector and the Vector3(Vector) constructor to convert to and from Vector.
+public final class Vector3 {
+
+    public static final Vector3 ZERO = new Vector3(0, 0, 0);
+
+    private final double x;
+    private final double y;
+    private final double z;
+
+    public Vector3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    //Copies the components of a vector of dimension 3.
+    public Vector3(Vector vector) {
+        if (vector.getDimension() != 3)
+            throw new IllegalArgumentException("Dimension of the vector must be 3.");
+
+        x = vector.getComponent(0);
+        y = vector.getComponent(1);
+        z = vector.getComponent(2);
+    }
+
+    //Creates and returns a Vector with the same components.
+    public Vector toVector() {
+        return new Vector(new double[]{x, y, z});
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public int getDimension() {
+        return 3;
+    }
+
+    //Returns the component at the given index (0 is x).
+    public double getComponent(int index) {
+        switch (index) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            case 2:
+                return z;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
+        }
+    }
+
+    //Calculates and returns the length of the vector.
+    public double getLength() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    //Calculates and returns the unit vector of the vector.
+    public Vector3 getUnitVector() {
+        double length = getLength();
+        return new Vector3(x / length, y / length, z / length);
+    }
+
+    //Checks whether all components of the vector are equal to 0.
+    public boolean isZeroVector() {
+        return x == 0 && y == 0 && z == 0;
+    }
+
+    //Returns the sum of the two vectors.
+    public static Vector3 addition(Vector3 v1, Vector3 v2) {
+        return new Vector3(v1.x + v2.x, v1.y + v2.y, v1.z + v2.z);
+    }
+
+    //Returns the difference of the two vectors, v1 - v2.
+    public static Vector3 subtraction(Vector3 v1, Vector3 v2) {
+        return new Vector3(v1.x - v2.x, v1.y - v2.y, v1.z - v2.z);
+    }
+
+    //Returns the vector multiplied by a scalar number.
+    public static Vector3 multiplication(Vector3 vector, double scalar) {
+        return new Vector3(vector.x * scalar, vector.y * scalar, vector.z * scalar);
+    }
+
+    //Calculates and returns the result of the dot product of the two vectors.
+    public static double dotProduct(Vector3 v1, Vector3 v2) {
+        return v1.x * v2.x + v1.y * v2.y + v1.z * v2.z;
+    }
+
+    //Calculates and returns the cross product of the two vectors.
+    public static Vector3 crossProduct(Vector3 v1, Vector3 v2) {
+        return new Vector3(v1.y * v2.z - v1.z * v2.y, v1.z * v2.x - v1.x * v2.z, v1.x * v2.y - v1.y * v2.x);
+    }
+
+    //Returns the vector in the form "[x, y...]", like Vector.toString.
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + "]";
+    }
+}
\ No newline at end of file
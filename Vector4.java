@@ -0,0 +1,112 @@
+//An immutable vector of dimension 4 which keeps its components in fields instead of an array.
+//It is a fast path for small vectors: there are no loops, no range checks and no array allocations, and the JIT compiler can often keep the vectors in registers.
+//Operations return new vectors. Use toVector and the Vector4(Vector) constructor to convert to and from Vector.
+public final class Vector4 {
+
+    public static final Vector4 ZERO = new Vector4(0, 0, 0, 0);
+
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double w;
+
+    public Vector4(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    //Copies the components of a vector of dimension 4.
+    public Vector4(Vector vector) {
+        if (vector.getDimension() != 4)
+            throw new IllegalArgumentException("Dimension of the vector must be 4.");
+
+        x = vector.getComponent(0);
+        y = vector.getComponent(1);
+        z = vector.getComponent(2);
+        w = vector.getComponent(3);
+    }
+
+    //Creates and returns a Vector with the same components.
+    public Vector toVector() {
+        return new Vector(new double[]{x, y, z, w});
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public double getW() {
+        return w;
+    }
+
+    public int getDimension() {
+        return 4;
+    }
+
+    //Returns the component at the given index (0 is x).
+    public double getComponent(int index) {
+        switch (index) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            case 2:
+                return z;
+            case 3:
+                return w;
+            default:
+                throw new IndexOutOfBoundsException("Index " + index + " does not exist in this vector.");
+        }
+    }
+
+    //Calculates and returns the length of the vector.
+    public double getLength() {
+        return Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+
+    //Calculates and returns the unit vector of the vector.
+    public Vector4 getUnitVector() {
+        double length = getLength();
+        return new Vector4(x / length, y / length, z / length, w / length);
+    }
+
+    //Checks whether all components of the vector are equal to 0.
+    public boolean isZeroVector() {
+        return x == 0 && y == 0 && z == 0 && w == 0;
+    }
+
+    //Returns the sum of the two vectors.
+    public static Vector4 addition(Vector4 v1, Vector4 v2) {
+        return new Vector4(v1.x + v2.x, v1.y + v2.y, v1.z + v2.z, v1.w + v2.w);
+    }
+
+    //Returns the difference of the two vectors, v1 - v2.
+    public static Vector4 subtraction(Vector4 v1, Vector4 v2) {
+        return new Vector4(v1.x - v2.x, v1.y - v2.y, v1.z - v2.z, v1.w - v2.w);
+    }
+
+    //Returns the vector multiplied by a scalar number.
+    public static Vector4 multiplication(Vector4 vector, double scalar) {
+        return new Vector4(vector.x * scalar, vector.y * scalar, vector.z * scalar, vector.w * scalar);
+    }
+
+    //Calculates and returns the result of the dot product of the two vectors.
+    public static double dotProduct(Vector4 v1, Vector4 v2) {
+        return v1.x * v2.x + v1.y * v2.y + v1.z * v2.z + v1.w * v2.w;
+    }
+
+    //Returns the vector in the form "[x, y...]", like Vector.toString.
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + ", " + w + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+//Element-wise kernels over contiguous parts of double arrays, used by the Vector and Matrix operations.
+//There are two implementations: SimdVectorKernels uses the SIMD instructions of the CPU through the jdk.incubator.vector module,
+//ScalarVectorKernels uses plain loops. The SIMD one is used when the module is available (java --add-modules jdk.incubator.vector)
+//unless the system property simplelinearalgebra.simd is set to false.
+abstract class VectorKernels {
+
+    static final VectorKernels INSTANCE = load();
+
+    //Returns the sum of a[aOffset + i] * b[bOffset + i] for i from 0 to length - 1.
+    abstract double dot(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    //Returns the sum of the squares of a[offset + i] for i from 0 to length - 1.
+    abstract double sumOfSquares(double[] a, int offset, int length);
+
+    //a[aOffset + i] += b[bOffset + i]
+    abstract void add(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    //a[aOffset + i] -= b[bOffset + i]
+    abstract void subtract(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    //a[aOffset + i] += scalar * b[bOffset + i]
+    abstract void addScaled(double[] a, int aOffset, double[] b, int bOffset, int length, double scalar);
+
+    //a[offset + i] *= scalar
+    abstract void scale(double[] a, int offset, int length, double scalar);
+
+    //Returns the sum of a[offset + i] for i from 0 to length - 1.
+    abstract double sum(double[] a, int offset, int length);
+
+    //Returns the sum of the absolute values of a[offset + i].
+    abstract double sumOfAbsolutes(double[] a, int offset, int length);
+
+    //Returns the biggest of a[offset + i], negative infinity if length is 0. NaN if any of them is NaN, like Math.max.
+    abstract double max(double[] a, int offset, int length);
+
+    //Returns the biggest absolute value of a[offset + i], 0 if length is 0. NaN if any of them is NaN.
+    abstract double maxOfAbsolutes(double[] a, int offset, int length);
+
+    //The same kernels for float arrays, used by FloatVector and FloatMatrix. dot sums in float, mixedDot and sumOfSquares sum in double.
+    abstract float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    abstract double mixedDot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    abstract double sumOfSquares(float[] a, int offset, int length);
+
+    abstract void add(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    abstract void subtract(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    abstract void addScaled(float[] a, int aOffset, float[] b, int bOffset, int length, float scalar);
+
+    abstract void scale(float[] a, int offset, int length, float scalar);
+
+    //Checks whether the SIMD kernels are used.
+    abstract boolean isSimd();
+
+    private static VectorKernels load() {
+        if (!"false".equals(System.getProperty("simplelinearalgebra.simd"))) {
+            try {
+                return (VectorKernels) Class.forName("SimdVectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                //The jdk.incubator.vector module is not available. Falls back to the scalar kernels.
+            }
+        }
+        return new ScalarVectorKernels();
+    }
+}
\ No newline at end of file
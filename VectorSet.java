@@ -0,0 +1,322 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+//An immutable set of vectors of the same dimension, stored as the rows of a single row-major array, with their lengths computed once.
+//Similarities and distances of all pairs of two sets are computed a block at a time: the dot products of a block are one matrix product
+//(see MultiplicationKernel), and each of them is turned into the measure with the cached lengths, without a loop over the components per pair.
+//E.g. the cosine similarity is the dot product divided by the two lengths, and the squared Euclidean distance is |a|^2 + |b|^2 - 2 a.b.
+//nearestNeighbours keeps only the k best results of each query while it goes through the blocks, so the full matrix of all pairs is never stored.
+public class VectorSet {
+
+    //The measures which can be computed for a pair of vectors a and b.
+    public enum Measure {
+        DOT_PRODUCT,
+        //a.b / (|a| |b|), the cosine of the angle between the vectors. It is 0 if either vector is the zero vector.
+        COSINE_SIMILARITY,
+        //|a - b|^2. It is computed from the dot product, so for nearly equal vectors it has an absolute error of about eps * (|a|^2 + |b|^2).
+        SQUARED_EUCLIDEAN_DISTANCE,
+        //|a - b|, the square root of the squared distance. The distance of equal vectors can be about sqrt(eps) * |a| instead of 0.
+        EUCLIDEAN_DISTANCE;
+
+        //Checks whether smaller values mean nearer vectors.
+        boolean isDistance() {
+            return this == SQUARED_EUCLIDEAN_DISTANCE || this == EUCLIDEAN_DISTANCE;
+        }
+    }
+
+    //The query rows and the data rows of a block of nearestNeighbours. The block of dot products (512 KB) stays in the cache while it is scanned.
+    static final int QUERY_BLOCK = 64;
+    static final int DATA_BLOCK = 1024;
+
+    private final double[] data; //Row i is the vector i.
+    private final int size;
+    private final int dimension;
+    private final double[] norms;
+
+    //Creates a set of the rows of the matrix. The elements are copied.
+    public VectorSet(Matrix rows) {
+        this(rows.getRowCount(), rows.getColumnCount());
+        double[] source = rows.getData();
+        int columnStride = rows.getColumnStride();
+        for (int i = 0; i < size; i++) {
+            int index = rows.index(i, 0);
+            for (int j = 0; j < dimension; j++) {
+                data[i * dimension + j] = source[index + j * columnStride];
+            }
+        }
+        computeNorms();
+    }
+
+    //Creates a set of the given vectors. The components are copied. Throws an IllegalArgumentException if the list is empty or the dimensions differ.
+    public VectorSet(List<Vector> vectors) {
+        this(vectors.size(), vectors.isEmpty() ? 0 : vectors.get(0).getDimension());
+        for (int i = 0; i < size; i++) {
+            Vector vector = vectors.get(i);
+            if (vector.getDimension() != dimension)
+                throw new IllegalArgumentException("All vectors must have the same dimension.");
+            for (int j = 0; j < dimension; j++) {
+                data[i * dimension + j] = vector.getComponent(j);
+            }
+        }
+        computeNorms();
+    }
+
+    private VectorSet(int size, int dimension) {
+        if (size < 1 || dimension < 1)
+            throw new IllegalArgumentException("A vector set must have at least one vector of dimension at least 1.");
+        if ((long) size * dimension > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A vector set of " + size + " vectors of dimension " + dimension + " does not fit in an array.");
+
+        this.size = size;
+        this.dimension = dimension;
+        data = new double[size * dimension];
+        norms = new double[size];
+    }
+
+    private void computeNorms() {
+        for (int i = 0; i < size; i++) {
+            norms[i] = Math.sqrt(VectorKernels.INSTANCE.sumOfSquares(data, i * dimension, dimension));
+        }
+    }
+
+    //Returns the number of vectors.
+    public int getSize() {
+        return size;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    //Returns a copy of the vector with the given index.
+    public Vector getVector(int index) {
+        checkIndex(index);
+        Vector vector = new Vector(dimension);
+        System.arraycopy(data, index * dimension, vector.getComponents(), 0, dimension);
+        return vector;
+    }
+
+    //Returns the length of the vector with the given index. It is computed once, when the set is created.
+    public double getNorm(int index) {
+        checkIndex(index);
+        return norms[index];
+    }
+
+    //Returns a matrix whose rows are the vectors.
+    public Matrix toMatrix() {
+        return new Matrix(rows(0, size));
+    }
+
+    //Computes the measure for all pairs of a vector of a and a vector of b and returns them as an a.getSize() x b.getSize() matrix: element (i, j) is the measure
+    //of vector i of a and vector j of b. Uses the default parallelism and executor (see Matrix.setParallelism and Matrix.setExecutor).
+    //The matrix has a.getSize() * b.getSize() elements. For bigger sets, blocks can be computed with pairwiseInto and the nearest vectors found with nearestNeighbours.
+    public static Matrix pairwise(Measure measure, VectorSet a, VectorSet b) {
+        return pairwise(measure, a, b, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Computes the measure for all pairs using up to the given number of threads of the given executor. The rows of the result are split into chunks.
+    public static Matrix pairwise(Measure measure, VectorSet a, VectorSet b, Executor executor, int parallelism) {
+        checkDimensions(a, b);
+        if ((long) a.size * b.size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The matrix of " + a.size + " x " + b.size + " pairs does not fit in an array.");
+
+        Matrix result = new Matrix(a.size, b.size);
+        MultiplicationKernel.runInChunks(a.size, executor, parallelism(a.size, b.size, a.dimension, parallelism),
+                (rowStart, rowEnd) -> block(measure, a, rowStart, b, 0, new Matrix(result.getData(), rowStart * b.size, rowEnd - rowStart, b.size, b.size, 1)));
+        return result;
+    }
+
+    //Computes the measure for a block of pairs into the destination, whose previous elements are overwritten: element (i, j) of the destination is the measure of
+    //vector aStart + i of a and vector bStart + j of b. The destination can be a view, e.g. a block of a bigger matrix. Runs on the calling thread.
+    //Throws an IndexOutOfBoundsException if the block does not fit in the sets.
+    public static void pairwiseInto(Measure measure, VectorSet a, int aStart, VectorSet b, int bStart, Matrix destination) {
+        checkDimensions(a, b);
+        if (aStart < 0 || bStart < 0 || aStart + destination.getRowCount() > a.size || bStart + destination.getColumnCount() > b.size)
+            throw new IndexOutOfBoundsException("Block at " + aStart + ", " + bStart + " with dimension " + destination.getRowCount() + "x" + destination.getColumnCount() + " does not fit in the sets.");
+
+        block(measure, a, aStart, b, bStart, destination);
+    }
+
+    //Finds the k nearest vectors of data for every vector of queries: those with the biggest similarity (DOT_PRODUCT, COSINE_SIMILARITY)
+    //or the smallest distance (the Euclidean distances). If queries and data are the same set, a vector is not counted as its own neighbour.
+    //If fewer than k vectors are available, all of them are returned. Uses the default parallelism and executor.
+    public static Neighbours nearestNeighbours(Measure measure, VectorSet queries, VectorSet data, int k) {
+        return nearestNeighbours(measure, queries, data, k, Matrix.getExecutor(), Matrix.getParallelism());
+    }
+
+    //Finds the k nearest vectors of data for every vector of queries using up to the given number of threads of the given executor.
+    //The queries are split into chunks. Each chunk computes blocks of QUERY_BLOCK x DATA_BLOCK pairs into a reused buffer and keeps the k best results
+    //of each query in a heap whose root is the worst of them, so a pair which is not better than the root is rejected with one comparison.
+    //The memory is O(queries * k) besides one block per thread.
+    public static Neighbours nearestNeighbours(Measure measure, VectorSet queries, VectorSet data, int k, Executor executor, int parallelism) {
+        checkDimensions(queries, data);
+        if (k < 1)
+            throw new IllegalArgumentException("k must be at least 1.");
+
+        boolean self = queries == data;
+        int count = Math.min(k, self ? data.size - 1 : data.size);
+        int[][] indices = new int[queries.size][count];
+        double[][] values = new double[queries.size][count];
+        if (count == 0)
+            return new Neighbours(indices, values);
+
+        MultiplicationKernel.runInChunks(queries.size, executor, parallelism(queries.size, data.size, data.dimension, parallelism), (rowStart, rowEnd) -> {
+            double[] buffer = new double[QUERY_BLOCK * DATA_BLOCK];
+            int[] sizes = new int[QUERY_BLOCK];
+            for (int q = rowStart; q < rowEnd; q += QUERY_BLOCK) {
+                int rows = Math.min(QUERY_BLOCK, rowEnd - q);
+                Arrays.fill(sizes, 0);
+                for (int d = 0; d < data.size; d += DATA_BLOCK) {
+                    int columns = Math.min(DATA_BLOCK, data.size - d);
+                    block(measure, queries, q, data, d, new Matrix(buffer, 0, rows, columns, columns, 1));
+                    for (int i = 0; i < rows; i++) {
+                        int query = q + i;
+                        int[] heapIndices = indices[query];
+                        double[] heapKeys = values[query];
+                        for (int j = 0; j < columns; j++) {
+                            if (self && d + j == query)
+                                continue;
+                            double key = measure.isDistance() ? -buffer[i * columns + j] : buffer[i * columns + j];
+                            if (sizes[i] < count) {
+                                siftUp(heapKeys, heapIndices, sizes[i]++, key, d + j);
+                            }
+                            else if (key > heapKeys[0]) {
+                                siftDown(heapKeys, heapIndices, count, key, d + j);
+                            }
+                        }
+                    }
+                }
+                for (int i = 0; i < rows; i++) {
+                    sort(values[q + i], indices[q + i], measure.isDistance());
+                }
+            }
+        });
+        return new Neighbours(indices, values);
+    }
+
+    //Computes the measure for the pairs of the block: the dot products with the multiplication kernel, then each of them is turned into the measure with the lengths.
+    private static void block(Measure measure, VectorSet a, int aStart, VectorSet b, int bStart, Matrix destination) {
+        int rows = destination.getRowCount(), columns = destination.getColumnCount();
+        destination.fill(0);
+        MultiplicationKernel.multiply(1, a.rows(aStart, rows), b.rows(bStart, columns).getTransposeView(), destination);
+        if (measure == Measure.DOT_PRODUCT)
+            return;
+
+        double[] result = destination.getData();
+        int columnStride = destination.getColumnStride();
+        for (int i = 0; i < rows; i++) {
+            int index = destination.index(i, 0);
+            double aNorm = a.norms[aStart + i];
+            for (int j = 0; j < columns; j++) {
+                double bNorm = b.norms[bStart + j];
+                double dot = result[index + j * columnStride];
+                double value;
+                switch (measure) {
+                    case COSINE_SIMILARITY:
+                        value = aNorm == 0 || bNorm == 0 ? 0 : dot / (aNorm * bNorm);
+                        break;
+                    case SQUARED_EUCLIDEAN_DISTANCE:
+                        value = Math.max(0, aNorm * aNorm + bNorm * bNorm - 2 * dot); //Rounding can make it slightly negative for equal vectors.
+                        break;
+                    default:
+                        value = Math.sqrt(Math.max(0, aNorm * aNorm + bNorm * bNorm - 2 * dot));
+                }
+                result[index + j * columnStride] = value;
+            }
+        }
+    }
+
+    //Returns the given rows as a view of the array. The view is only read.
+    private Matrix rows(int start, int count) {
+        return new Matrix(data, start * dimension, count, dimension, dimension, 1);
+    }
+
+    //Returns the parallelism for a set of pairs: 1 if the dot products are too little work to be split (see MultiplicationKernel.PARALLEL_THRESHOLD).
+    private static int parallelism(int rows, int columns, int dimension, int parallelism) {
+        return (long) rows * columns * dimension < MultiplicationKernel.PARALLEL_THRESHOLD ? 1 : parallelism;
+    }
+
+    //Adds an element to the heap of the given size, whose root is the smallest key.
+    private static void siftUp(double[] keys, int[] indices, int position, double key, int index) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (keys[parent] <= key)
+                break;
+            keys[position] = keys[parent];
+            indices[position] = indices[parent];
+            position = parent;
+        }
+        keys[position] = key;
+        indices[position] = index;
+    }
+
+    //Replaces the root of the heap of the given size with the element and moves it down to its place.
+    private static void siftDown(double[] keys, int[] indices, int size, double key, int index) {
+        int position = 0;
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child])
+                child++;
+            if (keys[child] >= key)
+                break;
+            keys[position] = keys[child];
+            indices[position] = indices[child];
+            position = child;
+        }
+        keys[position] = key;
+        indices[position] = index;
+    }
+
+    //Sorts a full heap from the biggest key to the smallest by moving the root to the end repeatedly, and turns the keys back into the measure.
+    private static void sort(double[] keys, int[] indices, boolean distance) {
+        for (int size = keys.length - 1; size > 0; size--) {
+            double key = keys[size];
+            int index = indices[size];
+            keys[size] = keys[0];
+            indices[size] = indices[0];
+            siftDown(keys, indices, size, key, index);
+        }
+        if (distance) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = -keys[i];
+            }
+        }
+    }
+
+    private static void checkDimensions(VectorSet a, VectorSet b) {
+        if (a.dimension != b.dimension)
+            throw new IllegalArgumentException("Dimensions of the vectors of the two sets are not equal.");
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Vector " + index + " does not exist in the set.");
+    }
+
+    //The result of nearestNeighbours: for every query, the indices of its nearest vectors in the data set and their measures, the nearest first.
+    public static class Neighbours {
+        private final int[][] indices;
+        private final double[][] values;
+
+        Neighbours(int[][] indices, double[][] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+
+        //Returns the number of queries.
+        public int getQueryCount() {
+            return indices.length;
+        }
+
+        //Returns the indices of the nearest vectors of the query, the nearest first.
+        public int[] getIndices(int query) {
+            return indices[query].clone();
+        }
+
+        //Returns the measures of the query and its nearest vectors, in the order of getIndices.
+        public double[] getValues(int query) {
+            return values[query].clone();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//A pool of scratch matrices and vectors for loops which should not create garbage.
+//getMatrix and getVector return a free buffer of the requested dimension and create one only if there is none. Buffers are returned with release,
+//or all at once with releaseAll, e.g. at the end of every iteration of a simulation. After the first iteration the same buffers are handed out again
+//and nothing is allocated. The elements of a buffer are not cleared, they keep whatever the last user wrote into them.
+//A workspace is not thread-safe. Each thread should use its own.
+public final class Workspace {
+
+    private final ArrayList<Matrix> matrices = new ArrayList<>();
+    private final ArrayList<Vector> vectors = new ArrayList<>();
+    //Whether the buffer at the same index of matrices or vectors is in use. Kept in arrays so that checking them does not box anything.
+    private boolean[] matricesInUse = new boolean[8];
+    private boolean[] vectorsInUse = new boolean[8];
+
+    //Returns a free scratch matrix of the given dimension. Its elements are undefined.
+    public Matrix getMatrix(int rows, int columns) {
+        for (int i = 0; i < matrices.size(); i++) {
+            Matrix matrix = matrices.get(i);
+            if (!matricesInUse[i] && matrix.getRowCount() == rows && matrix.getColumnCount() == columns) {
+                matricesInUse[i] = true;
+                return matrix;
+            }
+        }
+
+        Matrix matrix = new Matrix(rows, columns);
+        matrices.add(matrix);
+        if (matrices.size() > matricesInUse.length)
+            matricesInUse = Arrays.copyOf(matricesInUse, matricesInUse.length * 2);
+        matricesInUse[matrices.size() - 1] = true;
+        return matrix;
+    }
+
+    //Returns a free scratch vector of the given dimension. Its components are undefined.
+    public Vector getVector(int dimension) {
+        for (int i = 0; i < vectors.size(); i++) {
+            Vector vector = vectors.get(i);
+            if (!vectorsInUse[i] && vector.getDimension() == dimension) {
+                vectorsInUse[i] = true;
+                return vector;
+            }
+        }
+
+        Vector vector = new Vector(dimension);
+        vectors.add(vector);
+        if (vectors.size() > vectorsInUse.length)
+            vectorsInUse = Arrays.copyOf(vectorsInUse, vectorsInUse.length * 2);
+        vectorsInUse[vectors.size() - 1] = true;
+        return vector;
+    }
+
+    //Returns the matrix to the workspace. Throws an IllegalArgumentException if it was not taken from this workspace.
+    public void release(Matrix matrix) {
+        for (int i = 0; i < matrices.size(); i++) {
+            if (matrices.get(i) == matrix) {
+                matricesInUse[i] = false;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("The matrix does not belong to this workspace.");
+    }
+
+    //Returns the vector to the workspace. Throws an IllegalArgumentException if it was not taken from this workspace.
+    public void release(Vector vector) {
+        for (int i = 0; i < vectors.size(); i++) {
+            if (vectors.get(i) == vector) {
+                vectorsInUse[i] = false;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("The vector does not belong to this workspace.");
+    }
+
+    //Returns all matrices and vectors to the workspace. Buffers which are still referenced must not be used afterwards.
+    public void releaseAll() {
+        Arrays.fill(matricesInUse, false);
+        Arrays.fill(vectorsInUse, false);
+    }
+
+    //Removes all buffers, so that they can be garbage collected.
+    public void clear() {
+        matrices.clear();
+        vectors.clear();
+        releaseAll();
+    }
+}
\ No newline at end of file
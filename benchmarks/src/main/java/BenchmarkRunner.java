@@ -0,0 +1,165 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+//A small benchmark harness which measures like JMH does in its average time mode with the GC profiler (-prof gc).
+//JMH itself cannot be used, since it does not accept benchmark classes in the default package and the library has no package.
+//Each benchmark runs a number of warmup iterations, whose results are dropped, and then the measurement iterations.
+//An iteration calls the operation repeatedly for a fixed time. For every benchmark it reports:
+//  - the average time per call and its standard deviation over the iterations,
+//  - alloc.rate: megabytes allocated per second by the benchmark thread,
+//  - alloc.rate.norm: bytes allocated per call,
+//  - gc.count and gc.time: collections which happened during the measurement iterations.
+//The allocations are measured with com.sun.management.ThreadMXBean, the same source the GC profiler of JMH uses.
+final class BenchmarkRunner {
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //Results are written to these fields so that the JIT compiler cannot remove the calls as dead code.
+    private volatile double doubleSink;
+    private volatile Object objectSink;
+
+    BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+    }
+
+    //Measures an operation which returns a double.
+    Result measure(String name, String parameters, DoubleSupplier operation) {
+        return measure(name, parameters, count -> {
+            for (long i = 0; i < count; i++) {
+                doubleSink = operation.getAsDouble();
+            }
+        });
+    }
+
+    //Measures an operation which returns an object.
+    Result measureObject(String name, String parameters, Supplier<?> operation) {
+        return measure(name, parameters, count -> {
+            for (long i = 0; i < count; i++) {
+                objectSink = operation.get();
+            }
+        });
+    }
+
+    private interface Batch {
+        void run(long count);
+    }
+
+    private Result measure(String name, String parameters, Batch batch) {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(batch);
+        }
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+
+        double[] nanosPerCall = new double[measurementIterations];
+        long totalCalls = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] iteration = runIteration(batch);
+            nanosPerCall[i] = (double) iteration[1] / iteration[0];
+            totalCalls += iteration[0];
+            totalNanos += iteration[1];
+            totalBytes += iteration[2];
+        }
+
+        double mean = 0;
+        for (double value : nanosPerCall) {
+            mean += value;
+        }
+        mean /= nanosPerCall.length;
+        double variance = 0;
+        for (double value : nanosPerCall) {
+            variance += (value - mean) * (value - mean);
+        }
+        double deviation = nanosPerCall.length > 1 ? Math.sqrt(variance / (nanosPerCall.length - 1)) : 0;
+
+        double allocationRate = totalBytes / (totalNanos / 1e9) / (1024 * 1024);
+        double bytesPerCall = (double) totalBytes / totalCalls;
+
+        return new Result(name, parameters, mean, deviation, allocationRate, bytesPerCall, gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    //Runs the operation for about the iteration time. Returns the number of calls, the elapsed nanoseconds and the allocated bytes.
+    //The batch size grows until a batch takes a tenth of the iteration time, so that reading the clock does not affect short operations.
+    private long[] runIteration(Batch batch) {
+        long threadId = Thread.currentThread().getId();
+        long calls = 0;
+        long batchSize = 1;
+
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            long batchStart = System.nanoTime();
+            batch.run(batchSize);
+            calls += batchSize;
+            long now = System.nanoTime();
+            if (now - batchStart < iterationNanos / 10 && batchSize < (1L << 40))
+                batchSize *= 2;
+            elapsed = now - start;
+        } while (elapsed < iterationNanos);
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        return new long[]{calls, elapsed, bytes};
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    //The result of one benchmark with one set of parameters.
+    static final class Result {
+        final String name;
+        final String parameters;
+        final double nanosPerCall;
+        final double deviation;
+        final double allocationRate;
+        final double bytesPerCall;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(String name, String parameters, double nanosPerCall, double deviation, double allocationRate, double bytesPerCall, long gcCount, long gcMillis) {
+            this.name = name;
+            this.parameters = parameters;
+            this.nanosPerCall = nanosPerCall;
+            this.deviation = deviation;
+            this.allocationRate = allocationRate;
+            this.bytesPerCall = bytesPerCall;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+    }
+
+    //Prints the results as a table.
+    static void print(List<Result> results) {
+        System.out.printf("%-28s %-12s %16s %12s %14s %18s %9s %9s%n",
+                "Benchmark", "Parameters", "Score (us/op)", "Error", "alloc.rate", "alloc.rate.norm", "gc.count", "gc.time");
+        for (Result result : results) {
+            System.out.printf("%-28s %-12s %16.3f %12.3f %9.1f MB/s %14.1f B/op %9d %6d ms%n",
+                    result.name, result.parameters, result.nanosPerCall / 1000, result.deviation / 1000,
+                    result.allocationRate, result.bytesPerCall, result.gcCount, result.gcMillis);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+//Benchmarks of the Matrix and Vector operations over several sizes.
+//Usage: LinearAlgebraBenchmarks [-wi warmupIterations] [-i iterations] [-r iterationMillis] [-p sizes] [name filter (regular expression)]
+//E.g. "-p 512,1024 multiplication" runs only the multiplication benchmarks with 512x512 and 1024x1024 matrices.
+//The inputs are random and created with a fixed seed before the measurement, so that only the operation itself is measured.
+public class LinearAlgebraBenchmarks {
+
+    private interface Benchmark {
+        BenchmarkRunner.Result run(BenchmarkRunner runner, String name, int size);
+    }
+
+    private static final class Definition {
+        final int[] sizes;
+        final Benchmark benchmark;
+
+        Definition(int[] sizes, Benchmark benchmark) {
+            this.sizes = sizes;
+            this.benchmark = benchmark;
+        }
+    }
+
+    private static final Map<String, Definition> BENCHMARKS = new LinkedHashMap<>();
+
+    static {
+        BENCHMARKS.put("Matrix.multiplication", new Definition(new int[]{16, 64, 256, 1024}, (runner, name, size) -> {
+            Matrix m1 = randomMatrix(size, size, 1);
+            Matrix m2 = randomMatrix(size, size, 2);
+            return runner.measureObject(name, "n=" + size, () -> Matrix.multiplication(m1, m2));
+        }));
+        BENCHMARKS.put("Matrix.gemm", new Definition(new int[]{16, 64, 256, 1024}, (runner, name, size) -> {
+            Matrix m1 = randomMatrix(size, size, 1);
+            Matrix m2 = randomMatrix(size, size, 2);
+            Matrix result = randomMatrix(size, size, 3);
+            return runner.measureObject(name, "n=" + size, () -> {
+                Matrix.gemm(1, m1, m2, 0.5, result);
+                return result;
+            });
+        }));
+        BENCHMARKS.put("Matrix.determinant", new Definition(new int[]{8, 64, 256, 512}, (runner, name, size) -> {
+            Matrix matrix = randomMatrix(size, size, 3);
+            return runner.measure(name, "n=" + size, matrix::determinant);
+        }));
+        BENCHMARKS.put("Matrix.getInverse", new Definition(new int[]{8, 64, 256, 512}, (runner, name, size) -> {
+            Matrix matrix = randomMatrix(size, size, 4);
+            return runner.measureObject(name, "n=" + size, matrix::getInverse);
+        }));
+        BENCHMARKS.put("Matrix.getTranspose", new Definition(new int[]{16, 256, 1024, 2048}, (runner, name, size) -> {
+            Matrix matrix = randomMatrix(size, size, 5);
+            return runner.measureObject(name, "n=" + size, matrix::getTranspose);
+        }));
+        BENCHMARKS.put("Vector.dotProduct", new Definition(new int[]{16, 1024, 65536, 1048576}, (runner, name, size) -> {
+            Vector v1 = randomVector(size, 6);
+            Vector v2 = randomVector(size, 7);
+            return runner.measure(name, "n=" + size, () -> Vector.dotProduct(v1, v2));
+        }));
+        BENCHMARKS.put("Vector.getLength", new Definition(new int[]{16, 1024, 65536, 1048576}, (runner, name, size) -> {
+            Vector vector = randomVector(size, 8);
+            return runner.measure(name, "n=" + size, vector::getLength);
+        }));
+        BENCHMARKS.put("SparseMatrix.multiplication", new Definition(new int[]{1024, 65536, 1048576}, (runner, name, size) -> {
+            SparseMatrix matrix = randomSparseMatrix(size, size, 8, 9);
+            Vector vector = randomVector(size, 10);
+            return runner.measureObject(name, "n=" + size, () -> SparseMatrix.multiplication(matrix, vector));
+        }));
+        //The fixed-size types multiply n pairs of 4x4 matrices per call, once as Matrix4 objects and once as a Matrix4Batch.
+        BENCHMARKS.put("Matrix4.multiplication", new Definition(new int[]{1024, 65536}, (runner, name, size) -> {
+            Matrix4[] m1 = new Matrix4[size];
+            Matrix4[] m2 = new Matrix4[size];
+            Matrix4[] result = new Matrix4[size];
+            for (int k = 0; k < size; k++) {
+                m1[k] = new Matrix4(randomMatrix(4, 4, 11 + 2 * k));
+                m2[k] = new Matrix4(randomMatrix(4, 4, 12 + 2 * k));
+            }
+            return runner.measureObject(name, "n=" + size, () -> {
+                for (int k = 0; k < size; k++) {
+                    result[k] = Matrix4.multiplication(m1[k], m2[k]);
+                }
+                return result;
+            });
+        }));
+        BENCHMARKS.put("Matrix4Batch.multiplication", new Definition(new int[]{1024, 65536}, (runner, name, size) -> {
+            Matrix4Batch m1 = new Matrix4Batch(size);
+            Matrix4Batch m2 = new Matrix4Batch(size);
+            Matrix4Batch result = new Matrix4Batch(size);
+            for (int k = 0; k < size; k++) {
+                m1.set(k, new Matrix4(randomMatrix(4, 4, 11 + 2 * k)));
+                m2.set(k, new Matrix4(randomMatrix(4, 4, 12 + 2 * k)));
+            }
+            return runner.measureObject(name, "n=" + size, () -> {
+                Matrix4Batch.multiplication(m1, m2, result);
+                return result;
+            });
+        }));
+    }
+
+    public static void main(String[] args) {
+        int warmupIterations = 5;
+        int iterations = 5;
+        long iterationMillis = 1000;
+        int[] sizes = null;
+        Pattern filter = Pattern.compile(".*");
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi":
+                    warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-i":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-r":
+                    iterationMillis = Long.parseLong(args[++i]);
+                    break;
+                case "-p":
+                    String[] values = args[++i].split(",");
+                    sizes = new int[values.length];
+                    for (int j = 0; j < values.length; j++) {
+                        sizes[j] = Integer.parseInt(values[j].trim());
+                    }
+                    break;
+                default:
+                    filter = Pattern.compile(".*(" + args[i] + ").*");
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, iterations, iterationMillis);
+        List<BenchmarkRunner.Result> results = new ArrayList<>();
+        for (Map.Entry<String, Definition> entry : BENCHMARKS.entrySet()) {
+            if (!filter.matcher(entry.getKey()).matches())
+                continue;
+            for (int size : sizes != null ? sizes : entry.getValue().sizes) {
+                System.out.println("# " + entry.getKey() + ", n=" + size);
+                results.add(entry.getValue().benchmark.run(runner, entry.getKey(), size));
+            }
+        }
+
+        System.out.println();
+        BenchmarkRunner.print(results);
+    }
+
+    static Matrix randomMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        Matrix matrix = new Matrix(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                matrix.setElement(i, j, random.nextDouble() * 2 - 1);
+            }
+        }
+        return matrix;
+    }
+
+    //Creates a sparse matrix with about the given number of non-zero elements in each row.
+    static SparseMatrix randomSparseMatrix(int rows, int columns, int nonZerosPerRow, long seed) {
+        Random random = new Random(seed);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < nonZerosPerRow; k++) {
+                builder.add(i, random.nextInt(columns), random.nextDouble() * 2 - 1);
+            }
+        }
+        return builder.build();
+    }
+
+    static Vector randomVector(int dimension, long seed) {
+        Random random = new Random(seed);
+        Vector vector = new Vector(dimension);
+        for (int i = 0; i < dimension; i++) {
+            vector.setComponent(i, random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+}
\ No newline at end of file